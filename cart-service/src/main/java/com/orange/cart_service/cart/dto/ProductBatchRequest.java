@@ -0,0 +1,21 @@
+package com.orange.cart_service.cart.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+import java.util.UUID;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductBatchRequest {
+
+    // product-service accepts at most 200 ids per request
+    public static final int MAX_IDS = 200;
+
+    private List<UUID> ids;
+}
@@ -3,6 +3,9 @@ package com.orange.cart_service.cart.service;
 import com.orange.cart_service.client.ProductClient;
 import com.orange.cart_service.cart.dto.AddCartItemRequest;
 import com.orange.cart_service.cart.dto.CartDto;
+import com.orange.cart_service.cart.dto.ProductBatchDto;
+import com.orange.cart_service.cart.dto.ProductBatchItemDto;
+import com.orange.cart_service.cart.dto.ProductBatchRequest;
 import com.orange.cart_service.cart.dto.ProductSummaryDto;
 import com.orange.cart_service.cart.dto.UpdateQuantityRequest;
 import com.orange.cart_service.cart.entity.Cart;
@@ -18,7 +21,9 @@ import jakarta.transaction.Transactional;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -109,18 +114,14 @@ public class CartService {
 
     public ApiResponse<List<CartItemDto>> getActiveCartItems(UUID userId) {
         List<CartItem> cartItems = cartItemRepository.findActiveCartItemsByUserId(userId);
-        List<CartItemDto> cartItemDtos = cartItems.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        List<CartItemDto> cartItemDtos = convertToDtos(cartItems);
 
         return ApiResponse.success(cartItemDtos);
     }
 
     public ApiResponse<List<CartItemDto>> getCartItemsByCartId(UUID cartId) {
         List<CartItem> cartItems = cartItemRepository.findByCartUuid(cartId);
-        List<CartItemDto> cartItemDtos = cartItems.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        List<CartItemDto> cartItemDtos = convertToDtos(cartItems);
 
         return ApiResponse.success(cartItemDtos);
     }
@@ -260,7 +261,28 @@ public class CartService {
         }
     }
 
-    private CartItemDto convertToDto(CartItem cartItem) {
+    // Resolve the product names of all items with batch lookups instead of one call per item
+    private List<CartItemDto> convertToDtos(List<CartItem> cartItems) {
+        List<UUID> productIds = cartItems.stream()
+                .map(CartItem::getProductId)
+                .distinct()
+                .collect(Collectors.toList());
+        Map<UUID, String> productNames = new HashMap<>();
+        for (int from = 0; from < productIds.size(); from += ProductBatchRequest.MAX_IDS) {
+            List<UUID> chunk = productIds.subList(from, Math.min(from + ProductBatchRequest.MAX_IDS, productIds.size()));
+            ApiResponse<ProductBatchDto> response = productClient.getProductBatch(new ProductBatchRequest(chunk));
+            if (response.isSuccess() && response.getData() != null) {
+                for (ProductBatchItemDto product : response.getData().getProducts()) {
+                    productNames.put(product.getUuid(), product.getName());
+                }
+            }
+        }
+        return cartItems.stream()
+                .map(cartItem -> convertToDto(cartItem, productNames.get(cartItem.getProductId())))
+                .collect(Collectors.toList());
+    }
+
+    private CartItemDto convertToDto(CartItem cartItem, String productName) {
 
         CartItemDto dto = new CartItemDto();
 
@@ -272,12 +294,7 @@ public class CartService {
         dto.setCreatedAt(cartItem.getCreatedAt());
         dto.setUpdatedAt(cartItem.getUpdatedAt());
 
-        ApiResponse<String> response = productClient.getProductNameById(cartItem.getProductId());
-        if(response.isSuccess()){
-            dto.setProductName(response.getData());
-        } else{
-            dto.setProductName("Unknown product");
-        }
+        dto.setProductName(productName != null ? productName : "Unknown product");
         return dto;
     }
 
@@ -292,10 +309,7 @@ public class CartService {
         dto.setExpiredAt(cart.getExpiredAt());
         
         // Convert cart items to DTOs
-        List<CartItemDto> cartItemDtos = cart.getCartItems().stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
-        dto.setCartItems(cartItemDtos);
+        dto.setCartItems(convertToDtos(cart.getCartItems()));
         
         return dto;
     }
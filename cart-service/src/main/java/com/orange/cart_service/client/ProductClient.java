@@ -1,11 +1,15 @@
 package com.orange.cart_service.client;
 
+import com.orange.cart_service.cart.dto.ProductBatchDto;
+import com.orange.cart_service.cart.dto.ProductBatchRequest;
 import com.orange.cart_service.cart.dto.ProductSummaryDto;
 import com.orange.cart_service.common.dto.ApiResponse;
 import com.orange.cart_service.config.FeignClientConfig;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 
 import java.util.UUID;
 
@@ -26,4 +30,10 @@ public interface ProductClient {
             @PathVariable("id") UUID productId
     );
 
+    // Compact details of several products in one call, unknown ids come back in notFound
+    @PostMapping("/api/products/batch")
+    ApiResponse<ProductBatchDto> getProductBatch(
+            @RequestBody ProductBatchRequest request
+    );
+
 }
\ No newline at end of file
@@ -1,10 +1,16 @@
 package com.orange.order_service.order.client;
 
 import com.orange.order_service.common.dto.ApiResponse;
+import com.orange.order_service.order.dto.BulkStockChangeRequest;
+import com.orange.order_service.order.dto.ProductBatchDto;
+import com.orange.order_service.order.dto.ProductBatchRequest;
+import com.orange.order_service.order.dto.ReserveStockRequest;
+import com.orange.order_service.order.dto.StockReservationResponse;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 
 import java.util.UUID;
@@ -19,10 +25,28 @@ public interface ProductClient {
     @GetMapping("/api/products/{id}/name")
     ApiResponse<String> getProductNameById(@PathVariable("id") UUID productId);
 
+    // Compact details of several products in one call, unknown ids come back in notFound
+    @PostMapping("/api/products/batch")
+    ApiResponse<ProductBatchDto> getProductBatch(@RequestBody ProductBatchRequest request);
+
     @PostMapping("/api/products/{id}/stock")
     ApiResponse<Void> setStock(
             @PathVariable("id") UUID productId,
             @RequestParam("quantity") int quantity,
             @RequestParam("action") String action
     );
+
+    // Applies all lines in one transaction, nothing is changed when any line fails
+    @PostMapping("/api/products/stock/bulk")
+    ApiResponse<Void> changeStockBulk(@RequestBody BulkStockChangeRequest request);
+
+    // Holds stock for all lines until committed, released or expired
+    @PostMapping("/api/reservations/reserve")
+    ApiResponse<StockReservationResponse> reserveStock(@RequestBody ReserveStockRequest request);
+
+    @PostMapping("/api/reservations/{id}/commit")
+    ApiResponse<StockReservationResponse> commitReservation(@PathVariable("id") UUID reservationId);
+
+    @PostMapping("/api/reservations/{id}/release")
+    ApiResponse<StockReservationResponse> releaseReservation(@PathVariable("id") UUID reservationId);
 }
\ No newline at end of file
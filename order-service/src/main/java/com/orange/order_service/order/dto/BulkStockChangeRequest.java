@@ -0,0 +1,17 @@
+package com.orange.order_service.order.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkStockChangeRequest {
+
+    private List<StockChangeLineDto> lines;
+}
@@ -0,0 +1,20 @@
+package com.orange.order_service.order.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+import java.util.UUID;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductBatchDto {
+
+    private List<ProductBatchItemDto> products;
+
+    private List<UUID> notFound;
+}
@@ -0,0 +1,28 @@
+package com.orange.order_service.order.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductBatchItemDto {
+
+    private UUID uuid;
+
+    private String name;
+
+    private BigDecimal price;
+
+    private Integer stock;
+
+    private String image;
+
+    private boolean deleted;
+}
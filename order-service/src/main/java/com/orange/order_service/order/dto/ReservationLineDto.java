@@ -0,0 +1,19 @@
+package com.orange.order_service.order.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.UUID;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationLineDto {
+
+    private UUID productId;
+
+    private Integer quantity;
+}
@@ -0,0 +1,20 @@
+package com.orange.order_service.order.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReserveStockRequest {
+
+    private List<ReservationLineDto> lines;
+
+    // Hold duration in seconds, product-service applies its default when null
+    private Integer ttlSeconds;
+}
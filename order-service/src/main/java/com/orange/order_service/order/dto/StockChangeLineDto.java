@@ -0,0 +1,20 @@
+package com.orange.order_service.order.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.UUID;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockChangeLineDto {
+
+    private UUID productId;
+
+    // Negative to decrease stock, positive to increase it
+    private Integer delta;
+}
@@ -6,6 +6,9 @@ import com.orange.order_service.order.client.UserClient;
 import com.orange.order_service.order.config.RabbitMQConfig;
 import com.orange.order_service.order.dto.CartItemResponseDto;
 import com.orange.order_service.order.dto.OrderItemDto;
+import com.orange.order_service.order.dto.ProductBatchDto;
+import com.orange.order_service.order.dto.ProductBatchItemDto;
+import com.orange.order_service.order.dto.ProductBatchRequest;
 import com.orange.order_service.order.entity.Order;
 import com.orange.order_service.order.event.OrderPlacedEvent;
 import lombok.extern.slf4j.Slf4j;
@@ -13,7 +16,10 @@ import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Service
@@ -99,34 +105,47 @@ public class OrderEventPublisherService {
      * Convert OrderItemDto list to OrderItemInfo list for the event
      */
     private List<OrderPlacedEvent.OrderItemInfo> convertToOrderItemInfos(List<OrderItemDto> orderItems) {
+        Map<UUID, ProductBatchItemDto> products = fetchProducts(orderItems.stream()
+                .map(OrderItemDto::getProductId)
+                .distinct()
+                .toList());
         return orderItems.stream()
-                .map(this::convertToOrderItemInfo)
+                .map(orderItem -> convertToOrderItemInfo(orderItem, products.get(orderItem.getProductId())))
                 .collect(Collectors.toList());
     }
 
     /**
      * Convert single OrderItemDto to OrderItemInfo
      */
-    private OrderPlacedEvent.OrderItemInfo convertToOrderItemInfo(OrderItemDto orderItem) {
+    private OrderPlacedEvent.OrderItemInfo convertToOrderItemInfo(OrderItemDto orderItem, ProductBatchItemDto product) {
         OrderPlacedEvent.OrderItemInfo itemInfo = new OrderPlacedEvent.OrderItemInfo();
         itemInfo.setProductId(orderItem.getProductId());
-
-        // Fetch actual product name from product service
-        String productName = "Unknown Product";
-        try {
-            ApiResponse<String> nameResponse = productClient.getProductNameById(orderItem.getProductId());
-            if (nameResponse != null && nameResponse.isSuccess() && nameResponse.getData() != null) {
-                productName = nameResponse.getData();
-            }
-        } catch (Exception e) {
-            log.warn("Failed to fetch product name for ID {}: {}", orderItem.getProductId(), e.getMessage());
-        }
-        itemInfo.setProductName(productName);
-
+        itemInfo.setProductName(product != null && product.getName() != null ? product.getName() : "Unknown Product");
         itemInfo.setQuantity(orderItem.getQuantity());
         itemInfo.setPrice(orderItem.getPrice());
         itemInfo.setSubtotal(orderItem.getSubtotal());
-        itemInfo.setProductImage(""); // This would need to be fetched from product service
+        itemInfo.setProductImage(product != null && product.getImage() != null ? product.getImage() : "");
         return itemInfo;
     }
+
+    /**
+     * Resolve all products of the order with batch lookups instead of one call per item
+     */
+    private Map<UUID, ProductBatchItemDto> fetchProducts(List<UUID> productIds) {
+        Map<UUID, ProductBatchItemDto> products = new HashMap<>();
+        for (int from = 0; from < productIds.size(); from += ProductBatchRequest.MAX_IDS) {
+            List<UUID> chunk = productIds.subList(from, Math.min(from + ProductBatchRequest.MAX_IDS, productIds.size()));
+            try {
+                ApiResponse<ProductBatchDto> response = productClient.getProductBatch(new ProductBatchRequest(chunk));
+                if (response != null && response.isSuccess() && response.getData() != null) {
+                    for (ProductBatchItemDto product : response.getData().getProducts()) {
+                        products.put(product.getUuid(), product);
+                    }
+                }
+            } catch (Exception e) {
+                log.warn("Failed to fetch {} products for OrderPlacedEvent: {}", chunk.size(), e.getMessage());
+            }
+        }
+        return products;
+    }
 }
@@ -14,6 +14,7 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -181,6 +182,8 @@ public class OrderService {
      */
     @Transactional
     public ApiResponse<OrderResponse> submitOrder(UUID orderId, UUID userId, SubmitOrderRequest request) {
+        UUID reservationId = null;
+        boolean reservationCommitted = false;
         try {
             log.info("Attempting to submit order {}", orderId);
 
@@ -199,24 +202,33 @@ public class OrderService {
                 return ApiResponse.failure("order.cannot_submit_status");
             }
 
-            // Validate stock availability before submitting order
-            ApiResponse<Void> stockValidation = validateStockAvailability(orderId);
-            if (!stockValidation.isSuccess()) {
-                log.warn("Stock validation failed for order {}: {}", orderId, stockValidation.getMessage());
-                return ApiResponse.failure(stockValidation.getMessage());
+            // Hold stock for the whole cart in one call, nothing is held when any line is short
+            ApiResponse<StockReservationResponse> reservation = reserveStock(order);
+            if (!reservation.isSuccess()) {
+                log.warn("Stock reservation failed for order {}: {}", orderId, reservation.getMessage());
+                return ApiResponse.failure(reservation.getMessage());
             }
+            reservationId = reservation.getData().getReservationId();
 
             // Update order data
             order.setPaymentMethod(request.getPaymentMethod());
             order.setShippingAddress(request.getAddress());
-            
-            // Reduce stock for all products in the cart
-            decreaseStock(order.getUuid());
 
-            // Mark as submitted using helper method
+            // Mark as submitted and flush before the stock decrease becomes permanent,
+            // so a failing write leaves only a hold behind
             order.markAsSubmitted();
-            
-            Order submittedOrder = orderRepository.save(order);
+            Order submittedOrder = orderRepository.saveAndFlush(order);
+
+            // Turn the hold into a permanent stock decrease, an uncommitted hold expires on its own
+            ApiResponse<StockReservationResponse> commit = productClient.commitReservation(reservationId);
+            if (!commit.isSuccess()) {
+                log.warn("Failed to commit stock reservation {} for order {}: {}", reservationId, orderId, commit.getMessage());
+                // Keep the order PENDING so the user can submit it again
+                TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+                releaseReservation(reservationId);
+                return ApiResponse.failure("order.insufficient_stock");
+            }
+            reservationCommitted = true;
 
             log.info("Order {} successfully submitted", orderId);
 
@@ -229,6 +241,12 @@ public class OrderService {
 
         } catch (Exception e) {
             log.error("Error submitting order {}: {}", orderId, e.getMessage(), e);
+            if (!reservationCommitted) {
+                TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+                if (reservationId != null) {
+                    releaseReservation(reservationId);
+                }
+            }
             return ApiResponse.failure("order.submit_failed");
         }
     }
@@ -253,25 +271,21 @@ public class OrderService {
             // Fetch cart items for the order
             List<OrderItemDto> cartItems = orderItemService.fetchCartItemsForOrder(cartId, userId);
             
-            for (OrderItemDto item : cartItems) {
-                try {
-                    ApiResponse<Void> stockResponse = productClient.setStock(
-                            item.getProductId(), 
-                            item.getQuantity(), 
-                            action
-                    );
-                    
-                    if (!stockResponse.isSuccess()) {
-                        log.warn("Failed to {} stock for product {}: {}", 
-                                action, item.getProductId(), stockResponse.getMessage());
-                    } else {
-                        log.info("Successfully {} stock for product {} by {}", 
-                                action, item.getProductId(), item.getQuantity());
-                    }
-                } catch (Exception e) {
-                    log.error("Error {} stock for product {}: {}", 
-                            action, item.getProductId(), e.getMessage());
-                }
+            if (cartItems.isEmpty()) {
+                return;
+            }
+            
+            // One bulk call for the whole order instead of one call per item
+            int sign = "decrease".equalsIgnoreCase(action) ? -1 : 1;
+            List<StockChangeLineDto> lines = cartItems.stream()
+                    .map(item -> new StockChangeLineDto(item.getProductId(), sign * item.getQuantity()))
+                    .toList();
+            
+            ApiResponse<Void> stockResponse = productClient.changeStockBulk(new BulkStockChangeRequest(lines));
+            if (!stockResponse.isSuccess()) {
+                log.warn("Failed to {} stock for order {}: {}", action, orderId, stockResponse.getMessage());
+            } else {
+                log.info("Successfully {} stock for order {} ({} items)", action, orderId, lines.size());
             }
         } catch (Exception e) {
             log.error("Error changing stock for order {}: {}", orderId, e.getMessage());
@@ -279,82 +293,55 @@ public class OrderService {
     }
     
     /**
-     * Validate stock availability for all products in an order
-     * This method performs a dry-run stock check without actually modifying inventory
-     * @param orderId The order ID to validate
-     * @return ApiResponse indicating success or failure with specific error message
+     * Reserve stock for all products in an order
+     * The hold is all-or-nothing and expires on the product side if it is never committed
+     * @param order The order whose cart items are reserved
+     * @return ApiResponse with the reservation or a specific error message
      */
-    private ApiResponse<Void> validateStockAvailability(UUID orderId) {
+    private ApiResponse<StockReservationResponse> reserveStock(Order order) {
+        UUID orderId = order.getUuid();
         try {
-            log.info("Validating stock availability for order: {}", orderId);
-            
-            // Find the order to get cartId and userId
-            Optional<Order> orderOpt = orderRepository.findByUuid(orderId);
-            if (orderOpt.isEmpty()) {
-                log.error("Order not found for stock validation: {}", orderId);
-                return ApiResponse.failure("order.not_found");
-            }
-            
-            Order order = orderOpt.get();
-            UUID cartId = order.getCartId();
-            UUID userId = order.getUserId();
-            
+            log.info("Reserving stock for order: {}", orderId);
+
             // Fetch cart items for the order
-            List<OrderItemDto> cartItems = orderItemService.fetchCartItemsForOrder(cartId, userId);
-            
+            List<OrderItemDto> cartItems = orderItemService.fetchCartItemsForOrder(order.getCartId(), order.getUserId());
+
             if (cartItems.isEmpty()) {
                 log.warn("No items found in cart for order: {}", orderId);
                 return ApiResponse.failure("order.no_items");
             }
-            
-            // Validate stock for each item using a temporary decrease/increase cycle
-            for (OrderItemDto item : cartItems) {
-                try {
-                    // Perform temporary stock decrease to validate availability
-                    ApiResponse<Void> decreaseResponse = productClient.setStock(
-                            item.getProductId(), 
-                            item.getQuantity(), 
-                            "decrease"
-                    );
-                    
-                    if (!decreaseResponse.isSuccess()) {
-                        log.warn("Insufficient stock for product {} (requested: {}) in order {}", 
-                                item.getProductId(), item.getQuantity(), orderId);
-                        return ApiResponse.failure("order.insufficient_stock");
-                    }
-                    
-                    // Immediately restore stock to original state
-                    ApiResponse<Void> restoreResponse = productClient.setStock(
-                            item.getProductId(), 
-                            item.getQuantity(), 
-                            "increase"
-                    );
-                    
-                    if (!restoreResponse.isSuccess()) {
-                        log.error("Failed to restore stock for product {} after validation - this may cause inventory inconsistency", 
-                                item.getProductId());
-                        // Don't fail the validation, but log the issue
-                    }
-                    
-                    log.debug("Stock validation passed for product {} (quantity: {})", 
-                            item.getProductId(), item.getQuantity());
-                    
-                } catch (Exception e) {
-                    log.error("Error validating stock for product {} in order {}: {}", 
-                            item.getProductId(), orderId, e.getMessage());
-                    return ApiResponse.failure("order.stock_validation_error");
-                }
+
+            List<ReservationLineDto> lines = cartItems.stream()
+                    .map(item -> new ReservationLineDto(item.getProductId(), item.getQuantity()))
+                    .toList();
+
+            ApiResponse<StockReservationResponse> response = productClient.reserveStock(new ReserveStockRequest(lines, null));
+            if (!response.isSuccess() || response.getData() == null) {
+                log.warn("Insufficient stock for order {}: {}", orderId, response.getMessage());
+                return ApiResponse.failure("order.insufficient_stock");
             }
-            
-            log.info("Stock validation successful for order: {} (validated {} items)", 
-                    orderId, cartItems.size());
-            return ApiResponse.success(null);
-            
+
+            log.info("Reserved stock for order: {} (reservation {}, {} items)",
+                    orderId, response.getData().getReservationId(), lines.size());
+            return response;
+
         } catch (Exception e) {
-            log.error("Error validating stock for order {}: {}", orderId, e.getMessage());
+            log.error("Error reserving stock for order {}: {}", orderId, e.getMessage());
             return ApiResponse.failure("order.stock_validation_failed");
         }
     }
+
+    // Release a reservation that will not be committed, the sweeper releases it anyway once it expires
+    private void releaseReservation(UUID reservationId) {
+        try {
+            ApiResponse<StockReservationResponse> response = productClient.releaseReservation(reservationId);
+            if (!response.isSuccess()) {
+                log.warn("Failed to release stock reservation {}: {}", reservationId, response.getMessage());
+            }
+        } catch (Exception e) {
+            log.error("Error releasing stock reservation {}: {}", reservationId, e.getMessage());
+        }
+    }
     
     // Convenience method to decrease stock (for order creation)
     public void decreaseStock(UUID orderId) {
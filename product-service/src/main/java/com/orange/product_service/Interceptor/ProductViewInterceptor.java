@@ -1,34 +1,69 @@
 package com.orange.product_service.Interceptor;
 
-import com.orange.product_service.product.repo.ProductRepository;
+import com.orange.product_service.product.service.ProductViewCounter;
+import com.orange.product_service.product.trending.TrendingTracker;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatusCode;
 import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
 import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
 
+import java.util.Map;
 import java.util.UUID;
 
 @Component
 public class ProductViewInterceptor implements HandlerInterceptor {
 
-    private final ProductRepository productRepository;
+    private final ProductViewCounter productViewCounter;
+    private final TrendingTracker trendingTracker;
 
-    public ProductViewInterceptor(ProductRepository productRepository) {
-        this.productRepository = productRepository;
+    public ProductViewInterceptor(ProductViewCounter productViewCounter, TrendingTracker trendingTracker) {
+        this.productViewCounter = productViewCounter;
+        this.trendingTracker = trendingTracker;
     }
 
+    // Counted once the response is known, failed lookups and unknown ids are not views
     @Override
-    public boolean preHandle(HttpServletRequest request,
-                             HttpServletResponse response,
-                             Object handler) throws Exception {
-        // Only intercept product detail endpoints
-        String uri = request.getRequestURI();
-        if (uri.matches("/api/products/[0-9a-fA-F-]{8}-[0-9a-fA-F-]{4}-[0-9a-fA-F-]{4}-[0-9a-fA-F-]{4}-[0-9a-fA-F-]{12}")) {  // UUID regex
-            String productId = uri.substring(uri.lastIndexOf("/") + 1);
-
-            productRepository.incrementViewCount(UUID.fromString(productId));
+    public void afterCompletion(HttpServletRequest request,
+                                HttpServletResponse response,
+                                Object handler,
+                                Exception ex) {
+        // Only intercept handlers marked with @TrackProductView
+        if (!"GET".equalsIgnoreCase(request.getMethod()) || !(handler instanceof HandlerMethod handlerMethod)) {
+            return;
+        }
+        if (ex != null || !HttpStatusCode.valueOf(response.getStatus()).is2xxSuccessful()) {
+            return;
         }
 
-        return true; // continue request
+        TrackProductView trackProductView = handlerMethod.getMethodAnnotation(TrackProductView.class);
+        if (trackProductView != null) {
+            UUID productId = resolveProductId(request, trackProductView.value());
+            if (productId != null) {
+                productViewCounter.increment(productId);
+                trendingTracker.recordView(productId);
+            }
+        }
+    }
+
+    private UUID resolveProductId(HttpServletRequest request, String variableName) {
+        Object attribute = request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        if (!(attribute instanceof Map<?, ?> variables)) {
+            return null;
+        }
+
+        Object value = variables.get(variableName);
+        if (value == null) {
+            return null;
+        }
+
+        try {
+            return UUID.fromString(value.toString());
+        } catch (IllegalArgumentException e) {
+            // Not a valid product id, the controller will reject the request
+            return null;
+        }
     }
 }
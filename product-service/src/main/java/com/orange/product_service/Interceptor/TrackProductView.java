@@ -0,0 +1,18 @@
+package com.orange.product_service.Interceptor;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a controller method whose successful GET counts as a product view.
+ * Only 2xx responses count, so failed lookups, unknown ids and 304 revalidations do not.
+ * The product id is read from the path variable named by {@link #value()}.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface TrackProductView {
+
+    String value() default "productId";
+}
@@ -3,10 +3,12 @@ package com.orange.product_service;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 import java.util.Locale;
 
 @EnableCaching
+@EnableScheduling
 @SpringBootApplication
 public class ProductServiceApplication {
 
@@ -5,7 +5,10 @@ import com.orange.product_service.category.dto.CreateCategoryRequest;
 import com.orange.product_service.category.dto.DeleteCategoryRequest;
 import com.orange.product_service.category.dto.UpdateCategoryRequest;
 import com.orange.product_service.category.service.CategoryService;
+import com.orange.product_service.common.ResponseCaching;
 import com.orange.product_service.dto.ApiResponse;
+import com.orange.product_service.product.dto.ProductSummaryPageDto;
+import com.orange.product_service.product.service.ProductService;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
@@ -28,9 +31,14 @@ import java.util.UUID;
 public class CategoryController {
 
     private final CategoryService categoryService;
+    private final ProductService productService;
+    private final ResponseCaching responseCaching;
 
-    public CategoryController(CategoryService categoryService) {
+    public CategoryController(CategoryService categoryService, ProductService productService,
+                              ResponseCaching responseCaching) {
         this.categoryService = categoryService;
+        this.productService = productService;
+        this.responseCaching = responseCaching;
     }
 
     @PostMapping("/create")
@@ -94,7 +102,7 @@ public class CategoryController {
         ApiResponse<List<CategoryDto>> response = categoryService.getAllCategories(locale);
 
         if (response.isSuccess()) {
-            return ResponseEntity.ok(response);
+            return responseCaching.ok("category-list", response);
         } else {
             return ResponseEntity.badRequest().body(response);
         }
@@ -111,7 +119,26 @@ public class CategoryController {
         ApiResponse<CategoryDto> response = categoryService.getCategoryById(categoryId, locale);
 
         if (response.isSuccess()) {
-            return ResponseEntity.ok(response);
+            return responseCaching.ok("category-details", response);
+        } else {
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    @GetMapping("/{categoryId}/products")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Get category products", description = "Paged product summaries of a category (Admin only)")
+    public ResponseEntity<ApiResponse<ProductSummaryPageDto>> getCategoryProducts(
+            @PathVariable UUID categoryId,
+            @RequestHeader(value = "Accept-Language", defaultValue = "en") String language,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+
+        Locale locale = Locale.forLanguageTag(language);
+        ApiResponse<ProductSummaryPageDto> response = productService.getProductSummariesByCategory(categoryId, locale, page, size);
+
+        if (response.isSuccess()) {
+            return responseCaching.ok("category-products", response);
         } else {
             return ResponseEntity.badRequest().body(response);
         }
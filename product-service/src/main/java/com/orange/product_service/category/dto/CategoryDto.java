@@ -6,7 +6,6 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 import java.time.LocalDateTime;
-import java.util.List;
 import java.util.UUID;
 
 @Getter
@@ -19,14 +18,6 @@ public class CategoryDto {
     private String name;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
-    private List<ProductSummaryDto> products;
-
-    @Getter
-    @Setter
-    @NoArgsConstructor
-    @AllArgsConstructor
-    public static class ProductSummaryDto {
-        private UUID uuid;
-        private String name;
-    }
+    // Active products, the products themselves are paged from /api/categories/{id}/products
+    private Long productCount;
 }
@@ -8,6 +8,7 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -23,6 +24,11 @@ public class Category extends BaseEntity {
 
     @Column(name = "name", nullable = false, length = 255)
     private String name;
+
+    // Active products, maintained by CategoryRepository.adjustProductCount in the product write's transaction
+    @Column(name = "product_count", nullable = false, insertable = false, updatable = false)
+    @ColumnDefault("0")
+    private Long productCount = 0L;
     
     @OneToMany(mappedBy = "category", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<Product> products = new ArrayList<>();
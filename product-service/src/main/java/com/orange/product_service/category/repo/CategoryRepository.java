@@ -2,6 +2,7 @@ package com.orange.product_service.category.repo;
 
 import com.orange.product_service.category.entity.Category;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -22,4 +23,9 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
     
     @Query("SELECT c FROM Category c WHERE c.name LIKE %:name% ORDER BY c.name")
     List<Category> findByNameContainingIgnoreCase(@Param("name") String name);
+
+    // Applied in the same transaction as the product write that changes the count
+    @Modifying
+    @Query("UPDATE Category c SET c.productCount = c.productCount + :delta WHERE c.id = :id")
+    int adjustProductCount(@Param("id") Long id, @Param("delta") long delta);
 }
@@ -0,0 +1,55 @@
+package com.orange.product_service.category.service;
+
+import com.orange.product_service.category.dto.CategoryDto;
+import com.orange.product_service.category.entity.Category;
+import com.orange.product_service.category.repo.CategoryRepository;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Cached category reads.
+ * Only the data DTOs are cached, CategoryService wraps them in the localized envelope per request.
+ * Entries are evicted by ProductCacheInvalidator when a category or its product count changes.
+ */
+@Service
+public class CategoryQueryService {
+
+    private final CategoryRepository categoryRepo;
+
+    public CategoryQueryService(CategoryRepository categoryRepo) {
+        this.categoryRepo = categoryRepo;
+    }
+
+    // Get all categories
+    @Transactional(readOnly = true)
+    @Cacheable(value = "categories", key = "'all'", sync = true)
+    public List<CategoryDto> getAllCategories() {
+        return categoryRepo.findAll()
+                .stream()
+                .map(CategoryQueryService::convertToDto)
+                .toList();
+    }
+
+    // Get category by ID, throws when the category does not exist
+    @Transactional(readOnly = true)
+    @Cacheable(value = "categories", key = "#categoryId", sync = true)
+    public CategoryDto getCategoryDetails(UUID categoryId) {
+        Category category = categoryRepo.findByUuid(categoryId)
+                .orElseThrow(() -> new RuntimeException("Category not found with ID: " + categoryId));
+        return convertToDto(category);
+    }
+
+    static CategoryDto convertToDto(Category category) {
+        CategoryDto dto = new CategoryDto();
+        dto.setUuid(category.getUuid());
+        dto.setName(category.getName());
+        dto.setCreatedAt(category.getCreatedAt());
+        dto.setUpdatedAt(category.getUpdatedAt());
+        dto.setProductCount(category.getProductCount());
+        return dto;
+    }
+}
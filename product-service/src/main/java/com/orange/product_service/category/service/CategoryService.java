@@ -7,6 +7,9 @@ import com.orange.product_service.category.dto.UpdateCategoryRequest;
 import com.orange.product_service.category.entity.Category;
 import com.orange.product_service.category.repo.CategoryRepository;
 import com.orange.product_service.dto.ApiResponse;
+import com.orange.product_service.product.repo.ProductRepository;
+import com.orange.product_service.product.search.ProductIndexer;
+import com.orange.product_service.product.service.ProductCacheInvalidator;
 import org.springframework.context.MessageSource;
 import org.springframework.stereotype.Service;
 
@@ -19,10 +22,20 @@ public class CategoryService {
 
     private final CategoryRepository categoryRepo;
     private final MessageSource messageSource;
+    private final ProductIndexer productIndexer;
+    private final CategoryQueryService categoryQueryService;
+    private final ProductCacheInvalidator cacheInvalidator;
+    private final ProductRepository productRepository;
 
-    public CategoryService(CategoryRepository categoryRepo, MessageSource messageSource) {
+    public CategoryService(CategoryRepository categoryRepo, MessageSource messageSource, ProductIndexer productIndexer,
+                           CategoryQueryService categoryQueryService, ProductCacheInvalidator cacheInvalidator,
+                           ProductRepository productRepository) {
         this.categoryRepo = categoryRepo;
         this.messageSource = messageSource;
+        this.productIndexer = productIndexer;
+        this.categoryQueryService = categoryQueryService;
+        this.cacheInvalidator = cacheInvalidator;
+        this.productRepository = productRepository;
     }
 
     // Create category service
@@ -38,7 +51,8 @@ public class CategoryService {
             category.setName(request.name());
 
             Category savedCategory = categoryRepo.save(category);
-            CategoryDto categoryDto = convertToDto(savedCategory);
+            cacheInvalidator.categoryChanged(savedCategory.getUuid());
+            CategoryDto categoryDto = CategoryQueryService.convertToDto(savedCategory);
 
             String msg = messageSource.getMessage("category.created.success", null, locale);
             return ApiResponse.success(msg, categoryDto);
@@ -62,9 +76,15 @@ public class CategoryService {
                 return ApiResponse.failure(msg + ": " + request.name());
             }
             
+            boolean renamed = !request.name().equals(category.getName());
             category.setName(request.name());
             Category savedCategory = categoryRepo.save(category);
-            CategoryDto categoryDto = convertToDto(savedCategory);
+            cacheInvalidator.categoryChanged(savedCategory.getUuid());
+            if (renamed) {
+                // Products are searchable by category name
+                productIndexer.categoryChanged(savedCategory.getUuid());
+            }
+            CategoryDto categoryDto = CategoryQueryService.convertToDto(savedCategory);
 
             String msg = messageSource.getMessage("category.updated.success", null, locale);
             return ApiResponse.success(msg, categoryDto);
@@ -84,13 +104,16 @@ public class CategoryService {
             Category category = categoryRepo.findByUuid(request.categoryId())
                     .orElseThrow(() -> new RuntimeException("Category not found with ID: " + request.categoryId()));
             
-            // Check if category has products
-            if (category.getProducts() != null && !category.getProducts().isEmpty()) {
+            // Check if category has products, without loading them. Soft deleted ones block the
+            // delete too, so the reported count includes them
+            if (productRepository.existsByCategoryId(category.getId())) {
                 String msg = messageSource.getMessage("category.delete.has.products", null, locale);
-                return ApiResponse.failure(msg + ": " + category.getProducts().size() + " products found");
+                long products = productRepository.countByCategoryId(category.getId());
+                return ApiResponse.failure(msg + ": " + products + " products found, deleted ones included");
             }
             
             categoryRepo.delete(category);
+            cacheInvalidator.categoryChanged(category.getUuid());
             String msg = messageSource.getMessage("category.deleted.success", null, locale);
             return ApiResponse.success(msg, null);
         } catch (RuntimeException e) {
@@ -105,10 +128,7 @@ public class CategoryService {
     // Get all categories
     public ApiResponse<List<CategoryDto>> getAllCategories(Locale locale) {
         try {
-            List<Category> categories = categoryRepo.findAll();
-            List<CategoryDto> categoryDtos = categories.stream()
-                    .map(this::convertToDto)
-                    .toList();
+            List<CategoryDto> categoryDtos = categoryQueryService.getAllCategories();
             
             String msg = messageSource.getMessage("category.list.success", null, locale);
             return ApiResponse.success(msg, categoryDtos);
@@ -121,10 +141,7 @@ public class CategoryService {
     // Get category by ID
     public ApiResponse<CategoryDto> getCategoryById(UUID categoryId, Locale locale) {
         try {
-            Category category = categoryRepo.findByUuid(categoryId)
-                    .orElseThrow(() -> new RuntimeException("Category not found with ID: " + categoryId));
-            
-            CategoryDto categoryDto = convertToDto(category);
+            CategoryDto categoryDto = categoryQueryService.getCategoryDetails(categoryId);
             String msg = messageSource.getMessage("category.details.success", null, locale);
             return ApiResponse.success(msg, categoryDto);
         } catch (RuntimeException e) {
@@ -136,28 +153,15 @@ public class CategoryService {
         }
     }
 
+    // Keep the active product count in step, call inside the transaction writing the products
+    public void adjustProductCount(Category category, long delta) {
+        if (delta != 0) {
+            categoryRepo.adjustProductCount(category.getId(), delta);
+        }
+    }
+
     public Category findByUuid(UUID uuid) {
         return categoryRepo.findByUuid(uuid)
                 .orElseThrow(() -> new RuntimeException("Category not found with UUID: " + uuid));
     }
-
-    private CategoryDto convertToDto(Category category) {
-        CategoryDto dto = new CategoryDto();
-        dto.setUuid(category.getUuid());
-        dto.setName(category.getName());
-        dto.setCreatedAt(category.getCreatedAt());
-        dto.setUpdatedAt(category.getUpdatedAt());
-        
-        // Convert products to ProductSummaryDto if needed
-        if (category.getProducts() != null && !category.getProducts().isEmpty()) {
-            dto.setProducts(category.getProducts().stream()
-                    .map(product -> new CategoryDto.ProductSummaryDto(
-                            product.getUuid(),
-                            product.getName()
-                    ))
-                    .toList());
-        }
-        
-        return dto;
-    }
 }
@@ -0,0 +1,52 @@
+package com.orange.product_service.common;
+
+import com.orange.product_service.config.HttpCachingProperties;
+import com.orange.product_service.config.TwoLevelCacheManager;
+import com.orange.product_service.dto.ApiResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+
+/**
+ * Strong ETags and Cache-Control for the read endpoints.
+ *
+ * The ETag is the cache entry tag of the response data plus its localized message, so it changes
+ * whenever the cached entry is replaced and costs a map lookup. Data built per request (search,
+ * facets, suggestions, trending, cursor pages, batches) is not a cache entry and is sent without
+ * an ETag. When If-None-Match matches, Spring answers 304 without writing the body.
+ */
+@Component
+public class ResponseCaching {
+
+    private final TwoLevelCacheManager cacheManager;
+    private final HttpCachingProperties properties;
+
+    public ResponseCaching(TwoLevelCacheManager cacheManager, HttpCachingProperties properties) {
+        this.cacheManager = cacheManager;
+        this.properties = properties;
+    }
+
+    // 200 with the endpoint's Cache-Control and an ETag when the data is cached, or 304 when the client already has it
+    public <T> ResponseEntity<ApiResponse<T>> ok(String endpoint, ApiResponse<T> response) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .header(HttpHeaders.CACHE_CONTROL, properties.cacheControl(endpoint))
+                .varyBy(HttpHeaders.ACCEPT_LANGUAGE);
+        String etag = etag(response);
+        if (etag != null) {
+            builder.eTag(etag);
+        }
+        return builder.body(response);
+    }
+
+    private String etag(ApiResponse<?> response) {
+        String entryTag = cacheManager.entryTag(response.getData());
+        if (entryTag == null) {
+            return null;
+        }
+        // The message is localized, the data is not
+        int envelope = Objects.hash(response.isSuccess(), response.getMessage());
+        return "\"" + entryTag + "." + Integer.toHexString(envelope) + "\"";
+    }
+}
@@ -0,0 +1,691 @@
+package com.orange.product_service.config;
+
+import com.orange.product_service.category.dto.CategoryDto;
+import com.orange.product_service.dto.ApiResponse;
+import com.orange.product_service.product.dto.ProductDto;
+import com.orange.product_service.product.dto.ProductPageDto;
+import com.orange.product_service.product.dto.ProductSummaryDto;
+import com.orange.product_service.product.dto.ProductSummaryPageDto;
+import com.orange.product_service.product.dto.ProductVariant;
+import com.orange.product_service.review.dto.ReviewCursorPageDto;
+import com.orange.product_service.review.dto.ReviewDto;
+import com.orange.product_service.review.dto.ReviewStatisticsDto;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compact binary format for the product, review and category values kept in Redis.
+ *
+ * Known DTOs are written field by field with varint lengths and numbers instead of
+ * default-typed JSON with embedded class names. Any other value falls back to the
+ * JSON serializer, and payloads above the threshold are deflated.
+ * Plain JSON entries written before this codec was enabled are still readable.
+ */
+public class BinaryCacheSerializer implements RedisSerializer<Object> {
+
+    // First byte of a stored value, JSON payloads start with '[' or '{' instead
+    private static final byte FORMAT_BINARY = 0x01;
+    private static final byte FORMAT_BINARY_DEFLATED = 0x02;
+    private static final byte FORMAT_JSON_DEFLATED = 0x03;
+
+    // Value type tags
+    private static final byte TYPE_NULL = 0;
+    private static final byte TYPE_API_RESPONSE = 1;
+    private static final byte TYPE_PRODUCT_PAGE = 2;
+    private static final byte TYPE_PRODUCT = 3;
+    private static final byte TYPE_LIST = 4;
+    private static final byte TYPE_REVIEW = 5;
+    private static final byte TYPE_REVIEW_STATISTICS = 6;
+    private static final byte TYPE_STRING = 7;
+    private static final byte TYPE_PRODUCT_SUMMARY_PAGE = 8;
+    private static final byte TYPE_REVIEW_CURSOR_PAGE = 9;
+    private static final byte TYPE_CATEGORY = 10;
+
+    private final RedisSerializer<Object> fallback;
+    private final int compressionThreshold;
+
+    public BinaryCacheSerializer(RedisSerializer<Object> fallback, int compressionThreshold) {
+        this.fallback = fallback;
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+
+        try {
+            byte[] payload;
+            boolean binary;
+            try {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+                writeValue(new DataOutputStream(bytes), value);
+                payload = bytes.toByteArray();
+                binary = true;
+            } catch (UnsupportedValueException e) {
+                payload = fallback.serialize(value);
+                binary = false;
+            }
+
+            if (compressionThreshold > 0 && payload.length >= compressionThreshold) {
+                byte[] deflated = deflate(payload, binary);
+                if (deflated != null) {
+                    return deflated;
+                }
+            }
+            return binary ? prepend(FORMAT_BINARY, payload) : payload;
+        } catch (IOException e) {
+            throw new SerializationException("Could not write cache value", e);
+        }
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+
+        try {
+            switch (bytes[0]) {
+                case FORMAT_BINARY:
+                    return readValue(new DataInputStream(new ByteArrayInputStream(bytes, 1, bytes.length - 1)));
+                case FORMAT_BINARY_DEFLATED:
+                    return readValue(new DataInputStream(new ByteArrayInputStream(inflate(bytes))));
+                case FORMAT_JSON_DEFLATED:
+                    return fallback.deserialize(inflate(bytes));
+                default:
+                    return fallback.deserialize(bytes);
+            }
+        } catch (IOException | DataFormatException e) {
+            throw new SerializationException("Could not read cache value", e);
+        }
+    }
+
+    // Compression
+
+    private static byte[] deflate(byte[] payload, boolean binary) throws IOException {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(payload);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(payload.length / 2 + 16);
+            out.write(binary ? FORMAT_BINARY_DEFLATED : FORMAT_JSON_DEFLATED);
+            writeVarLong(out, payload.length);
+            byte[] buffer = new byte[4096];
+            while (!deflater.finished()) {
+                int count = deflater.deflate(buffer);
+                out.write(buffer, 0, count);
+                if (out.size() >= payload.length) {
+                    // Not worth it
+                    return null;
+                }
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] bytes) throws IOException, DataFormatException {
+        ByteArrayInputStream in = new ByteArrayInputStream(bytes, 1, bytes.length - 1);
+        int length = (int) readVarLong(in);
+        int offset = bytes.length - in.available();
+
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(bytes, offset, bytes.length - offset);
+            byte[] result = new byte[length];
+            int read = 0;
+            while (read < length && !inflater.finished()) {
+                int count = inflater.inflate(result, read, length - read);
+                if (count == 0 && inflater.needsInput()) {
+                    throw new DataFormatException("Truncated cache value");
+                }
+                read += count;
+            }
+            return result;
+        } finally {
+            inflater.end();
+        }
+    }
+
+    // Values
+
+    private void writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(TYPE_NULL);
+        } else if (value instanceof ApiResponse<?> response) {
+            out.writeByte(TYPE_API_RESPONSE);
+            out.writeBoolean(response.isSuccess());
+            writeString(out, response.getMessage());
+            writeValue(out, response.getData());
+        } else if (value instanceof ProductPageDto page) {
+            out.writeByte(TYPE_PRODUCT_PAGE);
+            writeProducts(out, page.products());
+            writeVarInt(out, page.currentPage());
+            writeVarInt(out, page.totalPages());
+            writeVarLong(out, page.totalElements());
+            writeVarInt(out, page.pageSize());
+            out.writeByte((page.hasNext() ? 1 : 0) | (page.hasPrevious() ? 2 : 0)
+                    | (page.isFirst() ? 4 : 0) | (page.isLast() ? 8 : 0));
+        } else if (value instanceof ProductSummaryPageDto page) {
+            out.writeByte(TYPE_PRODUCT_SUMMARY_PAGE);
+            writeVarInt(out, page.products().size());
+            for (ProductSummaryDto summary : page.products()) {
+                writeUuid(out, summary.uuid());
+                writeString(out, summary.name());
+                writeDecimal(out, summary.price());
+                writeString(out, summary.image());
+                writeDecimal(out, summary.rate());
+                writeInteger(out, summary.stock());
+            }
+            writeVarInt(out, page.currentPage());
+            writeVarInt(out, page.totalPages());
+            writeVarLong(out, page.totalElements());
+            writeVarInt(out, page.pageSize());
+            out.writeByte((page.hasNext() ? 1 : 0) | (page.hasPrevious() ? 2 : 0)
+                    | (page.isFirst() ? 4 : 0) | (page.isLast() ? 8 : 0));
+        } else if (value instanceof ProductDto product) {
+            out.writeByte(TYPE_PRODUCT);
+            writeProduct(out, product);
+        } else if (value instanceof ReviewDto review) {
+            out.writeByte(TYPE_REVIEW);
+            writeReview(out, review);
+        } else if (value instanceof ReviewCursorPageDto page) {
+            out.writeByte(TYPE_REVIEW_CURSOR_PAGE);
+            writeVarInt(out, page.reviews().size());
+            for (ReviewDto review : page.reviews()) {
+                writeReview(out, review);
+            }
+            writeVarInt(out, page.pageSize());
+            out.writeBoolean(page.hasNext());
+            writeString(out, page.nextCursor());
+        } else if (value instanceof ReviewStatisticsDto statistics) {
+            out.writeByte(TYPE_REVIEW_STATISTICS);
+            writeUuid(out, statistics.getProductId());
+            writeLong(out, statistics.getReviewCount());
+            writeDecimal(out, statistics.getAverageRating());
+            writeDecimal(out, statistics.getMinRating());
+            writeDecimal(out, statistics.getMaxRating());
+            Map<Integer, Long> distribution = statistics.getRatingDistribution();
+            writeVarInt(out, distribution == null ? 0 : distribution.size() + 1);
+            if (distribution != null) {
+                for (Map.Entry<Integer, Long> entry : distribution.entrySet()) {
+                    writeInteger(out, entry.getKey());
+                    writeLong(out, entry.getValue());
+                }
+            }
+        } else if (value instanceof CategoryDto category) {
+            out.writeByte(TYPE_CATEGORY);
+            writeUuid(out, category.getUuid());
+            writeString(out, category.getName());
+            writeDateTime(out, category.getCreatedAt());
+            writeDateTime(out, category.getUpdatedAt());
+            writeLong(out, category.getProductCount());
+        } else if (value instanceof String string) {
+            out.writeByte(TYPE_STRING);
+            writeString(out, string);
+        } else if (value instanceof List<?> list) {
+            out.writeByte(TYPE_LIST);
+            writeVarInt(out, list.size());
+            for (Object element : list) {
+                writeValue(out, element);
+            }
+        } else {
+            throw new UnsupportedValueException();
+        }
+    }
+
+    private Object readValue(DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        switch (type) {
+            case TYPE_NULL:
+                return null;
+            case TYPE_API_RESPONSE: {
+                boolean success = in.readBoolean();
+                String message = readString(in);
+                return new ApiResponse<>(success, message, readValue(in));
+            }
+            case TYPE_PRODUCT_PAGE: {
+                List<ProductDto> products = readProducts(in);
+                int currentPage = readVarInt(in);
+                int totalPages = readVarInt(in);
+                long totalElements = readVarLong(in);
+                int pageSize = readVarInt(in);
+                int flags = in.readByte();
+                return new ProductPageDto(products, currentPage, totalPages, totalElements, pageSize,
+                        (flags & 1) != 0, (flags & 2) != 0, (flags & 4) != 0, (flags & 8) != 0);
+            }
+            case TYPE_PRODUCT_SUMMARY_PAGE: {
+                int count = readVarInt(in);
+                List<ProductSummaryDto> summaries = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    summaries.add(new ProductSummaryDto(readUuid(in), readString(in), readDecimal(in),
+                            readString(in), readDecimal(in), readInteger(in)));
+                }
+                int currentPage = readVarInt(in);
+                int totalPages = readVarInt(in);
+                long totalElements = readVarLong(in);
+                int pageSize = readVarInt(in);
+                int flags = in.readByte();
+                return new ProductSummaryPageDto(summaries, currentPage, totalPages, totalElements, pageSize,
+                        (flags & 1) != 0, (flags & 2) != 0, (flags & 4) != 0, (flags & 8) != 0);
+            }
+            case TYPE_PRODUCT:
+                return readProduct(in);
+            case TYPE_REVIEW:
+                return readReview(in);
+            case TYPE_REVIEW_CURSOR_PAGE: {
+                int count = readVarInt(in);
+                List<ReviewDto> reviews = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    reviews.add(readReview(in));
+                }
+                int pageSize = readVarInt(in);
+                boolean hasNext = in.readBoolean();
+                return new ReviewCursorPageDto(reviews, pageSize, hasNext, readString(in));
+            }
+            case TYPE_REVIEW_STATISTICS: {
+                ReviewStatisticsDto statistics = new ReviewStatisticsDto();
+                statistics.setProductId(readUuid(in));
+                statistics.setReviewCount(readLong(in));
+                statistics.setAverageRating(readDecimal(in));
+                statistics.setMinRating(readDecimal(in));
+                statistics.setMaxRating(readDecimal(in));
+                int distributionSize = readVarInt(in) - 1;
+                if (distributionSize >= 0) {
+                    Map<Integer, Long> distribution = new LinkedHashMap<>();
+                    for (int i = 0; i < distributionSize; i++) {
+                        distribution.put(readInteger(in), readLong(in));
+                    }
+                    statistics.setRatingDistribution(distribution);
+                }
+                return statistics;
+            }
+            case TYPE_CATEGORY:
+                return new CategoryDto(readUuid(in), readString(in), readDateTime(in), readDateTime(in), readLong(in));
+            case TYPE_STRING:
+                return readString(in);
+            case TYPE_LIST: {
+                int size = readVarInt(in);
+                List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(readValue(in));
+                }
+                return list;
+            }
+            default:
+                throw new IOException("Unknown cache value type " + type);
+        }
+    }
+
+    // DTOs
+
+    private void writeProducts(DataOutputStream out, List<ProductDto> products) throws IOException {
+        writeSize(out, products);
+        if (products != null) {
+            for (ProductDto product : products) {
+                writeProduct(out, product);
+            }
+        }
+    }
+
+    private List<ProductDto> readProducts(DataInputStream in) throws IOException {
+        int size = readSize(in);
+        if (size < 0) {
+            return null;
+        }
+        List<ProductDto> products = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            products.add(readProduct(in));
+        }
+        return products;
+    }
+
+    private void writeProduct(DataOutputStream out, ProductDto product) throws IOException {
+        writeUuid(out, product.getUuid());
+        writeString(out, product.getName());
+        ProductDto.CategorySummaryDto category = product.getCategory();
+        out.writeBoolean(category != null);
+        if (category != null) {
+            writeUuid(out, category.getUuid());
+            writeString(out, category.getName());
+        }
+        writeDecimal(out, product.getPrice());
+        writeString(out, product.getImage());
+        writeInteger(out, product.getStock());
+        writeInteger(out, product.getLowStockThreshold());
+        writeBoolean(out, product.getIsDeleted());
+        writeLong(out, product.getViewCount());
+        writeDecimal(out, product.getRate());
+        writeDateTime(out, product.getCreatedAt());
+        writeDateTime(out, product.getUpdatedAt());
+
+        writeSize(out, product.getTags());
+        if (product.getTags() != null) {
+            for (ProductDto.TagSummaryDto tag : product.getTags()) {
+                writeUuid(out, tag.getUuid());
+                writeString(out, tag.getName());
+            }
+        }
+
+        writeSize(out, product.getReviews());
+        if (product.getReviews() != null) {
+            for (ProductDto.ReviewSummaryDto review : product.getReviews()) {
+                writeUuid(out, review.getUuid());
+                writeUuid(out, review.getUserId());
+                writeDecimal(out, review.getRate());
+            }
+        }
+
+        writeSize(out, product.getVariants());
+        if (product.getVariants() != null) {
+            for (ProductVariant variant : product.getVariants()) {
+                writeVariant(out, variant);
+            }
+        }
+    }
+
+    private ProductDto readProduct(DataInputStream in) throws IOException {
+        ProductDto product = new ProductDto();
+        product.setUuid(readUuid(in));
+        product.setName(readString(in));
+        if (in.readBoolean()) {
+            product.setCategory(new ProductDto.CategorySummaryDto(readUuid(in), readString(in)));
+        }
+        product.setPrice(readDecimal(in));
+        product.setImage(readString(in));
+        product.setStock(readInteger(in));
+        product.setLowStockThreshold(readInteger(in));
+        product.setIsDeleted(readBoolean(in));
+        product.setViewCount(readLong(in));
+        product.setRate(readDecimal(in));
+        product.setCreatedAt(readDateTime(in));
+        product.setUpdatedAt(readDateTime(in));
+
+        int tagCount = readSize(in);
+        if (tagCount >= 0) {
+            List<ProductDto.TagSummaryDto> tags = new ArrayList<>(tagCount);
+            for (int i = 0; i < tagCount; i++) {
+                tags.add(new ProductDto.TagSummaryDto(readUuid(in), readString(in)));
+            }
+            product.setTags(tags);
+        }
+
+        int reviewCount = readSize(in);
+        if (reviewCount >= 0) {
+            List<ProductDto.ReviewSummaryDto> reviews = new ArrayList<>(reviewCount);
+            for (int i = 0; i < reviewCount; i++) {
+                reviews.add(new ProductDto.ReviewSummaryDto(readUuid(in), readUuid(in), readDecimal(in)));
+            }
+            product.setReviews(reviews);
+        }
+
+        int variantCount = readSize(in);
+        if (variantCount >= 0) {
+            List<ProductVariant> variants = new ArrayList<>(variantCount);
+            for (int i = 0; i < variantCount; i++) {
+                variants.add(readVariant(in));
+            }
+            product.setVariants(variants);
+        }
+        return product;
+    }
+
+    private void writeVariant(DataOutputStream out, ProductVariant variant) throws IOException {
+        writeString(out, variant.getVariantId());
+        writeString(out, variant.getName());
+        Map<String, String> attributes = variant.getAttributes();
+        writeVarInt(out, attributes == null ? 0 : attributes.size() + 1);
+        if (attributes != null) {
+            for (Map.Entry<String, String> attribute : attributes.entrySet()) {
+                writeString(out, attribute.getKey());
+                writeString(out, attribute.getValue());
+            }
+        }
+        writeDecimal(out, variant.getPrice());
+        writeInteger(out, variant.getStock());
+        writeString(out, variant.getSku());
+        writeString(out, variant.getImage());
+        writeBoolean(out, variant.getIsActive());
+    }
+
+    private ProductVariant readVariant(DataInputStream in) throws IOException {
+        ProductVariant variant = new ProductVariant();
+        variant.setVariantId(readString(in));
+        variant.setName(readString(in));
+        int attributeCount = readVarInt(in) - 1;
+        if (attributeCount >= 0) {
+            Map<String, String> attributes = new LinkedHashMap<>();
+            for (int i = 0; i < attributeCount; i++) {
+                attributes.put(readString(in), readString(in));
+            }
+            variant.setAttributes(attributes);
+        }
+        variant.setPrice(readDecimal(in));
+        variant.setStock(readInteger(in));
+        variant.setSku(readString(in));
+        variant.setImage(readString(in));
+        variant.setIsActive(readBoolean(in));
+        return variant;
+    }
+
+    private void writeReview(DataOutputStream out, ReviewDto review) throws IOException {
+        writeUuid(out, review.getUuid());
+        writeUuid(out, review.getUserId());
+        writeUuid(out, review.getProductId());
+        writeString(out, review.getProductName());
+        writeDecimal(out, review.getRate());
+        writeDateTime(out, review.getCreatedAt());
+        writeDateTime(out, review.getUpdatedAt());
+    }
+
+    private ReviewDto readReview(DataInputStream in) throws IOException {
+        ReviewDto review = new ReviewDto();
+        review.setUuid(readUuid(in));
+        review.setUserId(readUuid(in));
+        review.setProductId(readUuid(in));
+        review.setProductName(readString(in));
+        review.setRate(readDecimal(in));
+        review.setCreatedAt(readDateTime(in));
+        review.setUpdatedAt(readDateTime(in));
+        return review;
+    }
+
+    // Primitives, nullable values carry a leading presence marker
+
+    private static void writeSize(DataOutputStream out, List<?> list) throws IOException {
+        writeVarInt(out, list == null ? 0 : list.size() + 1);
+    }
+
+    private static int readSize(DataInputStream in) throws IOException {
+        return readVarInt(in) - 1;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            writeVarInt(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length + 1);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = readVarInt(in) - 1;
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeUuid(DataOutputStream out, UUID value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value.getMostSignificantBits());
+            out.writeLong(value.getLeastSignificantBits());
+        }
+    }
+
+    private static UUID readUuid(DataInputStream in) throws IOException {
+        return in.readBoolean() ? new UUID(in.readLong(), in.readLong()) : null;
+    }
+
+    private static void writeDecimal(DataOutputStream out, BigDecimal value) throws IOException {
+        if (value == null) {
+            out.writeByte(0);
+            return;
+        }
+        BigInteger unscaled = value.unscaledValue();
+        if (unscaled.bitLength() < 64) {
+            out.writeByte(1);
+            writeVarLong(out, zigZag(unscaled.longValue()));
+        } else {
+            byte[] bytes = unscaled.toByteArray();
+            out.writeByte(2);
+            writeVarInt(out, bytes.length);
+            out.write(bytes);
+        }
+        writeVarLong(out, zigZag(value.scale()));
+    }
+
+    private static BigDecimal readDecimal(DataInputStream in) throws IOException {
+        byte marker = in.readByte();
+        if (marker == 0) {
+            return null;
+        }
+        BigInteger unscaled;
+        if (marker == 1) {
+            unscaled = BigInteger.valueOf(unZigZag(readVarLong(in)));
+        } else {
+            byte[] bytes = new byte[readVarInt(in)];
+            in.readFully(bytes);
+            unscaled = new BigInteger(bytes);
+        }
+        return new BigDecimal(unscaled, (int) unZigZag(readVarLong(in)));
+    }
+
+    private static void writeInteger(DataOutputStream out, Integer value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            writeVarLong(out, zigZag(value));
+        }
+    }
+
+    private static Integer readInteger(DataInputStream in) throws IOException {
+        return in.readBoolean() ? (int) unZigZag(readVarLong(in)) : null;
+    }
+
+    private static void writeLong(DataOutputStream out, Long value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            writeVarLong(out, zigZag(value));
+        }
+    }
+
+    private static Long readLong(DataInputStream in) throws IOException {
+        return in.readBoolean() ? unZigZag(readVarLong(in)) : null;
+    }
+
+    private static void writeBoolean(DataOutputStream out, Boolean value) throws IOException {
+        out.writeByte(value == null ? 0 : (value ? 2 : 1));
+    }
+
+    private static Boolean readBoolean(DataInputStream in) throws IOException {
+        byte marker = in.readByte();
+        return marker == 0 ? null : marker == 2;
+    }
+
+    private static void writeDateTime(DataOutputStream out, LocalDateTime value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            writeVarLong(out, zigZag(value.toEpochSecond(ZoneOffset.UTC)));
+            writeVarInt(out, value.getNano());
+        }
+    }
+
+    private static LocalDateTime readDateTime(DataInputStream in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        long epochSecond = unZigZag(readVarLong(in));
+        return LocalDateTime.ofEpochSecond(epochSecond, readVarInt(in), ZoneOffset.UTC);
+    }
+
+    private static void writeVarInt(OutputStream out, int value) throws IOException {
+        writeVarLong(out, value & 0xFFFFFFFFL);
+    }
+
+    private static int readVarInt(InputStream in) throws IOException {
+        return (int) readVarLong(in);
+    }
+
+    private static void writeVarLong(OutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(InputStream in) throws IOException {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new IOException("Truncated cache value");
+            }
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IOException("Malformed varint in cache value");
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static byte[] prepend(byte format, byte[] payload) {
+        byte[] result = new byte[payload.length + 1];
+        result[0] = format;
+        System.arraycopy(payload, 0, result, 1, payload.length);
+        return result;
+    }
+
+    private static class UnsupportedValueException extends RuntimeException {
+        UnsupportedValueException() {
+            super(null, null, false, false);
+        }
+    }
+}
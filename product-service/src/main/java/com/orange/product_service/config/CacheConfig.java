@@ -5,7 +5,8 @@ import com.fasterxml.jackson.annotation.PropertyAccessor;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.jsontype.impl.LaissezFaireSubTypeValidator;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
-import org.springframework.cache.CacheManager;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -13,8 +14,12 @@ import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 import java.time.Duration;
@@ -25,6 +30,21 @@ import java.util.Map;
 @EnableCaching
 public class CacheConfig {
 
+    // "binary" for the compact codec, "json" for the default-typed Jackson format
+    @Value("${app.cache.value-codec:binary}")
+    private String valueCodec;
+
+    @Value("${app.cache.compression-threshold-bytes:1024}")
+    private int compressionThreshold;
+
+    // Bumped whenever the shape of cached values changes so old entries are never read back
+    @Value("${app.cache.key-version:v4}")
+    private String keyVersion;
+
+    // Probabilistic early refresh of hot keys, 0 turns it off
+    @Value("${app.cache.early-refresh-beta:1.0}")
+    private double earlyRefreshBeta;
+
     /**
      * Redis template configuration with JSON serialization
      */
@@ -55,15 +75,39 @@ public class CacheConfig {
     }
 
     /**
-     * Cache manager configuration with different TTL for different cache types
+     * Two-level cache manager: bounded in-process L1 in front of the shared Redis L2
+     */
+    @Bean
+    public TwoLevelCacheManager cacheManager(RedisConnectionFactory connectionFactory,
+                                             TwoLevelCacheProperties properties,
+                                             StringRedisTemplate stringRedisTemplate,
+                                             MeterRegistry meterRegistry) {
+        return new TwoLevelCacheManager(redisCacheManager(connectionFactory), properties, stringRedisTemplate, meterRegistry,
+                earlyRefreshBeta);
+    }
+
+    /**
+     * Listens for L1 invalidations published by other product-service instances
      */
     @Bean
-    public CacheManager cacheManager(RedisConnectionFactory connectionFactory) {
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                          TwoLevelCacheManager cacheManager) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(cacheManager, new ChannelTopic(TwoLevelCacheManager.INVALIDATION_CHANNEL));
+        return container;
+    }
+
+    /**
+     * Redis (L2) cache manager configuration with different TTL for different cache types
+     */
+    private RedisCacheManager redisCacheManager(RedisConnectionFactory connectionFactory) {
         // Default cache configuration
         RedisCacheConfiguration defaultConfig = RedisCacheConfiguration.defaultCacheConfig()
                 .entryTtl(Duration.ofMinutes(30)) // Default TTL: 30 minutes
+                .computePrefixWith(cacheName -> keyVersion + ":" + cacheName + "::")
                 .serializeKeysWith(RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
-                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(createJacksonSerializer()));
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(createValueSerializer()));
 
         // Specific cache configurations
         Map<String, RedisCacheConfiguration> cacheConfigurations = new HashMap<>();
@@ -84,16 +128,28 @@ public class CacheConfig {
         cacheConfigurations.put("reviews", defaultConfig.entryTtl(Duration.ofMinutes(60)));
         cacheConfigurations.put("reviewStatistics", defaultConfig.entryTtl(Duration.ofMinutes(60)));
 
-        return RedisCacheManager.builder(connectionFactory)
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(connectionFactory)
                 .cacheDefaults(defaultConfig)
                 .withInitialCacheConfigurations(cacheConfigurations)
                 .build();
+        redisCacheManager.afterPropertiesSet();
+        return redisCacheManager;
+    }
+
+    /**
+     * Create the serializer for cached values, JSON stays available as fallback for unknown types
+     */
+    private RedisSerializer<Object> createValueSerializer() {
+        if ("json".equalsIgnoreCase(valueCodec)) {
+            return createJacksonSerializer();
+        }
+        return new BinaryCacheSerializer(createJacksonSerializer(), compressionThreshold);
     }
 
     /**
      * Create Jackson serializer for Redis values
      */
-    private Jackson2JsonRedisSerializer<Object> createJacksonSerializer() {
+    static Jackson2JsonRedisSerializer<Object> createJacksonSerializer() {
         Jackson2JsonRedisSerializer<Object> serializer = new Jackson2JsonRedisSerializer<>(Object.class);
         ObjectMapper objectMapper = new ObjectMapper();
         objectMapper.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.ANY);
@@ -0,0 +1,27 @@
+package com.orange.product_service.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Cache-Control values sent with the conditional read endpoints.
+ * Endpoints without an entry under {@code endpoints} use {@code cacheControl}.
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "app.http.caching")
+public class HttpCachingProperties {
+
+    private String cacheControl = "no-cache";
+    private Map<String, String> endpoints = new HashMap<>();
+
+    public String cacheControl(String endpoint) {
+        return endpoints.getOrDefault(endpoint, cacheControl);
+    }
+}
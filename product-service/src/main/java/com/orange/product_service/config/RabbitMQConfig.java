@@ -21,6 +21,15 @@ public class RabbitMQConfig {
     @Value("${app.rabbitmq.routing-key.low-stock}")
     private String lowStockRoutingKey;
 
+    @Value("${app.rabbitmq.exchange.order}")
+    private String orderExchange;
+
+    @Value("${app.rabbitmq.queue.order-placed-trending}")
+    private String orderPlacedTrendingQueue;
+
+    @Value("${app.rabbitmq.routing-key.order-placed}")
+    private String orderPlacedRoutingKey;
+
     // Exchange for low stock events
     @Bean
     public TopicExchange lowStockExchange() {
@@ -42,6 +51,26 @@ public class RabbitMQConfig {
                 .with(lowStockRoutingKey);
     }
 
+    // Exchange order-service publishes placed orders to, declared the same way there
+    @Bean
+    public DirectExchange orderExchange() {
+        return new DirectExchange(orderExchange);
+    }
+
+    // Own queue for placed orders, feeding the trending rankings
+    @Bean
+    public Queue orderPlacedTrendingQueue() {
+        return QueueBuilder.durable(orderPlacedTrendingQueue).build();
+    }
+
+    @Bean
+    public Binding orderPlacedTrendingBinding() {
+        return BindingBuilder
+                .bind(orderPlacedTrendingQueue())
+                .to(orderExchange())
+                .with(orderPlacedRoutingKey);
+    }
+
     // JSON message converter
     @Bean
     public Jackson2JsonMessageConverter messageConverter() {
@@ -40,6 +40,7 @@ public class SecurityConfig {
                                 "/api/reviews/test/header",
                                 "/api/products/*",  // Allow public access to product details by ID
                                 "/api/reviews/product/*",  // Allow public access to product reviews
+                                "/api/reviews/product/*/seek",  // Allow public access to paged product reviews
                                 "/api/reviews/statistics/*",  // Allow public access to review statistics
                                 "/api/reviews/debug/*",  // Allow public access to debug endpoint
                                 "/api/reviews/*"  // Allow public access to review details
@@ -0,0 +1,390 @@
+package com.orange.product_service.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.util.ByteUtils;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A bounded in-process L1 cache in front of a shared Redis L2 cache.
+ * Reads try L1 first and fill it from L2, evictions clear both tiers locally
+ * and are broadcast so other instances drop their L1 copy as well.
+ *
+ * Loads through {@link #get(Object, Callable)} (@Cacheable with sync) are single-flight per key:
+ * concurrent misses on one instance share one L2 read and at most one call of the loader.
+ * L1 entries remember when their L2 copy expires, and a hit close to that point may refresh
+ * the entry early (probabilistic early expiration), so a hot key is recomputed by one request
+ * before it expires instead of by every request after it did.
+ *
+ * Redis values are read and written as raw bytes here rather than through the RedisCache, so each
+ * L1 value is tagged with a digest of the bytes it was stored as (see TwoLevelCacheManager#entryTag).
+ */
+public class TwoLevelCache implements Cache {
+
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<String, Object> local;
+    private final Cache remote;
+    private final TwoLevelCacheManager cacheManager;
+    private final double earlyRefreshBeta;
+    private final Map<String, CompletableFuture<Object>> loading = new ConcurrentHashMap<>();
+
+    // Moving average of the loader time, how early a refresh may start scales with it
+    private volatile double loadMillis = 50;
+
+    private final Counter l1Hits;
+    private final Counter l1Misses;
+    private final Counter l2Hits;
+    private final Counter l2Misses;
+    private final Counter coalescedLoads;
+    private final Counter earlyRefreshes;
+
+    public TwoLevelCache(String name,
+                         com.github.benmanes.caffeine.cache.Cache<String, Object> local,
+                         Cache remote,
+                         TwoLevelCacheManager cacheManager,
+                         double earlyRefreshBeta,
+                         MeterRegistry meterRegistry) {
+        this.name = name;
+        this.local = local;
+        this.remote = remote;
+        this.cacheManager = cacheManager;
+        this.earlyRefreshBeta = earlyRefreshBeta;
+        this.l1Hits = tierCounter(meterRegistry, "l1", "hit");
+        this.l1Misses = tierCounter(meterRegistry, "l1", "miss");
+        this.l2Hits = tierCounter(meterRegistry, "l2", "hit");
+        this.l2Misses = tierCounter(meterRegistry, "l2", "miss");
+        this.coalescedLoads = loadCounter(meterRegistry, "coalesced");
+        this.earlyRefreshes = loadCounter(meterRegistry, "early-refresh");
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return remote.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        String localKey = localKey(key);
+        Object value = unwrap(local.getIfPresent(localKey));
+        if (value != null) {
+            l1Hits.increment();
+            return new SimpleValueWrapper(value);
+        }
+        l1Misses.increment();
+
+        value = readRemote(key, localKey);
+        return value != null ? new SimpleValueWrapper(value) : null;
+    }
+
+    /**
+     * Look up several keys at once: L1 first, then a single Redis MGET for the rest.
+     * Keys found in neither tier are left out of the result.
+     */
+    public Map<Object, Object> getAll(Collection<?> keys) {
+        Map<Object, Object> found = new LinkedHashMap<>();
+        List<Object> remoteKeys = new ArrayList<>();
+        for (Object key : keys) {
+            Object value = unwrap(local.getIfPresent(localKey(key)));
+            if (value != null) {
+                l1Hits.increment();
+                found.put(key, value);
+            } else {
+                l1Misses.increment();
+                remoteKeys.add(key);
+            }
+        }
+        if (remoteKeys.isEmpty()) {
+            return found;
+        }
+        if (!(remote instanceof RedisCache redisCache)) {
+            for (Object key : remoteKeys) {
+                ValueWrapper wrapper = remote.get(key);
+                if (wrapper != null && wrapper.get() != null) {
+                    l2Hits.increment();
+                    found.put(key, wrapper.get());
+                    local.put(localKey(key), wrapper.get());
+                } else {
+                    l2Misses.increment();
+                }
+            }
+            return found;
+        }
+
+        RedisCacheConfiguration configuration = redisCache.getCacheConfiguration();
+        byte[][] rawKeys = new byte[remoteKeys.size()][];
+        for (int i = 0; i < rawKeys.length; i++) {
+            rawKeys[i] = rawKey(configuration, remoteKeys.get(i));
+        }
+        List<byte[]> rawValues = cacheManager.multiGet(rawKeys);
+        for (int i = 0; i < rawKeys.length; i++) {
+            byte[] raw = rawValues != null ? rawValues.get(i) : null;
+            Object value = decode(configuration, raw);
+            if (value == null) {
+                l2Misses.increment();
+                continue;
+            }
+            l2Hits.increment();
+            Object key = remoteKeys.get(i);
+            found.put(key, value);
+            local.put(localKey(key), value);
+            cacheManager.tagEntry(value, raw);
+        }
+        return found;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        String localKey = localKey(key);
+        Object cached = local.getIfPresent(localKey);
+        if (cached != null) {
+            l1Hits.increment();
+            if (cached instanceof Expiring entry && refreshDue(entry)) {
+                return (T) refreshEarly(key, localKey, entry, valueLoader);
+            }
+            return (T) unwrap(cached);
+        }
+        l1Misses.increment();
+
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> running = loading.putIfAbsent(localKey, flight);
+        if (running != null) {
+            coalescedLoads.increment();
+            return (T) await(key, running, valueLoader);
+        }
+        try {
+            Object value = readRemote(key, localKey);
+            if (value == null) {
+                value = load(key, localKey, valueLoader);
+            }
+            flight.complete(value);
+            return (T) value;
+        } catch (RuntimeException e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(localKey, flight);
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        if (value == null) {
+            remote.put(key, null);
+            local.invalidate(localKey(key));
+            return;
+        }
+        writeRemote(key, value);
+        // Other instances cannot hold this key in L1, they would have read it from L2
+        local.put(localKey(key), value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        String localKey = localKey(key);
+        remote.evict(key);
+        local.invalidate(localKey);
+        cacheManager.publishEvict(name, localKey);
+    }
+
+    @Override
+    public void clear() {
+        remote.clear();
+        local.invalidateAll();
+        cacheManager.publishClear(name);
+    }
+
+    void evictLocal(String localKey) {
+        local.invalidate(localKey);
+    }
+
+    void clearLocal() {
+        local.invalidateAll();
+    }
+
+    // Single-flight loading
+
+    // L2 value for a key, kept in L1 with its L2 expiry when Redis reports one
+    private Object readRemote(Object key, String localKey) {
+        if (!(remote instanceof RedisCache redisCache)) {
+            ValueWrapper wrapper = remote.get(key);
+            Object value = wrapper != null ? wrapper.get() : null;
+            countRemote(value);
+            if (value != null) {
+                local.put(localKey, value);
+            }
+            return value;
+        }
+        RedisCacheConfiguration configuration = redisCache.getCacheConfiguration();
+        TwoLevelCacheManager.RawEntry raw = cacheManager.getWithTtl(rawKey(configuration, key));
+        Object value = raw != null ? decode(configuration, raw.value()) : null;
+        countRemote(value);
+        if (value != null) {
+            local.put(localKey, raw.ttlMillis() > 0
+                    ? new Expiring(value, System.currentTimeMillis() + raw.ttlMillis())
+                    : value);
+            cacheManager.tagEntry(value, raw.value());
+        }
+        return value;
+    }
+
+    // Run the loader and store the result in both tiers
+    private Object load(Object key, String localKey, Callable<?> valueLoader) {
+        long started = System.nanoTime();
+        Object value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        double millis = (System.nanoTime() - started) / 1_000_000.0;
+        loadMillis = loadMillis * 0.8 + millis * 0.2;
+
+        if (value == null) {
+            // Null values are not cached
+            return null;
+        }
+        Duration ttl = writeRemote(key, value);
+        local.put(localKey, ttl.isPositive()
+                ? new Expiring(value, System.currentTimeMillis() + ttl.toMillis())
+                : value);
+        return value;
+    }
+
+    // Stores the value in L2 and tags it, returns its TTL (zero when it does not expire)
+    private Duration writeRemote(Object key, Object value) {
+        if (!(remote instanceof RedisCache redisCache)) {
+            remote.put(key, value);
+            return Duration.ZERO;
+        }
+        RedisCacheConfiguration configuration = redisCache.getCacheConfiguration();
+        Duration ttl = configuration.getTtlFunction().getTimeToLive(key, value);
+        byte[] raw = ByteUtils.getBytes(configuration.getValueSerializationPair().write(value));
+        cacheManager.setWithTtl(rawKey(configuration, key), raw, ttl);
+        cacheManager.tagEntry(value, raw);
+        return ttl;
+    }
+
+    // XFetch: refresh once now + loadMillis * beta * -ln(random) passes the L2 expiry
+    private boolean refreshDue(Expiring entry) {
+        if (earlyRefreshBeta <= 0) {
+            return false;
+        }
+        double random = 1.0 - ThreadLocalRandom.current().nextDouble(); // (0, 1]
+        double gap = -loadMillis * earlyRefreshBeta * Math.log(random);
+        return System.currentTimeMillis() + gap >= entry.expiresAt();
+    }
+
+    // The winning request reloads, everyone else keeps getting the current value meanwhile
+    private Object refreshEarly(Object key, String localKey, Expiring entry, Callable<?> valueLoader) {
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        if (loading.putIfAbsent(localKey, flight) != null) {
+            return entry.value();
+        }
+        earlyRefreshes.increment();
+        try {
+            Object value = load(key, localKey, valueLoader);
+            flight.complete(value);
+            return value != null ? value : entry.value();
+        } catch (RuntimeException e) {
+            // Keep serving the current value until it really expires
+            flight.complete(entry.value());
+            return entry.value();
+        } finally {
+            loading.remove(localKey, flight);
+        }
+    }
+
+    private static Object await(Object key, CompletableFuture<Object> flight, Callable<?> valueLoader) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new ValueRetrievalException(key, valueLoader, e.getCause());
+        }
+    }
+
+    // Encoding
+
+    // Same key encoding as the RedisCache itself
+    private byte[] rawKey(RedisCacheConfiguration configuration, Object key) {
+        String prefixed = configuration.getKeyPrefixFor(name) + localKey(key);
+        return ByteUtils.getBytes(configuration.getKeySerializationPair().write(prefixed));
+    }
+
+    private static Object decode(RedisCacheConfiguration configuration, byte[] raw) {
+        return raw != null ? configuration.getValueSerializationPair().read(ByteBuffer.wrap(raw)) : null;
+    }
+
+    private static Object unwrap(Object cached) {
+        return cached instanceof Expiring entry ? entry.value() : cached;
+    }
+
+    // Redis stores keys in their String form, use the same form locally so remote evictions match
+    private static String localKey(Object key) {
+        return String.valueOf(key);
+    }
+
+    private void countRemote(Object value) {
+        if (value != null) {
+            l2Hits.increment();
+        } else {
+            l2Misses.increment();
+        }
+    }
+
+    private Counter tierCounter(MeterRegistry meterRegistry, String tier, String result) {
+        return Counter.builder("cache.tier.requests")
+                .description("Cache lookups per tier of the two-level cache")
+                .tag("cache", name)
+                .tag("tier", tier)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private Counter loadCounter(MeterRegistry meterRegistry, String kind) {
+        return Counter.builder("cache.loads")
+                .description("Loads that joined one already running, and early refreshes of hot keys")
+                .tag("cache", name)
+                .tag("kind", kind)
+                .register(meterRegistry);
+    }
+
+    // L1 value that knows when its L2 copy expires
+    private record Expiring(Object value, long expiresAt) {
+    }
+}
@@ -0,0 +1,196 @@
+package com.orange.product_service.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisStringCommands.SetOption;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache manager layering a per-instance Caffeine L1 over the Redis cache manager.
+ * Evictions are published on a Redis channel so every product-service instance
+ * drops the same keys from its own L1.
+ *
+ * Every value taken into L1 from or written to Redis gets an entry tag, a digest of its stored
+ * bytes. It identifies that version of the entry on every instance and serves as its ETag.
+ */
+public class TwoLevelCacheManager implements CacheManager, MessageListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(TwoLevelCacheManager.class);
+
+    public static final String INVALIDATION_CHANNEL = "product-cache:invalidation";
+
+    private static final String OP_EVICT = "E";
+    private static final String OP_CLEAR = "C";
+    private static final String SEPARATOR = "|";
+
+    // Identifies this instance so it ignores its own invalidation messages
+    private final String instanceId = UUID.randomUUID().toString();
+
+    private final CacheManager redisCacheManager;
+    private final TwoLevelCacheProperties properties;
+    private final StringRedisTemplate redisTemplate;
+    private final MeterRegistry meterRegistry;
+    private final double earlyRefreshBeta;
+    private final Map<String, TwoLevelCache> caches = new ConcurrentHashMap<>();
+
+    // Weak keys compare by identity, a tag lives as long as the L1 value it belongs to
+    private final com.github.benmanes.caffeine.cache.Cache<Object, String> entryTags = Caffeine.newBuilder()
+            .weakKeys()
+            .build();
+
+    public TwoLevelCacheManager(CacheManager redisCacheManager,
+                                TwoLevelCacheProperties properties,
+                                StringRedisTemplate redisTemplate,
+                                MeterRegistry meterRegistry,
+                                double earlyRefreshBeta) {
+        this.redisCacheManager = redisCacheManager;
+        this.properties = properties;
+        this.redisTemplate = redisTemplate;
+        this.meterRegistry = meterRegistry;
+        this.earlyRefreshBeta = earlyRefreshBeta;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        TwoLevelCache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache remote = redisCacheManager.getCache(name);
+        if (remote == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(name, cacheName -> createCache(cacheName, remote));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return Collections.unmodifiableCollection(redisCacheManager.getCacheNames());
+    }
+
+    // Raw L2 values for several keys in one MGET, null when Redis cannot be reached
+    List<byte[]> multiGet(byte[][] keys) {
+        try {
+            return redisTemplate.execute((RedisCallback<List<byte[]>>) connection -> connection.stringCommands().mGet(keys));
+        } catch (Exception e) {
+            logger.warn("Failed to read {} cache entries - Error: {}", keys.length, e.getMessage());
+            return null;
+        }
+    }
+
+    // Raw L2 value and its remaining TTL in one round trip, null when Redis cannot be reached
+    RawEntry getWithTtl(byte[] key) {
+        try {
+            List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                connection.stringCommands().get(key);
+                connection.keyCommands().pTtl(key);
+                return null;
+            }, RedisSerializer.byteArray());
+            Long ttlMillis = (Long) results.get(1);
+            return new RawEntry((byte[]) results.get(0), ttlMillis != null ? ttlMillis : -1);
+        } catch (Exception e) {
+            logger.warn("Failed to read cache entry - Error: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    // Writes a serialized L2 value, false when Redis cannot be reached
+    boolean setWithTtl(byte[] key, byte[] value, Duration ttl) {
+        try {
+            redisTemplate.execute((RedisCallback<Boolean>) connection -> ttl.isPositive()
+                    ? connection.stringCommands().set(key, value, Expiration.from(ttl), SetOption.upsert())
+                    : connection.stringCommands().set(key, value));
+            return true;
+        } catch (Exception e) {
+            logger.warn("Failed to write cache entry - Error: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Tag of a value currently held in L1, null for anything not read from or written to a cache
+     */
+    public String entryTag(Object value) {
+        return value != null ? entryTags.getIfPresent(value) : null;
+    }
+
+    void tagEntry(Object value, byte[] raw) {
+        try {
+            // 128 bits is plenty to tell versions of one entry apart
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(raw);
+            entryTags.put(value, Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(hash, 16)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Failed to tag cache entry", e);
+        }
+    }
+
+    void publishEvict(String cacheName, String key) {
+        publish(OP_EVICT + SEPARATOR + cacheName + SEPARATOR + key);
+    }
+
+    void publishClear(String cacheName) {
+        publish(OP_CLEAR + SEPARATOR + cacheName + SEPARATOR);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        // Format: instanceId|op|cacheName|key
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 4);
+        if (parts.length < 4 || instanceId.equals(parts[0])) {
+            return;
+        }
+
+        TwoLevelCache cache = caches.get(parts[2]);
+        if (cache == null) {
+            return;
+        }
+        if (OP_CLEAR.equals(parts[1])) {
+            cache.clearLocal();
+        } else if (OP_EVICT.equals(parts[1])) {
+            cache.evictLocal(parts[3]);
+        }
+    }
+
+    private TwoLevelCache createCache(String name, Cache remote) {
+        com.github.benmanes.caffeine.cache.Cache<String, Object> local = Caffeine.newBuilder()
+                .maximumSize(properties.maxSize(name))
+                .expireAfterWrite(properties.ttl(name))
+                .build();
+        return new TwoLevelCache(name, local, remote, this, earlyRefreshBeta, meterRegistry);
+    }
+
+    // ttlMillis is negative when the key has no expiry or does not exist
+    record RawEntry(byte[] value, long ttlMillis) {
+    }
+
+    private void publish(String payload) {
+        try {
+            redisTemplate.convertAndSend(INVALIDATION_CHANNEL, instanceId + SEPARATOR + payload);
+        } catch (Exception e) {
+            // Other instances fall back to their L1 TTL
+            logger.warn("Failed to publish cache invalidation {} - Error: {}", payload, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.orange.product_service.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Sizing of the in-process L1 caches that sit in front of Redis.
+ * Caches without an entry under {@code caches} use the defaults.
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "app.cache.l1")
+public class TwoLevelCacheProperties {
+
+    private long defaultMaxSize = 1000;
+    private Duration defaultTtl = Duration.ofSeconds(30);
+    private Map<String, Tier> caches = new HashMap<>();
+
+    @Getter
+    @Setter
+    public static class Tier {
+        private Long maxSize;
+        private Duration ttl;
+    }
+
+    public long maxSize(String cacheName) {
+        Tier tier = caches.get(cacheName);
+        return tier != null && tier.getMaxSize() != null ? tier.getMaxSize() : defaultMaxSize;
+    }
+
+    public Duration ttl(String cacheName) {
+        Tier tier = caches.get(cacheName);
+        return tier != null && tier.getTtl() != null ? tier.getTtl() : defaultTtl;
+    }
+}
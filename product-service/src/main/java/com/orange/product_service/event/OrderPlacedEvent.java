@@ -0,0 +1,18 @@
+package com.orange.product_service.event;
+
+import java.util.List;
+import java.util.UUID;
+
+// The part of order-service's order placed event used here, other fields are ignored
+public record OrderPlacedEvent(
+        UUID orderId,
+        String orderNumber,
+        List<OrderItem> orderItems
+) {
+
+    public record OrderItem(
+            UUID productId,
+            Integer quantity
+    ) {
+    }
+}
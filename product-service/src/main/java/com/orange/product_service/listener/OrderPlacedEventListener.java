@@ -0,0 +1,34 @@
+package com.orange.product_service.listener;
+
+import com.orange.product_service.event.OrderPlacedEvent;
+import com.orange.product_service.product.trending.TrendingTracker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Component;
+
+// Feeds ordered quantities into the trending rankings
+@Component
+public class OrderPlacedEventListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderPlacedEventListener.class);
+
+    private final TrendingTracker trendingTracker;
+
+    public OrderPlacedEventListener(TrendingTracker trendingTracker) {
+        this.trendingTracker = trendingTracker;
+    }
+
+    @RabbitListener(queues = "${app.rabbitmq.queue.order-placed-trending}")
+    public void handleOrderPlacedEvent(OrderPlacedEvent event) {
+        if (event.orderItems() == null) {
+            return;
+        }
+        for (OrderPlacedEvent.OrderItem item : event.orderItems()) {
+            if (item.productId() != null && item.quantity() != null) {
+                trendingTracker.recordOrder(item.productId(), item.quantity());
+            }
+        }
+        logger.debug("Recorded {} items of order {} for trending", event.orderItems().size(), event.orderNumber());
+    }
+}
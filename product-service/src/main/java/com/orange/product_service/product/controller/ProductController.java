@@ -1,26 +1,45 @@
 package com.orange.product_service.product.controller;
 
+import com.orange.product_service.Interceptor.TrackProductView;
+import com.orange.product_service.common.ResponseCaching;
 import com.orange.product_service.dto.ApiResponse;
 import com.orange.product_service.product.dto.AddTagsToProductRequest;
 import com.orange.product_service.product.dto.AddVariantRequest;
+import com.orange.product_service.product.dto.BulkStockChangeRequest;
+import com.orange.product_service.product.dto.BulkStockChangeResult;
 import com.orange.product_service.product.dto.CreateProductRequest;
 import com.orange.product_service.product.dto.DeleteProductRequest;
+import com.orange.product_service.product.dto.ProductBatchDto;
+import com.orange.product_service.product.dto.ProductBatchRequest;
+import com.orange.product_service.product.dto.ProductCursorPageDto;
 import com.orange.product_service.product.dto.ProductDto;
+import com.orange.product_service.product.dto.ProductFacetsDto;
+import com.orange.product_service.product.dto.ProductImportResult;
 import com.orange.product_service.product.dto.ProductPageDto;
+import com.orange.product_service.product.dto.ProductSearchResultDto;
+import com.orange.product_service.product.dto.ProductSuggestionsDto;
+import com.orange.product_service.product.dto.ProductSummaryPageDto;
+import com.orange.product_service.product.dto.ProductVariant;
 import com.orange.product_service.product.dto.RemoveTagsFromProductRequest;
 import com.orange.product_service.product.dto.RemoveVariantRequest;
+import com.orange.product_service.product.dto.TrendingProductsDto;
 import com.orange.product_service.product.dto.UpdateProductRequest;
 import com.orange.product_service.product.dto.UpdateVariantRequest;
+import com.orange.product_service.product.search.SearchFilter;
 import com.orange.product_service.product.service.ProductService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.InputStream;
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.Locale;
 import java.util.UUID;
@@ -32,9 +51,11 @@ import java.util.UUID;
 public class ProductController {
     
     private final ProductService productService;
+    private final ResponseCaching responseCaching;
 
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, ResponseCaching responseCaching) {
         this.productService = productService;
+        this.responseCaching = responseCaching;
     }
 
     @PostMapping("/create")
@@ -116,7 +137,7 @@ public class ProductController {
         ApiResponse<ProductPageDto> response = productService.getAllProducts(locale, page, size);
 
         if (response.isSuccess()) {
-            return ResponseEntity.ok(response);
+            return responseCaching.ok("product-list", response);
         } else {
             return ResponseEntity.badRequest().body(response);
         }
@@ -134,7 +155,7 @@ public class ProductController {
         ApiResponse<List<ProductDto>> response = productService.getDeletedProducts(locale, page, size);
 
         if (response.isSuccess()) {
-            return ResponseEntity.ok(response);
+            return responseCaching.ok("product-list-deleted", response);
         } else {
             return ResponseEntity.badRequest().body(response);
         }
@@ -151,6 +172,167 @@ public class ProductController {
         Locale locale = Locale.forLanguageTag(language);
         ApiResponse<ProductPageDto> response = productService.getProductsByCategory(categoryUuid, locale, page, size);
 
+        if (response.isSuccess()) {
+            return responseCaching.ok("product-list-by-category", response);
+        } else {
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    @GetMapping("/list/summary")
+    @Operation(summary = "Get product summaries", description = "Get paginated lean product rows (id, name, price, image, rate, stock) for grid views")
+    public ResponseEntity<ApiResponse<ProductSummaryPageDto>> getProductSummaries(
+            @RequestHeader(value = "Accept-Language", defaultValue = "en") String language,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+
+        Locale locale = Locale.forLanguageTag(language);
+        ApiResponse<ProductSummaryPageDto> response = productService.getProductSummaries(locale, page, size);
+
+        if (response.isSuccess()) {
+            return responseCaching.ok("product-summaries", response);
+        } else {
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    @GetMapping("/category/{categoryUuid}/summary")
+    @Operation(summary = "Get product summaries by category", description = "Get paginated lean product rows filtered by category")
+    public ResponseEntity<ApiResponse<ProductSummaryPageDto>> getProductSummariesByCategory(
+            @PathVariable UUID categoryUuid,
+            @RequestHeader(value = "Accept-Language", defaultValue = "en") String language,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+
+        Locale locale = Locale.forLanguageTag(language);
+        ApiResponse<ProductSummaryPageDto> response = productService.getProductSummariesByCategory(categoryUuid, locale, page, size);
+
+        if (response.isSuccess()) {
+            return responseCaching.ok("product-summaries-by-category", response);
+        } else {
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    @GetMapping("/list/seek")
+    @Operation(summary = "Get products by cursor", description = "Keyset paginated list of products, pass nextCursor as 'after' to get the next page")
+    public ResponseEntity<ApiResponse<ProductCursorPageDto>> getAllProductsAfter(
+            @RequestHeader(value = "Accept-Language", defaultValue = "en") String language,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+
+        Locale locale = Locale.forLanguageTag(language);
+        ApiResponse<ProductCursorPageDto> response = productService.getAllProductsAfter(locale, after, size, includeTotal);
+
+        if (response.isSuccess()) {
+            return responseCaching.ok("product-seek", response);
+        } else {
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    @GetMapping("/search")
+    @Operation(summary = "Search products", description = "Full-text search over product, tag and category names, ranked by relevance, with optional category, tag, price and stock filters")
+    public ResponseEntity<ApiResponse<ProductSearchResultDto>> searchProducts(
+            @RequestHeader(value = "Accept-Language", defaultValue = "en") String language,
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) UUID categoryId,
+            @RequestParam(required = false) UUID tagId,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(defaultValue = "false") boolean inStock,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+
+        Locale locale = Locale.forLanguageTag(language);
+        SearchFilter filter = new SearchFilter(categoryId, tagId, minPrice, maxPrice, inStock);
+        ApiResponse<ProductSearchResultDto> response = productService.searchProducts(q, filter, page, size, locale);
+
+        if (response.isSuccess()) {
+            return responseCaching.ok("product-search", response);
+        } else {
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    @GetMapping("/facets")
+    @Operation(summary = "Get product facets", description = "Active product counts per category, tag, price bucket and rating, optionally within one category")
+    public ResponseEntity<ApiResponse<ProductFacetsDto>> getFacets(
+            @RequestHeader(value = "Accept-Language", defaultValue = "en") String language,
+            @RequestParam(required = false) UUID categoryId) {
+
+        Locale locale = Locale.forLanguageTag(language);
+        ApiResponse<ProductFacetsDto> response = productService.getFacets(categoryId, locale);
+
+        if (response.isSuccess()) {
+            return responseCaching.ok("product-facets", response);
+        } else {
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    @GetMapping("/trending")
+    @Operation(summary = "Get trending products", description = "Most viewed and ordered products of the last hour (window=1h) or day (window=24h), recent activity weighing most")
+    public ResponseEntity<ApiResponse<TrendingProductsDto>> getTrending(
+            @RequestHeader(value = "Accept-Language", defaultValue = "en") String language,
+            @RequestParam(defaultValue = "1h") String window,
+            @RequestParam(defaultValue = "10") int limit) {
+
+        Locale locale = Locale.forLanguageTag(language);
+        ApiResponse<TrendingProductsDto> response = productService.getTrending(window, limit, locale);
+
+        if (response.isSuccess()) {
+            return responseCaching.ok("product-trending", response);
+        } else {
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    @GetMapping("/suggest")
+    @Operation(summary = "Suggest products and tags", description = "Typeahead suggestions for product and tag names starting with the prefix, most viewed and best rated first")
+    public ResponseEntity<ApiResponse<ProductSuggestionsDto>> suggest(
+            @RequestHeader(value = "Accept-Language", defaultValue = "en") String language,
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "5") int limit) {
+
+        Locale locale = Locale.forLanguageTag(language);
+        ApiResponse<ProductSuggestionsDto> response = productService.suggest(prefix, limit, locale);
+
+        if (response.isSuccess()) {
+            return responseCaching.ok("product-suggest", response);
+        } else {
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    @PostMapping("/search/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Rebuild search index", description = "Rebuild the product search index from the database in the background (Admin only)")
+    public ResponseEntity<ApiResponse<Void>> rebuildSearchIndex(
+            @RequestHeader(value = "Accept-Language", defaultValue = "en") String language) {
+
+        Locale locale = Locale.forLanguageTag(language);
+        ApiResponse<Void> response = productService.rebuildSearchIndex(locale);
+
+        if (response.isSuccess()) {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+        } else {
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_NDJSON_VALUE, "text/csv"})
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Import products", description = "Stream products as NDJSON or CSV into the catalog in batches and report the rows that failed (Admin only)")
+    public ResponseEntity<ApiResponse<ProductImportResult>> importProducts(
+            InputStream body,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            @RequestHeader(value = "Accept-Language", defaultValue = "en") String language) {
+
+        Locale locale = Locale.forLanguageTag(language);
+        ApiResponse<ProductImportResult> response = productService.importProducts(body, contentType, locale);
+
         if (response.isSuccess()) {
             return ResponseEntity.ok(response);
         } else {
@@ -158,8 +340,28 @@ public class ProductController {
         }
     }
 
+    @GetMapping("/category/{categoryUuid}/seek")
+    @Operation(summary = "Get products by category and cursor", description = "Keyset paginated list of products in a category")
+    public ResponseEntity<ApiResponse<ProductCursorPageDto>> getProductsByCategoryAfter(
+            @PathVariable UUID categoryUuid,
+            @RequestHeader(value = "Accept-Language", defaultValue = "en") String language,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+
+        Locale locale = Locale.forLanguageTag(language);
+        ApiResponse<ProductCursorPageDto> response = productService.getProductsByCategoryAfter(categoryUuid, locale, after, size, includeTotal);
+
+        if (response.isSuccess()) {
+            return responseCaching.ok("product-seek-by-category", response);
+        } else {
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
     // Public endpoint for product details (no authentication required)
     @GetMapping("/{productId}")
+    @TrackProductView
     @Operation(summary = "Get product details", description = "Get product details by ID (Public endpoint)")
     public ResponseEntity<ApiResponse<ProductDto>> getProductDetails(
             @PathVariable UUID productId,
@@ -169,7 +371,7 @@ public class ProductController {
         ApiResponse<ProductDto> response = productService.getProductById(productId, locale);
         
         if (response.isSuccess()) {
-            return ResponseEntity.ok(response);
+            return responseCaching.ok("product-details", response);
         } else {
             return ResponseEntity.badRequest().body(response);
         }
@@ -260,6 +462,41 @@ public class ProductController {
         }
     }
 
+    @GetMapping("/variants/sku/{sku}")
+    @Operation(summary = "Get variant by SKU", description = "Get a product variant by its SKU")
+    public ResponseEntity<ApiResponse<ProductVariant>> getVariantBySku(
+            @PathVariable String sku,
+            @RequestHeader(value = "Accept-Language", defaultValue = "en") String language) {
+
+        Locale locale = Locale.forLanguageTag(language);
+        ApiResponse<ProductVariant> response = productService.getVariantBySku(sku, locale);
+
+        if (response.isSuccess()) {
+            return responseCaching.ok("product-variant", response);
+        } else {
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    @PostMapping("/{id}/variants/{variantId}/stock")
+    @Operation(summary = "Set variant stock", description = "Increase or decrease the stock of a product variant")
+    public ResponseEntity<ApiResponse<ProductVariant>> setVariantStock(
+            @PathVariable UUID id,
+            @PathVariable String variantId,
+            @RequestParam int quantity,
+            @RequestParam String action, // "increase" or "decrease"
+            @RequestHeader(value = "Accept-Language", defaultValue = "en") String language) {
+
+        Locale locale = Locale.forLanguageTag(language);
+        ApiResponse<ProductVariant> response = productService.setVariantStock(id, variantId, quantity, action, locale);
+
+        if (response.isSuccess()) {
+            return ResponseEntity.ok(response);
+        } else {
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
     @PostMapping("/{id}/stock")
     @Operation(summary = "Set product stock", description = "Increase or decrease product stock quantity")
     public ResponseEntity<ApiResponse<ProductDto>> setStock(
@@ -278,9 +515,41 @@ public class ProductController {
         }
     }
 
+    @PostMapping("/stock/bulk")
+    @Operation(summary = "Change stock in bulk", description = "Apply a list of stock deltas all-or-nothing and return the result of every line")
+    public ResponseEntity<ApiResponse<BulkStockChangeResult>> changeStockBulk(
+            @Valid @RequestBody BulkStockChangeRequest request,
+            @RequestHeader(value = "Accept-Language", defaultValue = "en") String language) {
+
+        Locale locale = Locale.forLanguageTag(language);
+        ApiResponse<BulkStockChangeResult> response = productService.changeStockBulk(request, locale);
+
+        if (response.isSuccess()) {
+            return ResponseEntity.ok(response);
+        } else {
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    @PostMapping("/batch")
+    @Operation(summary = "Get products in batch", description = "Compact details of up to 200 products in one call, deleted products are flagged and unknown ids listed")
+    public ResponseEntity<ApiResponse<ProductBatchDto>> getProductBatch(
+            @Valid @RequestBody ProductBatchRequest request,
+            @RequestHeader(value = "Accept-Language", defaultValue = "en") String language) {
+
+        Locale locale = Locale.forLanguageTag(language);
+        ApiResponse<ProductBatchDto> response = productService.getProductBatch(request, locale);
+
+        if (response.isSuccess()) {
+            return ResponseEntity.ok(response);
+        } else {
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
     @GetMapping("/{id}/name")
     public ResponseEntity<ApiResponse<String>> getProductNameByUuid(@PathVariable UUID id) {
         ApiResponse<String> response = productService.getProductNameById(id);
-        return ResponseEntity.ok(response);
+        return responseCaching.ok("product-name", response);
     }
 }
@@ -0,0 +1,14 @@
+package com.orange.product_service.product.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record BulkStockChangeRequest(
+        @NotEmpty(message = "At least one stock line is required")
+        @Size(max = 500, message = "At most 500 stock lines per request")
+        List<@Valid StockChangeLine> lines
+) {
+}
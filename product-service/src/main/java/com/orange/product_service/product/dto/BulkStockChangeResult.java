@@ -0,0 +1,9 @@
+package com.orange.product_service.product.dto;
+
+import java.util.List;
+
+public record BulkStockChangeResult(
+        boolean applied,
+        List<StockChangeLineResult> lines
+) {
+}
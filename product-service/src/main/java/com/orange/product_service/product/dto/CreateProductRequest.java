@@ -21,6 +21,9 @@ public record CreateProductRequest(
     @Min(value = 0, message = "Stock must be greater than or equal to 0")
     Integer stock,
     
+    @Min(value = 0, message = "Low stock threshold must be greater than or equal to 0")
+    Integer lowStockThreshold,
+    
     @NotNull(message = "Category ID is required")
     UUID categoryId
 ) {
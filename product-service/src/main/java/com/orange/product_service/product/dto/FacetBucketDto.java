@@ -0,0 +1,11 @@
+package com.orange.product_service.product.dto;
+
+import java.math.BigDecimal;
+
+// Count of active products in [from, to), to is null for the open-ended last bucket
+public record FacetBucketDto(
+        BigDecimal from,
+        BigDecimal to,
+        long count
+) {
+}
@@ -0,0 +1,11 @@
+package com.orange.product_service.product.dto;
+
+import java.util.UUID;
+
+// Count of active products carrying one category or tag
+public record FacetValueDto(
+        UUID id,
+        String name,
+        long count
+) {
+}
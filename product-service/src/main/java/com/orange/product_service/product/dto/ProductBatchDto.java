@@ -0,0 +1,10 @@
+package com.orange.product_service.product.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+public record ProductBatchDto(
+        List<ProductBatchItemDto> products, // in request order, duplicates once
+        List<UUID> notFound
+) {
+}
@@ -0,0 +1,15 @@
+package com.orange.product_service.product.dto;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+// Compact product row for service-to-service lookups, deleted products are included and flagged
+public record ProductBatchItemDto(
+        UUID uuid,
+        String name,
+        BigDecimal price,
+        Integer stock,
+        String image,
+        boolean deleted
+) {
+}
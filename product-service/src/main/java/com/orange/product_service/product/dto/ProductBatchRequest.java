@@ -0,0 +1,15 @@
+package com.orange.product_service.product.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+import java.util.UUID;
+
+public record ProductBatchRequest(
+        @NotEmpty(message = "At least one product id is required")
+        @Size(max = 200, message = "At most 200 product ids per request")
+        List<@NotNull UUID> ids
+) {
+}
@@ -0,0 +1,38 @@
+package com.orange.product_service.product.dto;
+
+import com.orange.product_service.product.entity.Product;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position of the last product on a keyset page, ordered by (name, id).
+ * Exposed to clients only as an opaque URL-safe token.
+ */
+public record ProductCursor(String name, Long id) {
+
+    private static final char SEPARATOR = '\n';
+
+    public static ProductCursor of(Product product) {
+        return new ProductCursor(product.getName(), product.getId());
+    }
+
+    public String encode() {
+        String raw = id + String.valueOf(SEPARATOR) + name;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ProductCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new ProductCursor(raw.substring(separator + 1), Long.parseLong(raw.substring(0, separator)));
+        } catch (IllegalArgumentException e) {
+            // Covers bad Base64 and a non numeric id
+            throw new IllegalArgumentException("Invalid cursor: " + token);
+        }
+    }
+}
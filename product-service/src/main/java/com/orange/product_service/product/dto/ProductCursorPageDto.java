@@ -0,0 +1,12 @@
+package com.orange.product_service.product.dto;
+
+import java.util.List;
+
+public record ProductCursorPageDto(
+        List<ProductDto> products,
+        int pageSize,
+        boolean hasNext,
+        String nextCursor,
+        Long totalElements // null unless the total was requested
+) {
+}
@@ -22,6 +22,7 @@ public class ProductDto {
     private BigDecimal price;
     private String image;
     private Integer stock;
+    private Integer lowStockThreshold;
     private Boolean isDeleted;
     private Long viewCount;
     private BigDecimal rate;
@@ -0,0 +1,13 @@
+package com.orange.product_service.product.dto;
+
+import java.util.List;
+
+public record ProductFacetsDto(
+        long total,
+        long inStock,
+        List<FacetValueDto> categories,
+        List<FacetValueDto> tags,
+        List<FacetBucketDto> prices,
+        List<FacetBucketDto> ratings
+) {
+}
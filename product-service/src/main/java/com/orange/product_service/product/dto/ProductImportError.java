@@ -0,0 +1,7 @@
+package com.orange.product_service.product.dto;
+
+public record ProductImportError(
+        long line,
+        String message
+) {
+}
@@ -0,0 +1,11 @@
+package com.orange.product_service.product.dto;
+
+import java.util.List;
+
+public record ProductImportResult(
+        long imported,
+        long failed,
+        List<ProductImportError> errors,
+        boolean errorsTruncated // more rows failed than errors are reported
+) {
+}
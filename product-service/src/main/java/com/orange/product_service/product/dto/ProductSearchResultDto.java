@@ -0,0 +1,16 @@
+package com.orange.product_service.product.dto;
+
+import java.util.List;
+
+public record ProductSearchResultDto(
+        String query,
+        List<ProductSummaryDto> products,
+        int currentPage,
+        int totalPages,
+        long totalElements,
+        int pageSize,
+        boolean hasNext,
+        boolean hasPrevious,
+        ProductFacetsDto facets
+) {
+}
@@ -0,0 +1,10 @@
+package com.orange.product_service.product.dto;
+
+import java.util.List;
+
+public record ProductSuggestionsDto(
+        String prefix,
+        List<SuggestionDto> products,
+        List<SuggestionDto> tags
+) {
+}
@@ -0,0 +1,15 @@
+package com.orange.product_service.product.dto;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+// Slim product row for grid views, built directly by a JPQL constructor projection
+public record ProductSummaryDto(
+        UUID uuid,
+        String name,
+        BigDecimal price,
+        String image,
+        BigDecimal rate,
+        Integer stock
+) {
+}
@@ -0,0 +1,15 @@
+package com.orange.product_service.product.dto;
+
+import jakarta.validation.constraints.NotNull;
+
+import java.util.UUID;
+
+public record StockChangeLine(
+        @NotNull(message = "Product ID is required")
+        UUID productId,
+
+        // Negative to decrease stock, positive to increase it
+        @NotNull(message = "Stock delta is required")
+        Integer delta
+) {
+}
@@ -0,0 +1,11 @@
+package com.orange.product_service.product.dto;
+
+import java.util.UUID;
+
+public record StockChangeLineResult(
+        UUID productId,
+        int delta,
+        StockChangeStatus status,
+        Integer stock // stock after the batch, null when the product was not found
+) {
+}
@@ -0,0 +1,9 @@
+package com.orange.product_service.product.dto;
+
+public enum StockChangeStatus {
+    APPLIED,
+    INSUFFICIENT_STOCK,
+    NOT_FOUND,
+    // The line could be applied but another line failed, so the whole batch was rolled back
+    ROLLED_BACK
+}
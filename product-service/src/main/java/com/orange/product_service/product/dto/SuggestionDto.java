@@ -0,0 +1,10 @@
+package com.orange.product_service.product.dto;
+
+import java.util.UUID;
+
+// One typeahead entry, id is the product or tag uuid
+public record SuggestionDto(
+        UUID id,
+        String text
+) {
+}
@@ -0,0 +1,16 @@
+package com.orange.product_service.product.dto;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+// Product summary with its decayed, order weighted view score in the requested window
+public record TrendingProductDto(
+        UUID uuid,
+        String name,
+        BigDecimal price,
+        String image,
+        BigDecimal rate,
+        Integer stock,
+        double score
+) {
+}
@@ -22,6 +22,9 @@ public record UpdateProductRequest(
         @Min(value = 0, message = "Stock must be greater than or equal to 0")
         Integer stock,
 
+        @Min(value = 0, message = "Low stock threshold must be greater than or equal to 0")
+        Integer lowStockThreshold,
+
         UUID categoryId
 )  {
 }
@@ -10,8 +10,6 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
-import org.hibernate.annotations.JdbcTypeCode;
-import org.hibernate.type.SqlTypes;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
@@ -35,17 +33,46 @@ public class Product extends BaseEntity {
     @Column(name = "image", length = 500)
     private String image;
     
-    @Column(name = "stock", nullable = false)
+    // Stock, the deleted flag and the view count are only written by ProductRepository's single-statement updates
+    // (stock deltas, setStockLevel, setDeleted, view count flushes), a save of a stale copy must not overwrite them
+    @Column(name = "stock", nullable = false, updatable = false)
     private Integer stock = 0;
+
+    // Stock level below which low stock alerts fire, null falls back to app.stock.low-stock.default-threshold
+    @Column(name = "low_stock_threshold")
+    private Integer lowStockThreshold;
     
-    @Column(name = "is_deleted", nullable = false)
+    @Column(name = "is_deleted", nullable = false, updatable = false)
     private Boolean isDeleted = false;
     
-    @Column(name = "view_count", nullable = false)
+    @Column(name = "view_count", nullable = false, updatable = false)
     private Long viewCount = 0L;
     
-    @Column(name = "rate", precision = 3, scale = 2)
+    // Rating aggregates are only written by ProductRepository.applyRatingDelta so entity saves cannot overwrite concurrent deltas
+    @Column(name = "rate", precision = 3, scale = 2, updatable = false)
     private BigDecimal rate = BigDecimal.ZERO;
+
+    @Column(name = "rating_sum", precision = 12, scale = 2, insertable = false, updatable = false)
+    private BigDecimal ratingSum = BigDecimal.ZERO;
+
+    @Column(name = "rating_count", insertable = false, updatable = false)
+    private Long ratingCount = 0L;
+
+    // Reviews per star, a rate counts towards its whole star (4.50 is a 4 star review)
+    @Column(name = "rating_1_count", insertable = false, updatable = false)
+    private Long rating1Count = 0L;
+
+    @Column(name = "rating_2_count", insertable = false, updatable = false)
+    private Long rating2Count = 0L;
+
+    @Column(name = "rating_3_count", insertable = false, updatable = false)
+    private Long rating3Count = 0L;
+
+    @Column(name = "rating_4_count", insertable = false, updatable = false)
+    private Long rating4Count = 0L;
+
+    @Column(name = "rating_5_count", insertable = false, updatable = false)
+    private Long rating5Count = 0L;
     
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "category_id", nullable = false)
@@ -62,9 +89,9 @@ public class Product extends BaseEntity {
     @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<Review> reviews = new ArrayList<>();
     
-    @Column(name = "variants", columnDefinition = "json")
-    @JdbcTypeCode(SqlTypes.JSON)
-    private String variants; 
+    @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
+    @OrderBy("id ASC")
+    private List<Variant> variants = new ArrayList<>();
 
     // Helper methods
     public void addTag(Tag tag) {
@@ -109,15 +136,18 @@ public class Product extends BaseEntity {
     }
     
     // Variant management helper methods
-    public boolean hasVariants() {
-        return variants != null && !variants.trim().isEmpty();
-    }
-    
-    public void setVariantsJson(String variantsJson) {
-        this.variants = variantsJson;
+    public void addVariant(Variant variant) {
+        if (variants == null) {
+            variants = new ArrayList<>();
+        }
+        variants.add(variant);
+        variant.setProduct(this);
     }
     
-    public String getVariantsJson() {
-        return this.variants;
+    public void removeVariant(Variant variant) {
+        if (variants != null) {
+            variants.remove(variant);
+        }
+        variant.setProduct(null);
     }
 }
\ No newline at end of file
@@ -0,0 +1,48 @@
+package com.orange.product_service.product.entity;
+
+import com.orange.product_service.entity.BaseEntity;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+@Entity
+@Table(name = "product_variants")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class Variant extends BaseEntity {
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "product_id", nullable = false)
+    private Product product;
+
+    @Column(name = "name", nullable = false, length = 255)
+    private String name;
+
+    @Column(name = "attributes", columnDefinition = "json")
+    @JdbcTypeCode(SqlTypes.JSON)
+    private Map<String, String> attributes; // e.g., {"color": "red", "size": "M"}
+
+    @Column(name = "price", nullable = false, precision = 10, scale = 2)
+    private BigDecimal price;
+
+    @Column(name = "stock", nullable = false)
+    private Integer stock = 0;
+
+    @Column(name = "sku", unique = true, length = 100)
+    private String sku;
+
+    @Column(name = "image", length = 500)
+    private String image;
+
+    @Column(name = "is_active", nullable = false)
+    private Boolean isActive = true;
+}
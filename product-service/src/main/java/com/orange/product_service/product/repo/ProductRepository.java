@@ -1,8 +1,11 @@
 package com.orange.product_service.product.repo;
 
+import com.orange.product_service.product.dto.ProductSummaryDto;
 import com.orange.product_service.product.entity.Product;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -11,6 +14,8 @@ import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -30,13 +35,157 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     @Query("UPDATE Product p SET p.viewCount = COALESCE(p.viewCount, 0) + 1 WHERE p.uuid = :uuid")
     void incrementViewCount(@Param("uuid") UUID uuid);
 
+    @Modifying
+    @Transactional
+    @Query("UPDATE Product p SET p.viewCount = COALESCE(p.viewCount, 0) + :delta WHERE p.uuid IN :uuids")
+    int addViewCount(@Param("uuids") Collection<UUID> uuids, @Param("delta") long delta);
+
+    // Conditional stock change, returns 0 when the product is missing, deleted or would go below zero
+    @Modifying
+    @Transactional
+    @Query("UPDATE Product p SET p.stock = p.stock + :delta " +
+            "WHERE p.uuid = :uuid AND p.isDeleted = false AND p.stock + :delta >= 0")
+    int applyStockDelta(@Param("uuid") UUID uuid, @Param("delta") int delta);
+
+    // Absolute stock level set by an admin, overrides whatever concurrent deltas left
+    @Modifying
+    @Transactional
+    @Query("UPDATE Product p SET p.stock = :stock, p.updatedAt = :now WHERE p.uuid = :uuid")
+    int setStockLevel(@Param("uuid") UUID uuid, @Param("stock") int stock, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Product p SET p.stock = p.stock + :quantity WHERE p.uuid = :uuid")
+    int restoreStock(@Param("uuid") UUID uuid, @Param("quantity") int quantity);
+
+    // Conditional soft delete / activation, returns 0 when the flag already had that value
+    @Modifying
+    @Transactional
+    @Query("UPDATE Product p SET p.isDeleted = :deleted, p.updatedAt = :now WHERE p.uuid = :uuid AND p.isDeleted <> :deleted")
+    int setDeleted(@Param("uuid") UUID uuid, @Param("deleted") boolean deleted, @Param("now") LocalDateTime now);
+
+    // Which of the ids exist, deleted or not
+    @Query("SELECT p.uuid FROM Product p WHERE p.uuid IN :uuids")
+    List<UUID> findExistingUuids(@Param("uuids") Collection<UUID> uuids);
+
+    @Query("SELECT p.stock FROM Product p WHERE p.uuid = :uuid AND p.isDeleted = false")
+    Optional<Integer> findActiveStockByUuid(@Param("uuid") UUID uuid);
+
+    @EntityGraph(attributePaths = "category")
+    @Query("SELECT p FROM Product p WHERE p.uuid IN :uuids")
+    List<Product> findAllByUuidIn(@Param("uuids") Collection<UUID> uuids);
+
+    // Applies one review write to the rating aggregates in a single statement.
+    // rate is assigned first so it reads the old sum and count on every database.
+    @Modifying
+    @Transactional
+    @Query("UPDATE Product p SET " +
+            "p.rate = CASE WHEN p.ratingCount + :countDelta > 0 " +
+            "THEN ROUND((p.ratingSum + :sumDelta) / (p.ratingCount + :countDelta), 2) ELSE 0 END, " +
+            "p.ratingSum = p.ratingSum + :sumDelta, " +
+            "p.ratingCount = p.ratingCount + :countDelta, " +
+            "p.rating1Count = p.rating1Count + :star1, " +
+            "p.rating2Count = p.rating2Count + :star2, " +
+            "p.rating3Count = p.rating3Count + :star3, " +
+            "p.rating4Count = p.rating4Count + :star4, " +
+            "p.rating5Count = p.rating5Count + :star5 " +
+            "WHERE p.uuid = :uuid")
+    int applyRatingDelta(@Param("uuid") UUID uuid,
+                         @Param("sumDelta") BigDecimal sumDelta,
+                         @Param("countDelta") long countDelta,
+                         @Param("star1") long star1,
+                         @Param("star2") long star2,
+                         @Param("star3") long star3,
+                         @Param("star4") long star4,
+                         @Param("star5") long star5);
 
-    @Query("SELECT p FROM Product p WHERE p.isDeleted = false")
+
+    @EntityGraph(attributePaths = "category")
+    @Query(value = "SELECT p FROM Product p WHERE p.isDeleted = false",
+            countQuery = "SELECT COUNT(p) FROM Product p WHERE p.isDeleted = false")
     Page<Product> findActiveProducts(Pageable pageable);
 
-    @Query("SELECT p FROM Product p WHERE p.isDeleted = true")
+    @EntityGraph(attributePaths = "category")
+    @Query(value = "SELECT p FROM Product p WHERE p.isDeleted = true",
+            countQuery = "SELECT COUNT(p) FROM Product p WHERE p.isDeleted = true")
     Page<Product> findDeletedProducts(Pageable pageable);
     
-    @Query("SELECT p FROM Product p WHERE p.category.uuid = :categoryUuid AND p.isDeleted = false")
+    @EntityGraph(attributePaths = "category")
+    @Query(value = "SELECT p FROM Product p WHERE p.category.uuid = :categoryUuid AND p.isDeleted = false",
+            countQuery = "SELECT COUNT(p) FROM Product p WHERE p.category.uuid = :categoryUuid AND p.isDeleted = false")
     Page<Product> findByCategoryUuid(@Param("categoryUuid") UUID categoryUuid, Pageable pageable);
+
+    // Lean listing rows, selected as a projection so no entity, association or variants JSON is loaded
+    @Query(value = "SELECT new com.orange.product_service.product.dto.ProductSummaryDto(p.uuid, p.name, p.price, p.image, p.rate, p.stock) " +
+            "FROM Product p WHERE p.isDeleted = false",
+            countQuery = "SELECT COUNT(p) FROM Product p WHERE p.isDeleted = false")
+    Page<ProductSummaryDto> findActiveProductSummaries(Pageable pageable);
+
+    @Query(value = "SELECT new com.orange.product_service.product.dto.ProductSummaryDto(p.uuid, p.name, p.price, p.image, p.rate, p.stock) " +
+            "FROM Product p WHERE p.category.uuid = :categoryUuid AND p.isDeleted = false",
+            countQuery = "SELECT COUNT(p) FROM Product p WHERE p.category.uuid = :categoryUuid AND p.isDeleted = false")
+    Page<ProductSummaryDto> findProductSummariesByCategoryUuid(@Param("categoryUuid") UUID categoryUuid, Pageable pageable);
+
+    // Keyset pages ordered by (name, id), served by the idx_products_active_name / idx_products_category_name indexes
+    @EntityGraph(attributePaths = "category")
+    @Query("SELECT p FROM Product p WHERE p.isDeleted = false ORDER BY p.name ASC, p.id ASC")
+    List<Product> findActiveProductsFirst(Limit limit);
+
+    @EntityGraph(attributePaths = "category")
+    @Query("SELECT p FROM Product p WHERE p.isDeleted = false " +
+            "AND (p.name > :name OR (p.name = :name AND p.id > :id)) ORDER BY p.name ASC, p.id ASC")
+    List<Product> findActiveProductsAfter(@Param("name") String name, @Param("id") Long id, Limit limit);
+
+    @EntityGraph(attributePaths = "category")
+    @Query("SELECT p FROM Product p WHERE p.category.id = :categoryId AND p.isDeleted = false " +
+            "ORDER BY p.name ASC, p.id ASC")
+    List<Product> findByCategoryFirst(@Param("categoryId") Long categoryId, Limit limit);
+
+    @EntityGraph(attributePaths = "category")
+    @Query("SELECT p FROM Product p WHERE p.category.id = :categoryId AND p.isDeleted = false " +
+            "AND (p.name > :name OR (p.name = :name AND p.id > :id)) ORDER BY p.name ASC, p.id ASC")
+    List<Product> findByCategoryAfter(@Param("categoryId") Long categoryId, @Param("name") String name,
+                                      @Param("id") Long id, Limit limit);
+
+    long countByIsDeletedFalse();
+
+    // Active products in id order for building in-process indexes batch by batch
+    @EntityGraph(attributePaths = "category")
+    @Query("SELECT p FROM Product p WHERE p.isDeleted = false AND p.id > :afterId ORDER BY p.id ASC")
+    List<Product> findActiveForIndexing(@Param("afterId") Long afterId, Limit limit);
+
+    // Rows of [id, uuid] in id order, for walking every product without loading entities
+    @Query("SELECT p.id, p.uuid FROM Product p WHERE p.id > :afterId ORDER BY p.id ASC")
+    List<Object[]> findIdentitiesAfter(@Param("afterId") Long afterId, Limit limit);
+
+    // Most viewed active products first, for cache warm-up
+    @Query("SELECT p.uuid FROM Product p WHERE p.isDeleted = false ORDER BY p.viewCount DESC, p.id ASC")
+    List<UUID> findMostViewedUuids(Limit limit);
+
+    // Categories by total views of their active products, for cache warm-up
+    @Query("SELECT p.category.uuid FROM Product p WHERE p.isDeleted = false AND p.category IS NOT NULL " +
+            "GROUP BY p.category.uuid ORDER BY SUM(p.viewCount) DESC")
+    List<UUID> findMostViewedCategoryUuids(Limit limit);
+
+    @Query("SELECT p.uuid FROM Product p WHERE p.category.uuid = :categoryUuid")
+    List<UUID> findUuidsByCategoryUuid(@Param("categoryUuid") UUID categoryUuid);
+
+    // Soft deleted products count too, they still reference the category
+    boolean existsByCategoryId(Long categoryId);
+
+    long countByCategoryId(Long categoryId);
+
+    @Query("SELECT COUNT(p) FROM Product p WHERE p.category.id = :categoryId AND p.isDeleted = false")
+    long countActiveByCategoryId(@Param("categoryId") Long categoryId);
+
+    // Batch initialize the lazy collections of an already loaded page, one query per collection.
+    // Kept separate from the page query since fetching collections there would paginate in memory.
+    @Query("SELECT DISTINCT p FROM Product p LEFT JOIN FETCH p.tags WHERE p IN :products")
+    List<Product> fetchTags(@Param("products") Collection<Product> products);
+
+    @Query("SELECT DISTINCT p FROM Product p LEFT JOIN FETCH p.reviews WHERE p IN :products")
+    List<Product> fetchReviews(@Param("products") Collection<Product> products);
+
+    @Query("SELECT DISTINCT p FROM Product p LEFT JOIN FETCH p.variants WHERE p IN :products")
+    List<Product> fetchVariants(@Param("products") Collection<Product> products);
 }
@@ -0,0 +1,38 @@
+package com.orange.product_service.product.repo;
+
+import com.orange.product_service.product.entity.Variant;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface VariantRepository extends JpaRepository<Variant, Long> {
+
+    // Served by the unique index on sku
+    Optional<Variant> findBySku(String sku);
+
+    boolean existsBySku(String sku);
+
+    @Query("SELECT v FROM Variant v WHERE v.uuid = :uuid AND v.product.uuid = :productUuid")
+    Optional<Variant> findByUuidAndProductUuid(@Param("uuid") UUID uuid, @Param("productUuid") UUID productUuid);
+
+    @Query("SELECT v.stock FROM Variant v WHERE v.uuid = :uuid")
+    Optional<Integer> findStockByUuid(@Param("uuid") UUID uuid);
+
+    // Conditional decrement, returns 0 when the variant does not exist or has less than quantity in stock
+    @Modifying
+    @Transactional
+    @Query("UPDATE Variant v SET v.stock = v.stock - :quantity WHERE v.uuid = :uuid AND v.stock >= :quantity")
+    int decrementStock(@Param("uuid") UUID uuid, @Param("quantity") int quantity);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Variant v SET v.stock = v.stock + :quantity WHERE v.uuid = :uuid")
+    int incrementStock(@Param("uuid") UUID uuid, @Param("quantity") int quantity);
+}
@@ -0,0 +1,110 @@
+package com.orange.product_service.product.search;
+
+import com.orange.product_service.product.dto.FacetBucketDto;
+import com.orange.product_service.product.dto.FacetValueDto;
+import com.orange.product_service.product.dto.ProductFacetsDto;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Product counts per category, tag, price bucket and whole-star rating.
+ * Kept up to date by adding and subtracting documents, never by counting rows.
+ */
+class FacetCounts {
+
+    private static final int RATING_BUCKETS = 6;
+
+    private final BigDecimal[] priceBounds;
+    private final Map<UUID, Long> categories = new HashMap<>();
+    private final Map<UUID, Long> tags = new HashMap<>();
+    private final long[] prices;
+    private final long[] ratings = new long[RATING_BUCKETS];
+    private long total;
+    private long inStock;
+
+    FacetCounts(BigDecimal[] priceBounds) {
+        this.priceBounds = priceBounds;
+        this.prices = new long[priceBounds.length + 1];
+    }
+
+    // sign is 1 when the document enters the set and -1 when it leaves
+    void add(ProductDocument document, int sign) {
+        total += sign;
+        if (document.stock() != null && document.stock() > 0) {
+            inStock += sign;
+        }
+        if (document.categoryId() != null) {
+            adjust(categories, document.categoryId(), sign);
+        }
+        for (UUID tagId : document.tagIds()) {
+            adjust(tags, tagId, sign);
+        }
+        if (document.price() != null) {
+            prices[priceBucket(document.price())] += sign;
+        }
+        ratings[ratingBucket(document.rate())] += sign;
+    }
+
+    boolean isEmpty() {
+        return total == 0;
+    }
+
+    ProductFacetsDto toDto(Function<UUID, String> categoryNames, Function<UUID, String> tagNames, int maxTags) {
+        List<FacetBucketDto> priceBuckets = new ArrayList<>(prices.length);
+        for (int i = 0; i < prices.length; i++) {
+            BigDecimal from = i == 0 ? BigDecimal.ZERO : priceBounds[i - 1];
+            BigDecimal to = i < priceBounds.length ? priceBounds[i] : null;
+            priceBuckets.add(new FacetBucketDto(from, to, prices[i]));
+        }
+        List<FacetBucketDto> ratingBuckets = new ArrayList<>(RATING_BUCKETS);
+        for (int star = 0; star < RATING_BUCKETS; star++) {
+            BigDecimal to = star < RATING_BUCKETS - 1 ? BigDecimal.valueOf(star + 1) : null;
+            ratingBuckets.add(new FacetBucketDto(BigDecimal.valueOf(star), to, ratings[star]));
+        }
+        return new ProductFacetsDto(
+                total,
+                inStock,
+                values(categories, categoryNames, Integer.MAX_VALUE),
+                values(tags, tagNames, maxTags),
+                priceBuckets,
+                ratingBuckets
+        );
+    }
+
+    private int priceBucket(BigDecimal price) {
+        int bucket = 0;
+        while (bucket < priceBounds.length && price.compareTo(priceBounds[bucket]) >= 0) {
+            bucket++;
+        }
+        return bucket;
+    }
+
+    // Whole stars, 4.50 counts as 4; unrated products are in bucket 0
+    private static int ratingBucket(BigDecimal rate) {
+        if (rate == null) {
+            return 0;
+        }
+        return Math.max(0, Math.min(RATING_BUCKETS - 1, rate.intValue()));
+    }
+
+    private static void adjust(Map<UUID, Long> counts, UUID id, int sign) {
+        counts.merge(id, (long) sign, (a, b) -> a + b == 0 ? null : a + b);
+    }
+
+    // Largest counts first, ties by name
+    private static List<FacetValueDto> values(Map<UUID, Long> counts, Function<UUID, String> names, int limit) {
+        return counts.entrySet().stream()
+                .map(entry -> new FacetValueDto(entry.getKey(), names.apply(entry.getKey()), entry.getValue()))
+                .sorted(Comparator.comparingLong(FacetValueDto::count).reversed()
+                        .thenComparing(FacetValueDto::name, Comparator.nullsLast(Comparator.naturalOrder())))
+                .limit(limit)
+                .toList();
+    }
+}
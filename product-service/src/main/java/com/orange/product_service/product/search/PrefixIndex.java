@@ -0,0 +1,253 @@
+package com.orange.product_service.product.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Compressed trie of normalized phrases for typeahead.
+ *
+ * Every node caches the best items of its subtree, so a prefix lookup is a walk down at most
+ * prefix-length edges and a copy of the cached list. Inserts merge the new entry into the caches
+ * along their path, deletes recompute the caches on their path bottom-up. An item is indexed
+ * under its whole text and under every word start in it, so "iph" also finds "Apple iPhone 15".
+ * Not thread-safe, the owner locks.
+ */
+public class PrefixIndex {
+
+    private static final Comparator<Entry> BEST_FIRST = Comparator
+            .comparingDouble(Entry::weight).reversed()
+            .thenComparing(Entry::text)
+            .thenComparing(Entry::id);
+
+    private final int cacheSize;
+    private final Node root = new Node("");
+    private final Map<UUID, List<Entry>> entriesById = new HashMap<>();
+
+    // cacheSize bounds the suggestions per lookup
+    public PrefixIndex(int cacheSize) {
+        this.cacheSize = cacheSize;
+    }
+
+    public void put(UUID id, String text, double weight) {
+        remove(id);
+        List<Entry> entries = new ArrayList<>();
+        for (String key : keys(text)) {
+            Entry entry = new Entry(key, id, text, weight);
+            insert(entry);
+            entries.add(entry);
+        }
+        if (!entries.isEmpty()) {
+            entriesById.put(id, entries);
+        }
+    }
+
+    public void remove(UUID id) {
+        List<Entry> entries = entriesById.remove(id);
+        if (entries != null) {
+            entries.forEach(this::delete);
+        }
+    }
+
+    // Best items whose text or one of its words starts with the prefix, each item once
+    public List<Entry> top(String prefix, int limit) {
+        // Same normalization as the keys, so punctuation and repeated spaces do not matter
+        String key = String.join(" ", SearchTokenizer.tokenize(prefix));
+        if (key.isEmpty()) {
+            return List.of();
+        }
+        Node node = find(key);
+        if (node == null) {
+            return List.of();
+        }
+        return new ArrayList<>(node.top.subList(0, Math.min(limit, node.top.size())));
+    }
+
+    // Whole text plus the text from each later word on, all normalized
+    private static Set<String> keys(String text) {
+        Set<String> keys = new LinkedHashSet<>();
+        List<String> words = SearchTokenizer.tokenize(text);
+        for (int i = 0; i < words.size(); i++) {
+            keys.add(String.join(" ", words.subList(i, words.size())));
+        }
+        return keys;
+    }
+
+    private Node find(String key) {
+        Node node = root;
+        int position = 0;
+        while (position < key.length()) {
+            Node child = node.children.get(key.charAt(position));
+            if (child == null) {
+                return null;
+            }
+            String label = child.label;
+            int remaining = key.length() - position;
+            if (remaining <= label.length()) {
+                // The prefix ends inside or at the end of this edge
+                return label.startsWith(key.substring(position)) ? child : null;
+            }
+            if (!key.startsWith(label, position)) {
+                return null;
+            }
+            position += label.length();
+            node = child;
+        }
+        return node;
+    }
+
+    private void insert(Entry entry) {
+        String key = entry.key();
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int position = 0;
+        while (position < key.length()) {
+            char first = key.charAt(position);
+            Node child = node.children.get(first);
+            if (child == null) {
+                child = new Node(key.substring(position));
+                node.children.put(first, child);
+                node = child;
+                path.add(node);
+                position = key.length();
+                break;
+            }
+            int common = commonPrefixLength(child.label, key, position);
+            if (common < child.label.length()) {
+                // Split the edge where the key leaves it
+                Node split = new Node(child.label.substring(0, common));
+                child.label = child.label.substring(common);
+                split.children.put(child.label.charAt(0), child);
+                split.top.addAll(child.top);
+                node.children.put(first, split);
+                child = split;
+            }
+            position += common;
+            node = child;
+            path.add(node);
+        }
+        node.terminal.add(entry);
+        for (Node onPath : path) {
+            offer(onPath, entry);
+        }
+    }
+
+    private void delete(Entry entry) {
+        String key = entry.key();
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int position = 0;
+        while (position < key.length()) {
+            Node child = node.children.get(key.charAt(position));
+            if (child == null || !key.startsWith(child.label, position)) {
+                return;
+            }
+            position += child.label.length();
+            node = child;
+            path.add(node);
+        }
+        if (!node.terminal.remove(entry)) {
+            return;
+        }
+        prune(path);
+        recompute(path);
+    }
+
+    // Drop empty leaves and merge single-child pass-through nodes back into one edge
+    private void prune(List<Node> path) {
+        for (int i = path.size() - 1; i > 0; i--) {
+            Node node = path.get(i);
+            Node parent = path.get(i - 1);
+            if (!node.terminal.isEmpty()) {
+                return;
+            }
+            if (node.children.isEmpty()) {
+                parent.children.remove(node.label.charAt(0));
+                path.remove(i);
+            } else if (node.children.size() == 1) {
+                Node child = node.children.values().iterator().next();
+                child.label = node.label + child.label;
+                parent.children.put(child.label.charAt(0), child);
+                path.set(i, child);
+                return;
+            } else {
+                return;
+            }
+        }
+    }
+
+    // Caches hold each item once, all entries of an item share its weight
+    private void offer(Node node, Entry entry) {
+        for (Entry cached : node.top) {
+            if (cached.id().equals(entry.id())) {
+                return;
+            }
+        }
+        int position = Collections.binarySearch(node.top, entry, BEST_FIRST);
+        if (position < 0) {
+            position = -position - 1;
+        }
+        if (position >= cacheSize) {
+            return;
+        }
+        node.top.add(position, entry);
+        if (node.top.size() > cacheSize) {
+            node.top.remove(node.top.size() - 1);
+        }
+    }
+
+    private void recompute(List<Node> path) {
+        for (int i = path.size() - 1; i >= 0; i--) {
+            Node node = path.get(i);
+            List<Entry> candidates = new ArrayList<>(node.terminal);
+            for (Node child : node.children.values()) {
+                candidates.addAll(child.top);
+            }
+            candidates.sort(BEST_FIRST);
+            Set<UUID> seen = new HashSet<>();
+            List<Entry> top = new ArrayList<>(Math.min(cacheSize, candidates.size()));
+            for (Entry candidate : candidates) {
+                if (top.size() == cacheSize) {
+                    break;
+                }
+                if (seen.add(candidate.id())) {
+                    top.add(candidate);
+                }
+            }
+            node.top = top;
+        }
+    }
+
+    private static int commonPrefixLength(String label, String key, int offset) {
+        int length = 0;
+        int max = Math.min(label.length(), key.length() - offset);
+        while (length < max && label.charAt(length) == key.charAt(offset + length)) {
+            length++;
+        }
+        return length;
+    }
+
+    public record Entry(String key, UUID id, String text, double weight) {
+    }
+
+    private static final class Node {
+
+        private String label;
+        private final Map<Character, Node> children = new HashMap<>();
+        private final List<Entry> terminal = new ArrayList<>(1);
+        private List<Entry> top = new ArrayList<>();
+
+        private Node(String label) {
+            this.label = label;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.orange.product_service.product.search;
+
+import com.orange.product_service.product.dto.ProductSummaryDto;
+import com.orange.product_service.product.entity.Product;
+import com.orange.product_service.tag.entity.Tag;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+// Snapshot of the searchable fields of an active product, built while its tags are loaded
+public record ProductDocument(
+        UUID uuid,
+        String name,
+        String image,
+        BigDecimal price,
+        Integer stock,
+        BigDecimal rate,
+        Long viewCount,
+        UUID categoryId,
+        String categoryName,
+        List<UUID> tagIds,
+        List<String> tagNames
+) {
+
+    public static ProductDocument of(Product product) {
+        List<Tag> tags = product.getTags() != null ? product.getTags() : List.of();
+        return new ProductDocument(
+                product.getUuid(),
+                product.getName(),
+                product.getImage(),
+                product.getPrice(),
+                product.getStock(),
+                product.getRate(),
+                product.getViewCount(),
+                product.getCategory() != null ? product.getCategory().getUuid() : null,
+                product.getCategory() != null ? product.getCategory().getName() : null,
+                tags.stream().map(Tag::getUuid).toList(),
+                tags.stream().map(Tag::getName).toList()
+        );
+    }
+
+    public ProductSummaryDto toSummary() {
+        return new ProductSummaryDto(uuid, name, price, image, rate, stock);
+    }
+}
@@ -0,0 +1,276 @@
+package com.orange.product_service.product.search;
+
+import com.orange.product_service.product.dto.ProductFacetsDto;
+import com.orange.product_service.product.entity.Product;
+import com.orange.product_service.product.repo.ProductRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps the in-process product search index in step with the database.
+ *
+ * Committed product writes mark the product dirty on every instance through a Redis channel,
+ * the refresher reloads dirty products in batches and updates the index. A full rebuild runs
+ * at startup, on a long interval (view counts and missed messages) and on demand; it builds a
+ * fresh index off to the side and swaps it in, so searches keep being served meanwhile.
+ */
+@Component
+public class ProductIndexer implements MessageListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductIndexer.class);
+
+    public static final String CHANGES_CHANNEL = "product-index:changes";
+
+    private static final String CATEGORY_PREFIX = "category:";
+
+    public static final String REBUILD = "rebuild";
+
+    private final ProductRepository productRepository;
+    private final StringRedisTemplate redisTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int batchSize;
+    private final int maxResultWindow;
+    private final BigDecimal[] priceBounds;
+    private final Set<UUID> dirty = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+    private volatile ProductSearchIndex index;
+
+    public ProductIndexer(ProductRepository productRepository,
+                          StringRedisTemplate redisTemplate,
+                          PlatformTransactionManager transactionManager,
+                          RedisMessageListenerContainer listenerContainer,
+                          MeterRegistry meterRegistry,
+                          @Value("${app.search.batch-size:1000}") int batchSize,
+                          @Value("${app.search.max-result-window:10000}") int maxResultWindow,
+                          @Value("${app.search.facets.price-bounds:25,50,100,250,500,1000}") List<BigDecimal> priceBounds) {
+        this.productRepository = productRepository;
+        this.redisTemplate = redisTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.batchSize = batchSize;
+        this.maxResultWindow = maxResultWindow;
+        this.priceBounds = priceBounds.stream().sorted().toArray(BigDecimal[]::new);
+        this.index = new ProductSearchIndex(this.priceBounds);
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANGES_CHANNEL));
+
+        Gauge.builder("product.search.documents", this, indexer -> indexer.index.size())
+                .description("Products in the search index")
+                .register(meterRegistry);
+        Gauge.builder("product.search.dirty", dirty, Set::size)
+                .description("Products waiting to be re-indexed")
+                .register(meterRegistry);
+    }
+
+    // Search
+
+    public SearchHits search(String query, SearchFilter filter, int page, int size) {
+        if (page < 0) {
+            throw new IllegalArgumentException("Page must not be negative");
+        }
+        if (size < 1) {
+            throw new IllegalArgumentException("Page size must be greater than zero");
+        }
+        if ((long) (page + 1) * size > maxResultWindow) {
+            throw new IllegalArgumentException("Search results are limited to the first " + maxResultWindow + " matches");
+        }
+        return index.search(query, filter, page * size, size);
+    }
+
+    public ProductSearchIndex.Suggestions suggest(String prefix, int limit) {
+        if (limit < 1 || limit > ProductSearchIndex.MAX_SUGGESTIONS) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + ProductSearchIndex.MAX_SUGGESTIONS);
+        }
+        return index.suggest(prefix, limit);
+    }
+
+    public ProductFacetsDto facets(UUID categoryId) {
+        return index.facets(categoryId);
+    }
+
+    // Indexed snapshot of an active product, null when it is deleted, unknown or not indexed yet
+    public ProductDocument document(UUID productId) {
+        return index.get(productId);
+    }
+
+    // Change tracking
+
+    // Called once a product write is committed
+    public void productChanged(UUID productId) {
+        dirty.add(productId);
+        announce(productId.toString());
+    }
+
+    // Category renames change the indexed category name of all its products
+    public void categoryChanged(UUID categoryId) {
+        dirty.addAll(productRepository.findUuidsByCategoryUuid(categoryId));
+        announce(CATEGORY_PREFIX + categoryId);
+    }
+
+    // Bulk changes (imports) rebuild every instance instead of announcing each product
+    public void bulkChanged() {
+        requestRebuild();
+        announce(REBUILD);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        try {
+            if (REBUILD.equals(body)) {
+                requestRebuild();
+            } else if (body.startsWith(CATEGORY_PREFIX)) {
+                UUID categoryId = UUID.fromString(body.substring(CATEGORY_PREFIX.length()));
+                dirty.addAll(productRepository.findUuidsByCategoryUuid(categoryId));
+            } else {
+                dirty.add(UUID.fromString(body));
+            }
+        } catch (Exception e) {
+            logger.warn("Ignoring search index change {} - Error: {}", body, e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.search.refresh-interval-ms:1000}")
+    public synchronized void refresh() {
+        // A running rebuild picks the changes up once its index is swapped in
+        if (dirty.isEmpty() || rebuilding.get()) {
+            return;
+        }
+        List<UUID> productIds = new ArrayList<>(dirty);
+        dirty.removeAll(productIds);
+        for (int from = 0; from < productIds.size(); from += batchSize) {
+            List<UUID> chunk = productIds.subList(from, Math.min(from + batchSize, productIds.size()));
+            try {
+                Map<UUID, ProductDocument> documents = readOnlyTransaction.execute(status -> loadDocuments(chunk));
+                List<UUID> removed = chunk.stream()
+                        .filter(productId -> !documents.containsKey(productId))
+                        .toList();
+                index.apply(documents.values(), removed);
+            } catch (Exception e) {
+                logger.error("Failed to re-index {} products - Error: {}", chunk.size(), e.getMessage());
+                dirty.addAll(chunk);
+            }
+        }
+    }
+
+    // Rebuild
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        rebuildAsync();
+    }
+
+    @Scheduled(initialDelayString = "${app.search.rebuild-interval-ms:21600000}",
+            fixedDelayString = "${app.search.rebuild-interval-ms:21600000}")
+    public void scheduledRebuild() {
+        rebuildAsync();
+    }
+
+    // Start a full rebuild in the background, returns false when one is already running
+    public boolean rebuildAsync() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return false;
+        }
+        Thread.ofVirtual().name("product-index-rebuild").start(() -> {
+            try {
+                rebuild();
+            } catch (Exception e) {
+                logger.error("Product search index rebuild failed - Error: {}", e.getMessage(), e);
+            } finally {
+                rebuilding.set(false);
+                // A running rebuild may have read past rows changed while it ran
+                if (rebuildPending.getAndSet(false)) {
+                    rebuildAsync();
+                }
+            }
+        });
+        return true;
+    }
+
+    // Rebuild now, or once more after the running rebuild finishes
+    private void requestRebuild() {
+        if (!rebuildAsync()) {
+            rebuildPending.set(true);
+            // Covers a rebuild that finished between the two calls
+            if (!rebuilding.get() && rebuildPending.getAndSet(false)) {
+                rebuildAsync();
+            }
+        }
+    }
+
+    public boolean isRebuilding() {
+        return rebuilding.get();
+    }
+
+    private void rebuild() {
+        long started = System.currentTimeMillis();
+        ProductSearchIndex fresh = new ProductSearchIndex(priceBounds);
+        Long afterId = 0L;
+        while (afterId != null) {
+            Long lastId = afterId;
+            afterId = readOnlyTransaction.execute(status -> {
+                List<Product> products = productRepository.findActiveForIndexing(lastId, Limit.of(batchSize));
+                if (products.isEmpty()) {
+                    return null;
+                }
+                productRepository.fetchTags(products);
+                fresh.apply(products.stream().map(ProductDocument::of).toList(), List.of());
+                return products.get(products.size() - 1).getId();
+            });
+        }
+        synchronized (this) {
+            index = fresh;
+        }
+        logger.info("Rebuilt product search index with {} products in {} ms",
+                fresh.size(), System.currentTimeMillis() - started);
+    }
+
+    private Map<UUID, ProductDocument> loadDocuments(List<UUID> productIds) {
+        List<Product> products = productRepository.findAllByUuidIn(productIds);
+        Map<UUID, ProductDocument> documents = new HashMap<>();
+        if (products.isEmpty()) {
+            return documents;
+        }
+        productRepository.fetchTags(products);
+        for (Product product : products) {
+            if (!Boolean.TRUE.equals(product.getIsDeleted())) {
+                documents.put(product.getUuid(), ProductDocument.of(product));
+            }
+        }
+        return documents;
+    }
+
+    private void announce(String change) {
+        try {
+            redisTemplate.convertAndSend(CHANGES_CHANNEL, change);
+        } catch (Exception e) {
+            logger.warn("Failed to announce search index change {} - Error: {}", change, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,407 @@
+package com.orange.product_service.product.search;
+
+import com.orange.product_service.product.dto.ProductFacetsDto;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over product name, tag names and category name.
+ *
+ * Every document gets an int slot, each term maps to a slot-sorted postings list that also
+ * records which fields the term occurs in. Queries AND their terms by intersecting postings
+ * from the shortest list, score matches with a BM25-style idf weighted per field, then apply
+ * the filters on the stored document. Reads share a read lock, writes take the write lock.
+ *
+ * The same snapshot holds the typeahead tries over product names and the names of tags in use,
+ * and facet counts for the whole catalog and per category, so suggestions and facets never
+ * disagree with search results.
+ */
+public class ProductSearchIndex {
+
+    static final byte NAME_FIELD = 1;
+    static final byte TAG_FIELD = 2;
+    static final byte CATEGORY_FIELD = 4;
+
+    public static final int MAX_SUGGESTIONS = 10;
+
+    // Tag facets are cut to the most used tags, categories are always complete
+    private static final int MAX_TAG_FACETS = 50;
+
+    private static final Comparator<ScoredDocument> RANKING = Comparator
+            .comparingDouble(ScoredDocument::score).reversed()
+            .thenComparing(scored -> scored.document().rate(), Comparator.nullsLast(Comparator.<BigDecimal>reverseOrder()))
+            .thenComparing(scored -> scored.document().name(), Comparator.nullsLast(Comparator.<String>naturalOrder()))
+            .thenComparing(scored -> scored.document().uuid());
+
+    private final Map<UUID, Integer> slots = new HashMap<>();
+    private final List<ProductDocument> documents = new ArrayList<>();
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final PrefixIndex productNames = new PrefixIndex(MAX_SUGGESTIONS);
+    private final PrefixIndex tagNames = new PrefixIndex(MAX_SUGGESTIONS);
+    private final Map<UUID, TagUsage> tagUsage = new HashMap<>();
+    private final BigDecimal[] priceBounds;
+    private final FacetCounts catalogFacets;
+    private final Map<UUID, FacetCounts> categoryFacets = new HashMap<>();
+    private final Map<UUID, String> categoryNames = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // priceBounds are the ascending lower bounds of the price facet buckets after the first
+    public ProductSearchIndex(BigDecimal[] priceBounds) {
+        this.priceBounds = priceBounds;
+        this.catalogFacets = new FacetCounts(priceBounds);
+    }
+
+    // Add or replace the document of a product
+    public void put(ProductDocument document) {
+        apply(List.of(document), List.of());
+    }
+
+    public void remove(UUID productId) {
+        apply(List.of(), List.of(productId));
+    }
+
+    // Add or replace documents and remove products under one write lock, tag suggestions are re-weighted once per batch
+    public void apply(Collection<ProductDocument> changed, Collection<UUID> removed) {
+        lock.writeLock().lock();
+        try {
+            Set<UUID> changedTags = new HashSet<>();
+            for (UUID productId : removed) {
+                Integer slot = slots.remove(productId);
+                if (slot != null) {
+                    unindex(slot, changedTags);
+                }
+            }
+            for (ProductDocument document : changed) {
+                index(document, changedTags);
+            }
+            for (UUID tagId : changedTags) {
+                TagUsage usage = tagUsage.get(tagId);
+                if (usage == null || usage.products == 0) {
+                    tagUsage.remove(tagId);
+                    tagNames.remove(tagId);
+                } else {
+                    tagNames.put(tagId, usage.name, usage.products);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public ProductDocument get(UUID productId) {
+        lock.readLock().lock();
+        try {
+            Integer slot = slots.get(productId);
+            return slot != null ? documents.get(slot) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slots.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Facet counts of the whole catalog, or of one category when categoryId is set
+    public ProductFacetsDto facets(UUID categoryId) {
+        lock.readLock().lock();
+        try {
+            FacetCounts counts = categoryId == null ? catalogFacets
+                    : categoryFacets.getOrDefault(categoryId, new FacetCounts(priceBounds));
+            return toDto(counts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Rank the documents matching every term of the query and the filter, with facet counts over all matches.
+     * A blank query matches all documents, ranked by rate and name.
+     */
+    public SearchHits search(String query, SearchFilter filter, int offset, int limit) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(SearchTokenizer.tokenize(query)));
+        PriorityQueue<ScoredDocument> top = new PriorityQueue<>(RANKING.reversed());
+        FacetCounts matched = new FacetCounts(priceBounds);
+        int window = offset + limit;
+        long total = 0;
+        ProductFacetsDto facets;
+
+        lock.readLock().lock();
+        try {
+            if (terms.isEmpty()) {
+                for (ProductDocument document : documents) {
+                    if (document != null && filter.matches(document)) {
+                        total++;
+                        matched.add(document, 1);
+                        offer(top, new ScoredDocument(document, 0), window);
+                    }
+                }
+            } else {
+                List<Postings> lists = new ArrayList<>(terms.size());
+                for (String term : terms) {
+                    Postings list = postings.get(term);
+                    if (list == null) {
+                        return new SearchHits(List.of(), 0, toDto(matched));
+                    }
+                    lists.add(list);
+                }
+                lists.sort(Comparator.comparingInt(Postings::size));
+
+                int documentCount = slots.size();
+                double[] idf = new double[lists.size()];
+                for (int i = 0; i < lists.size(); i++) {
+                    int df = lists.get(i).size();
+                    idf[i] = Math.log(1 + (documentCount - df + 0.5) / (df + 0.5));
+                }
+
+                Postings shortest = lists.get(0);
+                int[] cursors = new int[lists.size()];
+                candidates:
+                for (int i = 0; i < shortest.size(); i++) {
+                    int slot = shortest.slots[i];
+                    double score = idf[0] * fieldWeight(shortest.fields[i]);
+                    for (int l = 1; l < lists.size(); l++) {
+                        Postings other = lists.get(l);
+                        int position = other.seek(slot, cursors[l]);
+                        if (position < 0) {
+                            cursors[l] = -position - 1;
+                            if (cursors[l] >= other.size()) {
+                                break candidates;
+                            }
+                            continue candidates;
+                        }
+                        cursors[l] = position;
+                        score += idf[l] * fieldWeight(other.fields[position]);
+                    }
+                    ProductDocument document = documents.get(slot);
+                    if (filter.matches(document)) {
+                        total++;
+                        matched.add(document, 1);
+                        offer(top, new ScoredDocument(document, score), window);
+                    }
+                }
+            }
+            facets = toDto(matched);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<ProductDocument> ranked = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            ranked.add(top.poll().document());
+        }
+        Collections.reverse(ranked);
+        List<ProductDocument> page = offset < ranked.size() ? ranked.subList(offset, ranked.size()) : List.of();
+        return new SearchHits(page, total, facets);
+    }
+
+    /**
+     * Best product names and tag names (by products using them) that start with the prefix,
+     * or have a word starting with it.
+     */
+    public Suggestions suggest(String prefix, int limit) {
+        lock.readLock().lock();
+        try {
+            return new Suggestions(productNames.top(prefix, limit), tagNames.top(prefix, limit));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void index(ProductDocument document, Set<UUID> changedTags) {
+        Integer previous = slots.remove(document.uuid());
+        if (previous != null) {
+            unindex(previous, changedTags);
+        }
+        int slot = freeSlots.isEmpty() ? documents.size() : freeSlots.pop();
+        if (slot == documents.size()) {
+            documents.add(document);
+        } else {
+            documents.set(slot, document);
+        }
+        slots.put(document.uuid(), slot);
+        for (Map.Entry<String, Byte> term : fieldsByTerm(document).entrySet()) {
+            postings.computeIfAbsent(term.getKey(), key -> new Postings()).add(slot, term.getValue());
+        }
+
+        productNames.put(document.uuid(), document.name(), suggestionWeight(document));
+        catalogFacets.add(document, 1);
+        if (document.categoryId() != null) {
+            categoryNames.put(document.categoryId(), document.categoryName());
+            categoryFacets.computeIfAbsent(document.categoryId(), id -> new FacetCounts(priceBounds)).add(document, 1);
+        }
+        for (int i = 0; i < document.tagIds().size(); i++) {
+            String tagName = document.tagNames().get(i);
+            TagUsage usage = tagUsage.computeIfAbsent(document.tagIds().get(i), id -> new TagUsage());
+            usage.name = tagName;
+            usage.products++;
+            changedTags.add(document.tagIds().get(i));
+        }
+    }
+
+    private void unindex(int slot, Set<UUID> changedTags) {
+        ProductDocument document = documents.get(slot);
+        for (String term : fieldsByTerm(document).keySet()) {
+            Postings list = postings.get(term);
+            if (list != null && list.remove(slot) && list.size() == 0) {
+                postings.remove(term);
+            }
+        }
+        documents.set(slot, null);
+        freeSlots.push(slot);
+
+        productNames.remove(document.uuid());
+        catalogFacets.add(document, -1);
+        FacetCounts inCategory = document.categoryId() != null ? categoryFacets.get(document.categoryId()) : null;
+        if (inCategory != null) {
+            inCategory.add(document, -1);
+            if (inCategory.isEmpty()) {
+                categoryFacets.remove(document.categoryId());
+                categoryNames.remove(document.categoryId());
+            }
+        }
+        for (UUID tagId : document.tagIds()) {
+            TagUsage usage = tagUsage.get(tagId);
+            if (usage != null) {
+                usage.products--;
+            }
+            changedTags.add(tagId);
+        }
+    }
+
+    private ProductFacetsDto toDto(FacetCounts counts) {
+        return counts.toDto(categoryNames::get, tagId -> {
+            TagUsage usage = tagUsage.get(tagId);
+            return usage != null ? usage.name : null;
+        }, MAX_TAG_FACETS);
+    }
+
+    // Popular and well rated products first, views on a log scale so a few hits do not dominate
+    private static double suggestionWeight(ProductDocument document) {
+        long views = document.viewCount() != null ? document.viewCount() : 0L;
+        double rate = document.rate() != null ? document.rate().doubleValue() : 0;
+        return (1 + Math.log1p(views)) * (1 + rate / 5);
+    }
+
+    private static Map<String, Byte> fieldsByTerm(ProductDocument document) {
+        Map<String, Byte> fields = new HashMap<>();
+        addTerms(fields, document.name(), NAME_FIELD);
+        for (String tagName : document.tagNames()) {
+            addTerms(fields, tagName, TAG_FIELD);
+        }
+        addTerms(fields, document.categoryName(), CATEGORY_FIELD);
+        return fields;
+    }
+
+    private static void addTerms(Map<String, Byte> fields, String text, byte field) {
+        for (String term : SearchTokenizer.tokenize(text)) {
+            fields.merge(term, field, (a, b) -> (byte) (a | b));
+        }
+    }
+
+    // A term in the name counts most, then tags, then the category
+    private static double fieldWeight(byte fields) {
+        double weight = 0;
+        if ((fields & NAME_FIELD) != 0) {
+            weight += 3;
+        }
+        if ((fields & TAG_FIELD) != 0) {
+            weight += 2;
+        }
+        if ((fields & CATEGORY_FIELD) != 0) {
+            weight += 1;
+        }
+        return weight;
+    }
+
+    // Keep only the best window results, the head of the queue is the worst kept one
+    private static void offer(PriorityQueue<ScoredDocument> top, ScoredDocument candidate, int window) {
+        if (top.size() < window) {
+            top.add(candidate);
+        } else if (RANKING.compare(candidate, top.peek()) < 0) {
+            top.poll();
+            top.add(candidate);
+        }
+    }
+
+    private record ScoredDocument(ProductDocument document, double score) {
+    }
+
+    public record Suggestions(List<PrefixIndex.Entry> products, List<PrefixIndex.Entry> tags) {
+    }
+
+    private static final class TagUsage {
+
+        private String name;
+        private int products;
+    }
+
+    // Slot-sorted postings list with the fields the term occurs in per slot
+    private static final class Postings {
+
+        private int[] slots = new int[4];
+        private byte[] fields = new byte[4];
+        private int size;
+
+        int size() {
+            return size;
+        }
+
+        void add(int slot, byte field) {
+            int position = Arrays.binarySearch(slots, 0, size, slot);
+            if (position >= 0) {
+                fields[position] |= field;
+                return;
+            }
+            position = -position - 1;
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+                fields = Arrays.copyOf(fields, size * 2);
+            }
+            // New slots are usually the highest, so this is an append in the common case
+            System.arraycopy(slots, position, slots, position + 1, size - position);
+            System.arraycopy(fields, position, fields, position + 1, size - position);
+            slots[position] = slot;
+            fields[position] = field;
+            size++;
+        }
+
+        boolean remove(int slot) {
+            int position = Arrays.binarySearch(slots, 0, size, slot);
+            if (position < 0) {
+                return false;
+            }
+            System.arraycopy(slots, position + 1, slots, position, size - position - 1);
+            System.arraycopy(fields, position + 1, fields, position, size - position - 1);
+            size--;
+            return true;
+        }
+
+        // Position of slot at or after from, or -(insertion point) - 1 when absent
+        int seek(int slot, int from) {
+            return Arrays.binarySearch(slots, from, size, slot);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.orange.product_service.product.search;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+// Optional search restrictions, null fields do not filter
+public record SearchFilter(
+        UUID categoryId,
+        UUID tagId,
+        BigDecimal minPrice,
+        BigDecimal maxPrice,
+        boolean inStockOnly
+) {
+
+    public boolean matches(ProductDocument document) {
+        if (categoryId != null && !categoryId.equals(document.categoryId())) {
+            return false;
+        }
+        if (tagId != null && !document.tagIds().contains(tagId)) {
+            return false;
+        }
+        if (minPrice != null && (document.price() == null || document.price().compareTo(minPrice) < 0)) {
+            return false;
+        }
+        if (maxPrice != null && (document.price() == null || document.price().compareTo(maxPrice) > 0)) {
+            return false;
+        }
+        return !inStockOnly || (document.stock() != null && document.stock() > 0);
+    }
+}
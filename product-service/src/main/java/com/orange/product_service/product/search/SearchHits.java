@@ -0,0 +1,9 @@
+package com.orange.product_service.product.search;
+
+import com.orange.product_service.product.dto.ProductFacetsDto;
+
+import java.util.List;
+
+// One page of ranked documents plus the number of documents that matched in total and their facet counts
+public record SearchHits(List<ProductDocument> documents, long total, ProductFacetsDto facets) {
+}
@@ -0,0 +1,143 @@
+package com.orange.product_service.product.service;
+
+import com.orange.product_service.event.LowStockEvent;
+import com.orange.product_service.product.entity.Product;
+import com.orange.product_service.service.LowStockEventPublisher;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Turns stock levels into low stock alerts.
+ * A product alerts when it first drops below its threshold and again only after falling a further
+ * repeat step, restocking to the threshold re-arms it. Alerts are coalesced per product and
+ * published in batches by the flusher, never on the request thread.
+ */
+@Component
+public class LowStockMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(LowStockMonitor.class);
+
+    private final LowStockEventPublisher lowStockEventPublisher;
+    private final int defaultThreshold;
+    private final int repeatStep;
+    private final int batchSize;
+    // Stock level of the last alert per product currently below its threshold
+    private final Map<UUID, Integer> alerted = new ConcurrentHashMap<>();
+    // Latest alert per product waiting to be published
+    private final Map<UUID, LowStockEvent> pending = new ConcurrentHashMap<>();
+    private final Counter publishedEvents;
+    private final Counter coalescedEvents;
+
+    public LowStockMonitor(LowStockEventPublisher lowStockEventPublisher,
+                           MeterRegistry meterRegistry,
+                           @Value("${app.stock.low-stock.default-threshold:10}") int defaultThreshold,
+                           @Value("${app.stock.low-stock.repeat-step:0}") int repeatStep,
+                           @Value("${app.stock.low-stock.batch-size:100}") int batchSize) {
+        this.lowStockEventPublisher = lowStockEventPublisher;
+        this.defaultThreshold = defaultThreshold;
+        this.repeatStep = repeatStep;
+        this.batchSize = batchSize;
+
+        Gauge.builder("product.low.stock.pending", pending, Map::size)
+                .description("Low stock alerts waiting to be published")
+                .register(meterRegistry);
+        this.publishedEvents = Counter.builder("product.low.stock.published")
+                .description("Low stock alerts published")
+                .register(meterRegistry);
+        this.coalescedEvents = Counter.builder("product.low.stock.coalesced")
+                .description("Low stock alerts merged into one already waiting for the same product")
+                .register(meterRegistry);
+    }
+
+    // Record the current stock of a product, queues an alert when it crossed below its threshold or a further step
+    public void stockObserved(Product product) {
+        if (product.getStock() == null) {
+            return;
+        }
+        UUID productId = product.getUuid();
+        int stock = product.getStock();
+        int threshold = product.getLowStockThreshold() != null ? product.getLowStockThreshold() : defaultThreshold;
+
+        if (stock >= threshold) {
+            // Restocked, the next drop alerts again
+            alerted.remove(productId);
+            pending.remove(productId);
+            return;
+        }
+
+        boolean[] crossed = new boolean[1];
+        alerted.compute(productId, (id, lastAlerted) -> {
+            if (lastAlerted == null || (repeatStep > 0 && lastAlerted - stock >= repeatStep)) {
+                crossed[0] = true;
+                return stock;
+            }
+            return lastAlerted;
+        });
+
+        LowStockEvent event = new LowStockEvent(
+            productId,
+            product.getName(),
+            stock,
+            threshold,
+            product.getPrice(),
+            product.getCategory() != null ? product.getCategory().getName() : "Unknown"
+        );
+        if (crossed[0]) {
+            if (pending.put(productId, event) != null) {
+                coalescedEvents.increment();
+            }
+        } else if (pending.computeIfPresent(productId, (id, queued) -> event) != null) {
+            // An alert is still waiting, publish it with the latest stock
+            coalescedEvents.increment();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.stock.low-stock.flush-interval-ms:5000}")
+    public synchronized void flush() {
+        List<LowStockEvent> batch = new ArrayList<>(Math.min(batchSize, pending.size()));
+        for (UUID productId : pending.keySet()) {
+            LowStockEvent event = pending.remove(productId);
+            if (event == null) {
+                continue;
+            }
+            batch.add(event);
+            if (batch.size() >= batchSize) {
+                publish(batch);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            publish(batch);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        logger.info("Publishing {} pending low stock alerts before shutdown", pending.size());
+        flush();
+    }
+
+    private void publish(List<LowStockEvent> batch) {
+        if (lowStockEventPublisher.publishLowStockEvents(batch)) {
+            publishedEvents.increment(batch.size());
+            return;
+        }
+        // Keep the alerts for the next flush unless a newer one arrived meanwhile
+        for (LowStockEvent event : batch) {
+            pending.putIfAbsent(event.productId(), event);
+        }
+    }
+}
@@ -0,0 +1,311 @@
+package com.orange.product_service.product.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.orange.product_service.product.search.ProductIndexer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Key-scoped invalidation for the catalog caches.
+ *
+ * Listing pages are cached under versioned namespaces (one for all products, one per category).
+ * Changes that move a product in or out of a listing, or change its position, bump the
+ * affected namespace versions so the old pages simply stop being read and expire by TTL.
+ * Changes that only alter a product's own fields (stock, price, tags, rating...) evict the
+ * product's detail entry plus the listing pages that were recorded as containing it.
+ *
+ * Review pages are versioned the same way, per product and per user. Category entries carry
+ * product counts, so listing changes evict the categories involved and the category list. The tag
+ * list names and prices the products of each tag, so it is evicted on listing changes too.
+ *
+ * Namespace versions are kept locally and dropped when another instance announces a bump,
+ * so computing a listing key does not cost a Redis round trip on every request.
+ *
+ * Every committed product change is also handed to the ProductIndexer so search stays current,
+ * and listing changes (which include creates) to the ProductExistenceFilter.
+ */
+@Component
+public class ProductCacheInvalidator implements MessageListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductCacheInvalidator.class);
+
+    public static final String PRODUCTS_CACHE = "products";
+    public static final String PRODUCTS_BY_CATEGORY_CACHE = "productsByCategory";
+    public static final String DELETED_PRODUCTS_CACHE = "deletedProducts";
+    public static final String PRODUCT_DETAILS_CACHE = "productDetails";
+    public static final String REVIEWS_CACHE = "reviews";
+    public static final String REVIEW_STATISTICS_CACHE = "reviewStatistics";
+    public static final String CATEGORIES_CACHE = "categories";
+    public static final String TAGS_CACHE = "tags";
+
+    // Key of the category list in the categories cache, the details are keyed by uuid
+    private static final String ALL_CATEGORIES_KEY = "all";
+
+    // The tag list is the only entry of the tags cache
+    private static final String ALL_TAGS_KEY = "all";
+
+    private static final String VERSION_PREFIX = "product-cache:version:";
+    private static final String PAGES_PREFIX = "product-cache:pages:";
+    private static final String PAGE_SEPARATOR = "::";
+    private static final String VERSION_CHANNEL = "product-cache:versions";
+
+    // Safety net in case a version announcement is missed
+    private static final Duration VERSION_REFRESH = Duration.ofSeconds(30);
+
+    // Bounds the local copies, which include one review version per product and user
+    private static final long MAX_LOCAL_VERSIONS = 100_000;
+
+    // Must outlive the listing caches (2 hours in CacheConfig)
+    private static final Duration PAGE_TRACKING_TTL = Duration.ofHours(2);
+
+    // There is a review version per product and user, so they expire once idle. Outliving the
+    // reviews cache (60 minutes) means no page cached under a version survives its reset to 0.
+    private static final Duration REVIEW_VERSION_TTL = Duration.ofHours(2);
+
+    private final CacheManager cacheManager;
+    private final StringRedisTemplate redisTemplate;
+    private final ProductIndexer productIndexer;
+    private final ProductExistenceFilter existenceFilter;
+    private final com.github.benmanes.caffeine.cache.Cache<String, Long> versions = Caffeine.newBuilder()
+            .maximumSize(MAX_LOCAL_VERSIONS)
+            .expireAfterWrite(VERSION_REFRESH)
+            .build();
+
+    public ProductCacheInvalidator(CacheManager cacheManager, StringRedisTemplate redisTemplate,
+                                   RedisMessageListenerContainer listenerContainer, ProductIndexer productIndexer,
+                                   ProductExistenceFilter existenceFilter) {
+        this.cacheManager = cacheManager;
+        this.redisTemplate = redisTemplate;
+        this.productIndexer = productIndexer;
+        this.existenceFilter = existenceFilter;
+        listenerContainer.addMessageListener(this, new ChannelTopic(VERSION_CHANNEL));
+    }
+
+    // Cache keys
+
+    public String productsPageKey(int page, int size) {
+        return "v" + version(PRODUCTS_CACHE) + "_" + page + "_" + size;
+    }
+
+    public String categoryPageKey(UUID categoryUuid, int page, int size) {
+        return categoryUuid + "_v" + version(categoryNamespace(categoryUuid)) + "_" + page + "_" + size;
+    }
+
+    public String productReviewsPageKey(UUID productId, String after, int size) {
+        return "product_" + productId + "_v" + version(productReviewsNamespace(productId)) + "_" + size + "_" + cursorKey(after);
+    }
+
+    public String userReviewsPageKey(UUID userId, String after, int size) {
+        return "user_" + userId + "_v" + version(userReviewsNamespace(userId)) + "_" + size + "_" + cursorKey(after);
+    }
+
+    /**
+     * Remember which products a freshly cached listing page contains,
+     * so an in-place change to one of them evicts just that page.
+     */
+    public void registerPage(String cacheName, String key, Collection<UUID> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        byte[] member = (cacheName + PAGE_SEPARATOR + key).getBytes(StandardCharsets.UTF_8);
+        long ttlSeconds = PAGE_TRACKING_TTL.toSeconds();
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (UUID productId : productIds) {
+                    byte[] pagesKey = pagesKey(productId).getBytes(StandardCharsets.UTF_8);
+                    connection.setCommands().sAdd(pagesKey, member);
+                    connection.keyCommands().expire(pagesKey, ttlSeconds);
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            logger.warn("Failed to register cached page {} for {} products - Error: {}",
+                    key, productIds.size(), e.getMessage());
+        }
+    }
+
+    // Invalidation
+
+    /**
+     * A product's own fields changed but it kept its place in every listing.
+     */
+    public void productChanged(UUID productId) {
+        afterCommit(() -> {
+            evict(PRODUCT_DETAILS_CACHE, productId);
+            evictTrackedPages(productId);
+            productIndexer.productChanged(productId);
+        });
+    }
+
+    /**
+     * A product was created: its listings changed and it exists from now on.
+     */
+    public void productCreated(UUID productId, UUID categoryUuid) {
+        listingChanged(productId, categoryUuid);
+        afterCommit(() -> existenceFilter.productsCreated(List.of(productId)));
+    }
+
+    /**
+     * Listing membership or ordering changed: the product was created, deleted, activated,
+     * renamed or moved between categories.
+     */
+    public void listingChanged(UUID productId, UUID... categoryUuids) {
+        afterCommit(() -> {
+            if (productId != null) {
+                evict(PRODUCT_DETAILS_CACHE, productId);
+                redisTemplate.delete(pagesKey(productId));
+                productIndexer.productChanged(productId);
+            }
+            bumpVersion(PRODUCTS_CACHE);
+            // Category product counts and the products listed under each tag may have moved as well
+            evict(CATEGORIES_CACHE, ALL_CATEGORIES_KEY);
+            evict(TAGS_CACHE, ALL_TAGS_KEY);
+            for (UUID categoryUuid : categoryUuids) {
+                if (categoryUuid != null) {
+                    bumpVersion(categoryNamespace(categoryUuid));
+                    evict(CATEGORIES_CACHE, categoryUuid);
+                }
+            }
+        });
+    }
+
+    /**
+     * A category was created, renamed or deleted.
+     */
+    public void categoryChanged(UUID categoryUuid) {
+        afterCommit(() -> {
+            evict(CATEGORIES_CACHE, ALL_CATEGORIES_KEY);
+            evict(CATEGORIES_CACHE, categoryUuid);
+        });
+    }
+
+    /**
+     * A tag was created, or a product's tags, price or name changed without a listing change.
+     */
+    public void tagsChanged() {
+        afterCommit(() -> evict(TAGS_CACHE, ALL_TAGS_KEY));
+    }
+
+    public void deletedProductsChanged() {
+        afterCommit(() -> {
+            Cache cache = cacheManager.getCache(DELETED_PRODUCTS_CACHE);
+            if (cache != null) {
+                cache.clear();
+            }
+        });
+    }
+
+    public void reviewChanged(UUID productId, UUID userId, UUID reviewId) {
+        afterCommit(() -> {
+            // A review moves every later page of its product and user, so their pages are versioned
+            bumpVersion(productReviewsNamespace(productId), REVIEW_VERSION_TTL);
+            bumpVersion(userReviewsNamespace(userId), REVIEW_VERSION_TTL);
+            if (reviewId != null) {
+                evict(REVIEWS_CACHE, "review_" + reviewId);
+            }
+            evict(REVIEW_STATISTICS_CACHE, productId);
+        });
+        productChanged(productId);
+    }
+
+    private void evictTrackedPages(UUID productId) {
+        String pagesKey = pagesKey(productId);
+        Set<String> pages = redisTemplate.opsForSet().members(pagesKey);
+        redisTemplate.delete(pagesKey);
+        if (pages == null) {
+            return;
+        }
+        for (String page : pages) {
+            int separator = page.indexOf(PAGE_SEPARATOR);
+            if (separator > 0) {
+                evict(page.substring(0, separator), page.substring(separator + PAGE_SEPARATOR.length()));
+            }
+        }
+    }
+
+    private void evict(String cacheName, Object key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.evict(key);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        versions.invalidate(new String(message.getBody(), StandardCharsets.UTF_8));
+    }
+
+    private long version(String namespace) {
+        return versions.get(namespace, key -> {
+            String value = redisTemplate.opsForValue().get(VERSION_PREFIX + key);
+            return value != null ? Long.parseLong(value) : 0L;
+        });
+    }
+
+    private void bumpVersion(String namespace) {
+        bumpVersion(namespace, null);
+    }
+
+    private void bumpVersion(String namespace, Duration ttl) {
+        Long version = redisTemplate.opsForValue().increment(VERSION_PREFIX + namespace);
+        if (ttl != null) {
+            redisTemplate.expire(VERSION_PREFIX + namespace, ttl);
+        }
+        if (version != null) {
+            versions.put(namespace, version);
+        }
+        redisTemplate.convertAndSend(VERSION_CHANNEL, namespace);
+    }
+
+    private static String categoryNamespace(UUID categoryUuid) {
+        return PRODUCTS_BY_CATEGORY_CACHE + ":" + categoryUuid;
+    }
+
+    private static String productReviewsNamespace(UUID productId) {
+        return REVIEWS_CACHE + ":product:" + productId;
+    }
+
+    private static String userReviewsNamespace(UUID userId) {
+        return REVIEWS_CACHE + ":user:" + userId;
+    }
+
+    private static String cursorKey(String after) {
+        return after == null || after.isBlank() ? "first" : after;
+    }
+
+    private static String pagesKey(UUID productId) {
+        return PAGES_PREFIX + productId;
+    }
+
+    // Evict only once the writing transaction is visible to readers
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package com.orange.product_service.product.service;
+
+import com.orange.product_service.category.service.CategoryQueryService;
+import com.orange.product_service.product.repo.ProductRepository;
+import com.orange.product_service.product.search.ProductIndexer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Preloads the hottest catalog cache entries so the first requests after a deploy or a mass
+ * eviction do not all pay for a cold cache.
+ *
+ * Warm-up loads the first listing pages, the category list, the first pages of the most viewed
+ * categories and the details of the most viewed products through the regular cached reads, with
+ * bounded parallelism.
+ * It runs at startup, after product imports (the rebuild request ProductIndexer#bulkChanged sends on
+ * the product change channel), and when the marker key it leaves in Redis is gone, i.e. Redis lost
+ * its data. Scheduled and admin index rebuilds announce nothing; they change no data, so the caches
+ * stay valid. Only one instance re-warms after a Redis flush, since the others still have their
+ * L1 entries.
+ *
+ * The instance reports itself ready (health group "readiness") once the startup warm-up is done
+ * or has timed out; later warm-ups do not take it out of rotation.
+ */
+@Component
+public class ProductCacheWarmer implements MessageListener, HealthIndicator {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductCacheWarmer.class);
+
+    private static final String MARKER_KEY = "product-cache:warm";
+
+    private final ProductQueryService productQueryService;
+    private final CategoryQueryService categoryQueryService;
+    private final ProductRepository productRepository;
+    private final StringRedisTemplate redisTemplate;
+    private final boolean enabled;
+    private final int listingPages;
+    private final int categories;
+    private final int categoryPages;
+    private final int pageSize;
+    private final int topProducts;
+    private final int parallelism;
+    private final Duration timeout;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicBoolean pending = new AtomicBoolean();
+
+    private volatile boolean ready;
+    private volatile WarmupResult lastResult;
+
+    public ProductCacheWarmer(ProductQueryService productQueryService,
+                              CategoryQueryService categoryQueryService,
+                              ProductRepository productRepository,
+                              StringRedisTemplate redisTemplate,
+                              RedisMessageListenerContainer listenerContainer,
+                              @Value("${app.cache.warmup.enabled:true}") boolean enabled,
+                              @Value("${app.cache.warmup.listing-pages:3}") int listingPages,
+                              @Value("${app.cache.warmup.categories:50}") int categories,
+                              @Value("${app.cache.warmup.category-pages:1}") int categoryPages,
+                              @Value("${app.cache.warmup.page-size:10}") int pageSize,
+                              @Value("${app.cache.warmup.top-products:200}") int topProducts,
+                              @Value("${app.cache.warmup.parallelism:4}") int parallelism,
+                              @Value("${app.cache.warmup.timeout:2m}") Duration timeout) {
+        this.productQueryService = productQueryService;
+        this.categoryQueryService = categoryQueryService;
+        this.productRepository = productRepository;
+        this.redisTemplate = redisTemplate;
+        this.enabled = enabled;
+        this.listingPages = listingPages;
+        this.categories = categories;
+        this.categoryPages = categoryPages;
+        this.pageSize = pageSize;
+        this.topProducts = topProducts;
+        this.parallelism = Math.max(1, parallelism);
+        this.timeout = timeout;
+        this.ready = !enabled;
+        if (enabled) {
+            listenerContainer.addMessageListener(this, new ChannelTopic(ProductIndexer.CHANGES_CHANNEL));
+        }
+    }
+
+    @Override
+    public Health health() {
+        Health.Builder builder = ready ? Health.up() : Health.outOfService();
+        WarmupResult result = lastResult;
+        if (result != null) {
+            builder.withDetail("loaded", result.loaded())
+                    .withDetail("failed", result.failed())
+                    .withDetail("timedOut", result.timedOut())
+                    .withDetail("durationMs", result.durationMs());
+        }
+        return builder.build();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmOnStartup() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            markWarm();
+        } catch (Exception e) {
+            logger.warn("Could not set the cache warm-up marker - Error: {}", e.getMessage());
+        }
+        warmAsync();
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        // Imports bumped every listing namespace, single product changes are left to the cache
+        if (ProductIndexer.REBUILD.equals(new String(message.getBody(), StandardCharsets.UTF_8))) {
+            pending.set(true);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.cache.warmup.check-interval-ms:30000}")
+    public void warmIfEvicted() {
+        if (!enabled || !ready) {
+            return;
+        }
+        boolean flushed = false;
+        try {
+            flushed = markWarm();
+        } catch (Exception e) {
+            logger.debug("Could not check the cache warm-up marker - Error: {}", e.getMessage());
+        }
+        if (pending.getAndSet(false) || flushed) {
+            warmAsync();
+        }
+    }
+
+    // True when the marker was missing, only one instance wins it back after a flush
+    private boolean markWarm() {
+        return Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(MARKER_KEY, "1"));
+    }
+
+    private void warmAsync() {
+        if (!running.compareAndSet(false, true)) {
+            pending.set(true);
+            return;
+        }
+        Thread.ofVirtual().name("product-cache-warmup").start(() -> {
+            try {
+                lastResult = warm();
+            } catch (Exception e) {
+                logger.error("Product cache warm-up failed - Error: {}", e.getMessage(), e);
+            } finally {
+                ready = true;
+                running.set(false);
+            }
+        });
+    }
+
+    private WarmupResult warm() throws InterruptedException {
+        long started = System.currentTimeMillis();
+        List<Runnable> tasks = new ArrayList<>();
+        tasks.add(categoryQueryService::getAllCategories);
+        for (int page = 0; page < listingPages; page++) {
+            int p = page;
+            tasks.add(() -> productQueryService.getActiveProductsPage(p, pageSize));
+            tasks.add(() -> productQueryService.getActiveProductSummaries(p, pageSize));
+        }
+        if (categories > 0 && categoryPages > 0) {
+            for (UUID categoryUuid : productRepository.findMostViewedCategoryUuids(Limit.of(categories))) {
+                for (int page = 0; page < categoryPages; page++) {
+                    int p = page;
+                    tasks.add(() -> productQueryService.getProductsPageByCategory(categoryUuid, p, pageSize));
+                    tasks.add(() -> productQueryService.getProductSummariesByCategory(categoryUuid, p, pageSize));
+                }
+            }
+        }
+        if (topProducts > 0) {
+            for (UUID productId : productRepository.findMostViewedUuids(Limit.of(topProducts))) {
+                tasks.add(() -> productQueryService.getProductDetails(productId));
+            }
+        }
+
+        AtomicInteger loaded = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>(tasks.size());
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism,
+                Thread.ofVirtual().name("product-cache-warmup-", 0).factory());
+        try {
+            for (Runnable task : tasks) {
+                futures.add(executor.submit(() -> {
+                    try {
+                        task.run();
+                        loaded.incrementAndGet();
+                    } catch (Exception e) {
+                        failed.incrementAndGet();
+                        logger.debug("Cache warm-up entry failed - Error: {}", e.getMessage());
+                    }
+                }));
+            }
+            executor.shutdown();
+            boolean timedOut = !executor.awaitTermination(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            if (timedOut) {
+                // Do not hold readiness hostage, whatever is left loads on demand
+                futures.forEach(future -> future.cancel(true));
+                logger.warn("Product cache warm-up timed out after {} with {} of {} entries loaded",
+                        timeout, loaded.get(), tasks.size());
+            }
+            long duration = System.currentTimeMillis() - started;
+            logger.info("Warmed product caches: {} entries loaded, {} failed in {} ms",
+                    loaded.get(), failed.get(), duration);
+            return new WarmupResult(loaded.get(), failed.get(), timedOut, duration);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private record WarmupResult(int loaded, int failed, boolean timedOut, long durationMs) {
+    }
+}
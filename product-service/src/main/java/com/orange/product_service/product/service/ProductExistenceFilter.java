@@ -0,0 +1,462 @@
+package com.orange.product_service.product.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.orange.product_service.product.repo.ProductRepository;
+import com.orange.product_service.product.search.ProductIndexer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Answers "this product does not exist" without loading it.
+ *
+ * A Bloom filter over every product UUID is built at startup, after bulk imports and every
+ * app.product.existence-filter.rebuild-interval-ms. Creates are counted by a sequence in Redis
+ * (INCRBY per create or import batch) and announced on a channel of their own with the sequence
+ * they got; every instance adds them to its filter and counts those newer than the sequence its
+ * build started from. Soft deleted products stay in the filter, their cached details carry the
+ * deleted flag. While a build runs every id counts as possibly existing.
+ *
+ * A rejection is final while the filter has applied as many creates as the Redis sequence shows.
+ * Pub/sub is at-most-once, so when the filter is behind (a lost announcement, Redis unreachable)
+ * its rejections are confirmed with a primary key lookup instead; a product found that way is
+ * added and triggers a rebuild. The sequence is read again at most every
+ * app.product.existence-filter.sequence-check-ms. Unknown ids go to a short-lived negative cache
+ * either way.
+ */
+@Component
+public class ProductExistenceFilter implements MessageListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductExistenceFilter.class);
+
+    public static final String CREATED_CHANNEL = "product-existence:created";
+
+    private static final String SEQUENCE_KEY = "product-existence:sequence";
+    private static final String SEPARATOR = "|";
+
+    // Identifies this instance so it ignores its own announcements
+    private final String instanceId = UUID.randomUUID().toString();
+    private final ProductRepository productRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final StringRedisTemplate redisTemplate;
+    private final long expectedProducts;
+    private final double falsePositiveRate;
+    private final int batchSize;
+    private final long sequenceCheckMillis;
+    private final Cache<UUID, Boolean> missing;
+    private final AtomicBoolean building = new AtomicBoolean();
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+    private final Counter rejected;
+    private final Counter missedAdds;
+
+    // Both guarded by this: creates during a build go into the filter being built as well
+    private volatile BloomFilter filter;
+    private BloomFilter next;
+
+    // Guarded by this: the sequence each filter's build started from (-1 when unknown) and the
+    // creates after it applied since
+    private long baseline = -1;
+    private long applied;
+    private long nextBaseline = -1;
+    private long nextApplied;
+
+    // Last Redis sequence read, reused for sequenceCheckMillis
+    private volatile long knownSequence = -1;
+    private volatile long knownSequenceAt;
+
+    public ProductExistenceFilter(ProductRepository productRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  StringRedisTemplate redisTemplate,
+                                  RedisMessageListenerContainer listenerContainer,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${app.product.existence-filter.expected-products:1000000}") long expectedProducts,
+                                  @Value("${app.product.existence-filter.false-positive-rate:0.01}") double falsePositiveRate,
+                                  @Value("${app.product.existence-filter.batch-size:10000}") int batchSize,
+                                  @Value("${app.product.existence-filter.negative-ttl:60s}") Duration negativeTtl,
+                                  @Value("${app.product.existence-filter.negative-max-size:100000}") long negativeMaxSize,
+                                  @Value("${app.product.existence-filter.sequence-check-ms:100}") long sequenceCheckMillis) {
+        this.productRepository = productRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.redisTemplate = redisTemplate;
+        this.expectedProducts = expectedProducts;
+        this.falsePositiveRate = falsePositiveRate;
+        this.batchSize = batchSize;
+        this.sequenceCheckMillis = sequenceCheckMillis;
+        this.missing = Caffeine.newBuilder()
+                .maximumSize(negativeMaxSize)
+                .expireAfterWrite(negativeTtl)
+                .build();
+        listenerContainer.addMessageListener(this, List.of(
+                new ChannelTopic(ProductIndexer.CHANGES_CHANNEL), new ChannelTopic(CREATED_CHANNEL)));
+
+        this.rejected = Counter.builder("product.existence.rejected")
+                .description("Lookups of unknown product ids answered without loading the product")
+                .register(meterRegistry);
+        this.missedAdds = Counter.builder("product.existence.missed")
+                .description("Existing products the filter rejected, found by the confirming lookup")
+                .register(meterRegistry);
+        Gauge.builder("product.existence.ready", this, existence -> existence.filter != null && !existence.building.get() ? 1 : 0)
+                .description("Whether the product existence filter is answering")
+                .register(meterRegistry);
+    }
+
+    // False only when the product certainly does not exist
+    public boolean mightExist(UUID productId) {
+        if (missing.getIfPresent(productId) != null) {
+            rejected.increment();
+            return false;
+        }
+        if (passesFilter(productId)) {
+            return true;
+        }
+        if (isCurrent()) {
+            reject(productId);
+            return false;
+        }
+        return !confirmMissing(List.of(productId)).contains(productId);
+    }
+
+    // The ids that might exist, in order; rejections of a filter that is behind are confirmed with one IN query
+    public List<UUID> retainPossiblyExisting(Collection<UUID> productIds) {
+        List<UUID> possible = new ArrayList<>(productIds.size());
+        List<UUID> rejectedIds = new ArrayList<>();
+        for (UUID productId : productIds) {
+            if (missing.getIfPresent(productId) != null) {
+                rejected.increment();
+            } else if (passesFilter(productId)) {
+                possible.add(productId);
+            } else {
+                rejectedIds.add(productId);
+            }
+        }
+        if (rejectedIds.isEmpty()) {
+            return possible;
+        }
+        if (isCurrent()) {
+            rejectedIds.forEach(this::reject);
+            return possible;
+        }
+        Set<UUID> confirmed = confirmMissing(rejectedIds);
+        Set<UUID> excluded = new HashSet<>(productIds);
+        excluded.removeAll(possible);
+        rejectedIds.forEach(excluded::remove);
+        excluded.addAll(confirmed);
+        return productIds.stream().filter(productId -> !excluded.contains(productId)).toList();
+    }
+
+    // The database has no such product, remember it for a short while
+    public void recordMissing(UUID productId) {
+        missing.put(productId, Boolean.TRUE);
+    }
+
+    /**
+     * Called once the insert of new products is committed: counts them in the Redis sequence,
+     * adds them locally and announces them to the other instances.
+     */
+    public void productsCreated(List<UUID> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        Long sequence = null;
+        try {
+            sequence = redisTemplate.opsForValue().increment(SEQUENCE_KEY, productIds.size());
+        } catch (Exception e) {
+            // Other instances cannot learn about them either, their hourly rebuild will
+            logger.warn("Failed to count {} created products - Error: {}", productIds.size(), e.getMessage());
+        }
+        applyCreated(productIds, sequence);
+        if (sequence == null) {
+            return;
+        }
+        StringBuilder payload = new StringBuilder(instanceId).append(SEPARATOR).append(sequence).append(SEPARATOR);
+        for (int i = 0; i < productIds.size(); i++) {
+            if (i > 0) {
+                payload.append(',');
+            }
+            payload.append(productIds.get(i));
+        }
+        try {
+            redisTemplate.convertAndSend(CREATED_CHANNEL, payload.toString());
+        } catch (Exception e) {
+            // The others fall behind the sequence and confirm their rejections until they rebuild
+            logger.warn("Failed to announce {} created products - Error: {}", productIds.size(), e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        if (!CREATED_CHANNEL.equals(new String(message.getChannel(), StandardCharsets.UTF_8))) {
+            // Product updates travel on the change channel as well, only bulk changes matter here
+            if (ProductIndexer.REBUILD.equals(body)) {
+                rebuildAsync();
+            }
+            return;
+        }
+        // Format: instanceId|sequence of the last id|id,id...
+        String[] parts = body.split("\\|", 3);
+        if (parts.length < 3 || instanceId.equals(parts[0])) {
+            return;
+        }
+        try {
+            List<UUID> productIds = new ArrayList<>();
+            for (String id : parts[2].split(",")) {
+                productIds.add(UUID.fromString(id));
+            }
+            applyCreated(productIds, Long.parseLong(parts[1]));
+        } catch (RuntimeException e) {
+            logger.warn("Ignoring malformed product creation message - Error: {}", e.getMessage());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        rebuildAsync();
+    }
+
+    // Safety net for creates that were counted nowhere because Redis was unreachable
+    @Scheduled(initialDelayString = "${app.product.existence-filter.rebuild-interval-ms:3600000}",
+            fixedDelayString = "${app.product.existence-filter.rebuild-interval-ms:3600000}")
+    public void scheduledRebuild() {
+        rebuildAsync();
+    }
+
+    // Rebuild now, or once more after the running build finishes since it may have read past the new rows
+    public void rebuildAsync() {
+        if (!startRebuild()) {
+            rebuildPending.set(true);
+            // Covers a build that finished between the two calls
+            if (!building.get() && rebuildPending.getAndSet(false)) {
+                rebuildAsync();
+            }
+        }
+    }
+
+    private boolean passesFilter(UUID productId) {
+        return building.get() || filter == null || filter.mightContain(productId);
+    }
+
+    private void reject(UUID productId) {
+        recordMissing(productId);
+        rejected.increment();
+    }
+
+    // Whether the filter holds every create the Redis sequence has counted
+    private boolean isCurrent() {
+        long sequence = knownSequence;
+        long now = System.currentTimeMillis();
+        if (sequence < 0 || now - knownSequenceAt >= sequenceCheckMillis) {
+            sequence = readSequence();
+            knownSequence = sequence;
+            knownSequenceAt = now;
+        }
+        if (sequence < 0) {
+            return false;
+        }
+        synchronized (this) {
+            return baseline >= 0 && baseline + applied >= sequence;
+        }
+    }
+
+    // Current create sequence, -1 when Redis cannot be reached
+    private long readSequence() {
+        try {
+            String value = redisTemplate.opsForValue().get(SEQUENCE_KEY);
+            return value != null ? Long.parseLong(value) : 0;
+        } catch (Exception e) {
+            logger.warn("Failed to read the product create sequence - Error: {}", e.getMessage());
+            return -1;
+        }
+    }
+
+    // The ids got the sequence values up to lastSequence, null when they were not counted
+    private synchronized void applyCreated(List<UUID> productIds, Long lastSequence) {
+        for (int i = 0; i < productIds.size(); i++) {
+            add(productIds.get(i));
+            if (lastSequence == null) {
+                continue;
+            }
+            long sequence = lastSequence - productIds.size() + 1 + i;
+            if (baseline >= 0 && sequence > baseline) {
+                applied++;
+            }
+            if (next != null && nextBaseline >= 0 && sequence > nextBaseline) {
+                nextApplied++;
+            }
+        }
+    }
+
+    private synchronized void add(UUID productId) {
+        missing.invalidate(productId);
+        if (filter != null) {
+            filter.add(productId);
+        }
+        if (next != null) {
+            next.add(productId);
+        }
+    }
+
+    // Looks the filter's rejections up by primary key, returns those that really do not exist
+    private Set<UUID> confirmMissing(List<UUID> productIds) {
+        Set<UUID> found = new HashSet<>(productRepository.findExistingUuids(productIds));
+        Set<UUID> confirmed = new HashSet<>();
+        for (UUID productId : productIds) {
+            if (found.contains(productId)) {
+                // Its announcement never reached this instance, heal and rebuild to catch up with the sequence
+                missedAdds.increment();
+                add(productId);
+            } else {
+                reject(productId);
+                confirmed.add(productId);
+            }
+        }
+        if (!found.isEmpty()) {
+            logger.warn("Product existence filter missed {} existing products, rebuilding", found.size());
+            rebuildAsync();
+        }
+        return confirmed;
+    }
+
+    private boolean startRebuild() {
+        if (!building.compareAndSet(false, true)) {
+            return false;
+        }
+        Thread.ofVirtual().name("product-existence-rebuild").start(() -> {
+            try {
+                rebuild();
+            } catch (Exception e) {
+                logger.error("Product existence filter rebuild failed - Error: {}", e.getMessage(), e);
+                synchronized (this) {
+                    next = null;
+                }
+            } finally {
+                building.set(false);
+                if (rebuildPending.getAndSet(false)) {
+                    rebuildAsync();
+                }
+            }
+        });
+        return true;
+    }
+
+    private void rebuild() {
+        long started = System.currentTimeMillis();
+        // Room to grow before the false positive rate degrades
+        long capacity = Math.max(expectedProducts, productRepository.count() * 2);
+        BloomFilter fresh = new BloomFilter(capacity, falsePositiveRate);
+        // Read before the scan: every create counted up to here is committed and will be read
+        long startSequence = readSequence();
+        synchronized (this) {
+            next = fresh;
+            nextBaseline = startSequence;
+            nextApplied = 0;
+        }
+        long count = 0;
+        Long afterId = 0L;
+        while (true) {
+            Long lastId = afterId;
+            List<Object[]> rows = readOnlyTransaction.execute(status ->
+                    productRepository.findIdentitiesAfter(lastId, Limit.of(batchSize)));
+            if (rows == null || rows.isEmpty()) {
+                break;
+            }
+            for (Object[] row : rows) {
+                fresh.add((UUID) row[1]);
+            }
+            count += rows.size();
+            afterId = (Long) rows.get(rows.size() - 1)[0];
+        }
+        synchronized (this) {
+            filter = fresh;
+            baseline = nextBaseline;
+            applied = nextApplied;
+            next = null;
+        }
+        logger.info("Built product existence filter over {} products ({} KB) in {} ms",
+                count, fresh.sizeInBytes() / 1024, System.currentTimeMillis() - started);
+    }
+
+    // Bit array with k probes derived from two hashes of the UUID, safe for concurrent adds
+    private static final class BloomFilter {
+
+        private final AtomicLongArray words;
+        private final long bits;
+        private final int hashes;
+
+        private BloomFilter(long capacity, double falsePositiveRate) {
+            double ln2 = Math.log(2);
+            long size = (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / (ln2 * ln2));
+            this.words = new AtomicLongArray((int) Math.max(1, (size + 63) / 64));
+            this.bits = (long) words.length() * 64;
+            this.hashes = Math.max(1, (int) Math.round((double) bits / capacity * ln2));
+        }
+
+        private void add(UUID id) {
+            long h1 = mix(id.getMostSignificantBits());
+            long h2 = mix(id.getLeastSignificantBits()) | 1;
+            for (int i = 0; i < hashes; i++) {
+                long bit = Long.remainderUnsigned(h1 + i * h2, bits);
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long current = words.get(word);
+                while ((current & mask) == 0 && !words.compareAndSet(word, current, current | mask)) {
+                    current = words.get(word);
+                }
+            }
+        }
+
+        private boolean mightContain(UUID id) {
+            long h1 = mix(id.getMostSignificantBits());
+            long h2 = mix(id.getLeastSignificantBits()) | 1;
+            for (int i = 0; i < hashes; i++) {
+                long bit = Long.remainderUnsigned(h1 + i * h2, bits);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private long sizeInBytes() {
+            return (long) words.length() * Long.BYTES;
+        }
+
+        // MurmurHash3 finalizer
+        private static long mix(long value) {
+            value ^= value >>> 33;
+            value *= 0xff51afd7ed558ccdL;
+            value ^= value >>> 33;
+            value *= 0xc4ceb93e53ca34cdL;
+            value ^= value >>> 33;
+            return value;
+        }
+    }
+}
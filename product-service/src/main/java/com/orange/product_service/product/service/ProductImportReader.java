@@ -0,0 +1,270 @@
+package com.orange.product_service.product.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reads product import records one at a time from an NDJSON or CSV stream.
+ *
+ * Only the current record is held in memory, so the upload size does not matter. NDJSON has one
+ * object per line; CSV has a header row naming the columns, RFC 4180 quoting and tags separated
+ * by '|'. Columns/fields: name, price, image, stock, lowStockThreshold, category, tags.
+ * A malformed record throws RowException and the reader moves on to the next one.
+ */
+final class ProductImportReader implements Closeable {
+
+    enum Format { NDJSON, CSV }
+
+    private static final String TAG_SEPARATOR = "|";
+
+    private static final List<String> REQUIRED_COLUMNS = List.of("name", "price", "category");
+
+    private final BufferedReader reader;
+    private final Format format;
+    private final ObjectMapper objectMapper;
+    private Map<String, Integer> columns;
+    private long lineNumber;
+
+    ProductImportReader(InputStream in, Format format, ObjectMapper objectMapper) {
+        this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        this.format = format;
+        this.objectMapper = objectMapper;
+    }
+
+    // Next record, null at the end of the stream
+    ProductImportRow next() throws IOException {
+        return format == Format.NDJSON ? nextJson() : nextCsv();
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    // NDJSON
+
+    private ProductImportRow nextJson() throws IOException {
+        String text = nextNonBlankLine();
+        if (text == null) {
+            return null;
+        }
+        long line = lineNumber;
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(text);
+        } catch (JsonProcessingException e) {
+            throw new RowException(line, "Malformed JSON: " + e.getOriginalMessage());
+        }
+        if (!node.isObject()) {
+            throw new RowException(line, "Expected a JSON object");
+        }
+        return new ProductImportRow(
+                line,
+                text(node.get("name")),
+                decimal(line, "price", text(node.get("price"))),
+                text(node.get("image")),
+                integer(line, "stock", text(node.get("stock"))),
+                integer(line, "lowStockThreshold", text(node.get("lowStockThreshold"))),
+                text(node.get("category")),
+                jsonTags(node.get("tags")));
+    }
+
+    private static String text(JsonNode node) {
+        if (node == null || node.isNull()) {
+            return null;
+        }
+        String text = node.isValueNode() ? node.asText() : node.toString();
+        return text.isBlank() ? null : text.trim();
+    }
+
+    private static List<String> jsonTags(JsonNode node) {
+        if (node == null || node.isNull()) {
+            return List.of();
+        }
+        if (!node.isArray()) {
+            return splitTags(text(node));
+        }
+        List<String> tags = new ArrayList<>(node.size());
+        for (JsonNode tag : node) {
+            String value = text(tag);
+            if (value != null) {
+                tags.add(value);
+            }
+        }
+        return tags;
+    }
+
+    // CSV
+
+    private ProductImportRow nextCsv() throws IOException {
+        if (columns == null) {
+            readHeader();
+            if (columns == null) {
+                return null;
+            }
+        }
+        String text = nextNonBlankLine();
+        if (text == null) {
+            return null;
+        }
+        long line = lineNumber;
+        List<String> fields = csvFields(text, line);
+        return new ProductImportRow(
+                line,
+                field(fields, "name"),
+                decimal(line, "price", field(fields, "price")),
+                field(fields, "image"),
+                integer(line, "stock", field(fields, "stock")),
+                integer(line, "lowStockThreshold", field(fields, "lowstockthreshold")),
+                field(fields, "category"),
+                splitTags(field(fields, "tags")));
+    }
+
+    private void readHeader() throws IOException {
+        String text = nextNonBlankLine();
+        if (text == null) {
+            return;
+        }
+        Map<String, Integer> header = new HashMap<>();
+        List<String> names = csvFields(text, lineNumber);
+        for (int i = 0; i < names.size(); i++) {
+            // Header names are matched without case, a leading byte order mark is dropped
+            String name = names.get(i).replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT);
+            header.putIfAbsent(name, i);
+        }
+        for (String required : REQUIRED_COLUMNS) {
+            if (!header.containsKey(required)) {
+                throw new IllegalArgumentException("CSV header is missing the " + required + " column");
+            }
+        }
+        columns = header;
+    }
+
+    private String field(List<String> fields, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    // Split one CSV record, reading further lines while a quoted field is still open
+    private List<String> csvFields(String text, long line) throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        int i = 0;
+        while (true) {
+            if (i == text.length()) {
+                if (!quoted) {
+                    break;
+                }
+                String more = reader.readLine();
+                if (more == null) {
+                    throw new RowException(line, "Unterminated quoted field");
+                }
+                lineNumber++;
+                field.append('\n');
+                text = more;
+                i = 0;
+                continue;
+            }
+            char c = text.charAt(i++);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i < text.length() && text.charAt(i) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    // Shared
+
+    private String nextNonBlankLine() throws IOException {
+        String text;
+        do {
+            text = reader.readLine();
+            if (text == null) {
+                return null;
+            }
+            lineNumber++;
+        } while (text.isBlank());
+        return text;
+    }
+
+    private static List<String> splitTags(String value) {
+        if (value == null) {
+            return List.of();
+        }
+        return Arrays.stream(value.split("\\" + TAG_SEPARATOR))
+                .map(String::trim)
+                .filter(tag -> !tag.isEmpty())
+                .toList();
+    }
+
+    private static BigDecimal decimal(long line, String field, String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return new BigDecimal(value);
+        } catch (NumberFormatException e) {
+            throw new RowException(line, "Invalid " + field + ": " + value);
+        }
+    }
+
+    private static Integer integer(long line, String field, String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new RowException(line, "Invalid " + field + ": " + value);
+        }
+    }
+
+    static final class RowException extends RuntimeException {
+
+        private final long line;
+
+        RowException(long line, String message) {
+            super(message);
+            this.line = line;
+        }
+
+        long line() {
+            return line;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.orange.product_service.product.service;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+// One parsed import record, line is where it starts in the uploaded file
+record ProductImportRow(
+        long line,
+        String name,
+        BigDecimal price,
+        String image,
+        Integer stock,
+        Integer lowStockThreshold,
+        String category, // category UUID or name
+        List<String> tags // tag UUIDs or names
+) {
+}
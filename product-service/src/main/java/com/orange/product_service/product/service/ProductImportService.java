@@ -0,0 +1,334 @@
+package com.orange.product_service.product.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.orange.product_service.category.entity.Category;
+import com.orange.product_service.category.repo.CategoryRepository;
+import com.orange.product_service.product.dto.ProductImportError;
+import com.orange.product_service.product.dto.ProductImportResult;
+import com.orange.product_service.product.entity.Product;
+import com.orange.product_service.product.search.ProductIndexer;
+import com.orange.product_service.tag.entity.Tag;
+import com.orange.product_service.tag.repo.TagRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Bulk product import straight through JDBC.
+ *
+ * The upload is read record by record, categories and tags are resolved from maps loaded once,
+ * and valid rows are inserted in JDBC batches of app.product.import.batch-size, one transaction
+ * per batch. A batch the database rejects is retried row by row to find the offending rows.
+ * Listing caches and the search index are refreshed once when the import ends rather than per product.
+ */
+@Service
+public class ProductImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductImportService.class);
+
+    // uuid columns are char(36), the Liquibase uuid type on MySQL
+    private static final String INSERT_PRODUCT = "INSERT INTO products "
+            + "(uuid, name, price, image, stock, low_stock_threshold, category_id, is_deleted, view_count, rate, created_at, updated_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, false, 0, 0, ?, ?)";
+
+    private static final String INSERT_PRODUCT_TAG = "INSERT INTO product_tags (product_id, tag_id) VALUES (?, ?)";
+
+    private static final String ADJUST_CATEGORY_COUNT = "UPDATE categories SET product_count = product_count + ? WHERE id = ?";
+
+    // Column limits of the products table
+    private static final int MAX_NAME_LENGTH = 255;
+    private static final int MAX_IMAGE_LENGTH = 500;
+    private static final BigDecimal MAX_PRICE = new BigDecimal("99999999.99");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final CategoryRepository categoryRepository;
+    private final TagRepository tagRepository;
+    private final ProductCacheInvalidator cacheInvalidator;
+    private final ProductIndexer productIndexer;
+    private final LowStockMonitor lowStockMonitor;
+    private final ProductExistenceFilter existenceFilter;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final int maxErrors;
+
+    public ProductImportService(JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager,
+                                CategoryRepository categoryRepository,
+                                TagRepository tagRepository,
+                                ProductCacheInvalidator cacheInvalidator,
+                                ProductIndexer productIndexer,
+                                LowStockMonitor lowStockMonitor,
+                                ProductExistenceFilter existenceFilter,
+                                ObjectMapper objectMapper,
+                                @Value("${app.product.import.batch-size:1000}") int batchSize,
+                                @Value("${app.product.import.max-errors:1000}") int maxErrors) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.categoryRepository = categoryRepository;
+        this.tagRepository = tagRepository;
+        this.cacheInvalidator = cacheInvalidator;
+        this.productIndexer = productIndexer;
+        this.lowStockMonitor = lowStockMonitor;
+        this.existenceFilter = existenceFilter;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        this.maxErrors = maxErrors;
+    }
+
+    public ProductImportResult importProducts(InputStream body, ProductImportReader.Format format) throws IOException {
+        long started = System.currentTimeMillis();
+        Lookups lookups = readOnlyTransaction.execute(status -> loadLookups());
+        Progress progress = new Progress();
+        List<PendingProduct> batch = new ArrayList<>(batchSize);
+
+        try (ProductImportReader reader = new ProductImportReader(body, format, objectMapper)) {
+            while (true) {
+                ProductImportRow row;
+                try {
+                    row = reader.next();
+                } catch (ProductImportReader.RowException e) {
+                    progress.fail(e.line(), e.getMessage());
+                    continue;
+                }
+                if (row == null) {
+                    break;
+                }
+                try {
+                    batch.add(resolve(row, lookups));
+                } catch (IllegalArgumentException e) {
+                    progress.fail(row.line(), e.getMessage());
+                    continue;
+                }
+                if (batch.size() == batchSize) {
+                    write(batch, progress);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                write(batch, progress);
+            }
+        } finally {
+            // Also covers rows written before a fatal error, e.g. a broken upload
+            if (progress.imported > 0) {
+                cacheInvalidator.listingChanged(null, progress.categories.toArray(UUID[]::new));
+                productIndexer.bulkChanged();
+            }
+        }
+
+        logger.info("Imported {} products ({} rows failed) in {} ms",
+                progress.imported, progress.failed, System.currentTimeMillis() - started);
+        return new ProductImportResult(progress.imported, progress.failed, progress.errors,
+                progress.failed > progress.errors.size());
+    }
+
+    // Validation
+
+    private PendingProduct resolve(ProductImportRow row, Lookups lookups) {
+        String name = row.name();
+        if (name == null) {
+            throw new IllegalArgumentException("Name is required");
+        }
+        if (name.length() > MAX_NAME_LENGTH) {
+            throw new IllegalArgumentException("Name must not exceed " + MAX_NAME_LENGTH + " characters");
+        }
+        BigDecimal price = row.price();
+        if (price == null) {
+            throw new IllegalArgumentException("Price is required");
+        }
+        if (price.signum() <= 0 || price.compareTo(MAX_PRICE) > 0 || price.stripTrailingZeros().scale() > 2) {
+            throw new IllegalArgumentException("Invalid price: " + price.toPlainString());
+        }
+        if (row.image() != null && row.image().length() > MAX_IMAGE_LENGTH) {
+            throw new IllegalArgumentException("Image must not exceed " + MAX_IMAGE_LENGTH + " characters");
+        }
+        int stock = row.stock() != null ? row.stock() : 0;
+        if (stock < 0) {
+            throw new IllegalArgumentException("Stock must not be negative");
+        }
+        if (row.lowStockThreshold() != null && row.lowStockThreshold() < 0) {
+            throw new IllegalArgumentException("Low stock threshold must not be negative");
+        }
+        if (row.category() == null) {
+            throw new IllegalArgumentException("Category is required");
+        }
+        Category category = lookups.categories().get(lookupKey(row.category()));
+        if (category == null) {
+            throw new IllegalArgumentException("Category not found: " + row.category());
+        }
+        Set<Long> tagIds = new LinkedHashSet<>();
+        for (String tagRef : row.tags()) {
+            Long tagId = lookups.tagIds().get(lookupKey(tagRef));
+            if (tagId == null) {
+                throw new IllegalArgumentException("Tag not found: " + tagRef);
+            }
+            tagIds.add(tagId);
+        }
+        return new PendingProduct(row.line(), UUID.randomUUID(), name, price, row.image(), stock,
+                row.lowStockThreshold(), category, List.copyOf(tagIds));
+    }
+
+    private Lookups loadLookups() {
+        // Reachable by UUID and by name, names without case
+        Map<String, Category> categories = new HashMap<>();
+        for (Category category : categoryRepository.findAll()) {
+            categories.put(category.getUuid().toString(), category);
+            categories.putIfAbsent(lookupKey(category.getName()), category);
+        }
+        Map<String, Long> tagIds = new HashMap<>();
+        for (Tag tag : tagRepository.findAll()) {
+            tagIds.put(tag.getUuid().toString(), tag.getId());
+            tagIds.putIfAbsent(lookupKey(tag.getName()), tag.getId());
+        }
+        return new Lookups(categories, tagIds);
+    }
+
+    private static String lookupKey(String reference) {
+        return reference.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // Writing
+
+    private void write(List<PendingProduct> batch, Progress progress) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> insert(batch));
+            progress.imported(batch);
+        } catch (RuntimeException e) {
+            logger.warn("Import batch of {} rows rejected, retrying row by row - Error: {}", batch.size(), e.getMessage());
+            for (PendingProduct product : batch) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> insert(List.of(product)));
+                    progress.imported(List.of(product));
+                } catch (RuntimeException rowError) {
+                    progress.fail(product.line(), NestedExceptionUtils.getMostSpecificCause(rowError).getMessage());
+                }
+            }
+        }
+    }
+
+    private void insert(List<PendingProduct> batch) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_PRODUCT, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        PendingProduct product = batch.get(i);
+                        ps.setString(1, product.uuid().toString());
+                        ps.setString(2, product.name());
+                        ps.setBigDecimal(3, product.price());
+                        ps.setString(4, product.image());
+                        ps.setInt(5, product.stock());
+                        if (product.lowStockThreshold() != null) {
+                            ps.setInt(6, product.lowStockThreshold());
+                        } else {
+                            ps.setNull(6, Types.INTEGER);
+                        }
+                        ps.setLong(7, product.category().getId());
+                        ps.setTimestamp(8, now);
+                        ps.setTimestamp(9, now);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return batch.size();
+                    }
+                },
+                keyHolder);
+
+        // Generated keys come back in statement order
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        List<Object[]> productTags = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            long productId = ((Number) keys.get(i).values().iterator().next()).longValue();
+            for (Long tagId : batch.get(i).tagIds()) {
+                productTags.add(new Object[]{productId, tagId});
+            }
+        }
+        if (!productTags.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_PRODUCT_TAG, productTags);
+        }
+
+        // One count update per category in the batch, same transaction as the rows.
+        // Updated in id order so concurrent writers lock the category rows in the same order.
+        Map<Long, Long> added = new TreeMap<>();
+        for (PendingProduct product : batch) {
+            added.merge(product.category().getId(), 1L, Long::sum);
+        }
+        List<Object[]> counts = new ArrayList<>(added.size());
+        added.forEach((categoryId, count) -> counts.add(new Object[]{count, categoryId}));
+        jdbcTemplate.batchUpdate(ADJUST_CATEGORY_COUNT, counts);
+    }
+
+    private record Lookups(Map<String, Category> categories, Map<String, Long> tagIds) {
+    }
+
+    private record PendingProduct(long line, UUID uuid, String name, BigDecimal price, String image, int stock,
+                                  Integer lowStockThreshold, Category category, List<Long> tagIds) {
+    }
+
+    private final class Progress {
+
+        private long imported;
+        private long failed;
+        private final List<ProductImportError> errors = new ArrayList<>();
+        private final Set<UUID> categories = new HashSet<>();
+
+        private void imported(List<PendingProduct> products) {
+            // One sequence bump and announcement per committed batch
+            existenceFilter.productsCreated(products.stream().map(PendingProduct::uuid).toList());
+            for (PendingProduct pending : products) {
+                imported++;
+                categories.add(pending.category().getUuid());
+                // New products that start below their threshold alert like any other stock drop
+                Product product = new Product();
+                product.setUuid(pending.uuid());
+                product.setName(pending.name());
+                product.setPrice(pending.price());
+                product.setStock(pending.stock());
+                product.setLowStockThreshold(pending.lowStockThreshold());
+                product.setCategory(pending.category());
+                lowStockMonitor.stockObserved(product);
+            }
+        }
+
+        private void fail(long line, String message) {
+            failed++;
+            if (errors.size() < maxErrors) {
+                errors.add(new ProductImportError(line, message));
+            }
+        }
+    }
+}
@@ -0,0 +1,448 @@
+package com.orange.product_service.product.service;
+
+import com.orange.product_service.category.entity.Category;
+import com.orange.product_service.category.service.CategoryService;
+import com.orange.product_service.config.TwoLevelCache;
+import com.orange.product_service.product.dto.ProductBatchDto;
+import com.orange.product_service.product.dto.ProductBatchItemDto;
+import com.orange.product_service.product.dto.ProductCursor;
+import com.orange.product_service.product.dto.ProductCursorPageDto;
+import com.orange.product_service.product.dto.ProductDto;
+import com.orange.product_service.product.dto.ProductFacetsDto;
+import com.orange.product_service.product.dto.ProductPageDto;
+import com.orange.product_service.product.dto.ProductSearchResultDto;
+import com.orange.product_service.product.dto.ProductSummaryDto;
+import com.orange.product_service.product.dto.ProductSuggestionsDto;
+import com.orange.product_service.product.dto.ProductSummaryPageDto;
+import com.orange.product_service.product.dto.ProductVariant;
+import com.orange.product_service.product.dto.SuggestionDto;
+import com.orange.product_service.product.dto.TrendingProductDto;
+import com.orange.product_service.product.dto.TrendingProductsDto;
+import com.orange.product_service.product.entity.Product;
+import com.orange.product_service.product.entity.Variant;
+import com.orange.product_service.product.repo.ProductRepository;
+import com.orange.product_service.product.search.ProductDocument;
+import com.orange.product_service.product.search.PrefixIndex;
+import com.orange.product_service.product.search.ProductIndexer;
+import com.orange.product_service.product.search.ProductSearchIndex;
+import com.orange.product_service.product.search.SearchFilter;
+import com.orange.product_service.product.search.SearchHits;
+import com.orange.product_service.product.trending.TrendingTracker;
+import com.orange.product_service.product.trending.TrendingWindow;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Cached product reads.
+ * Only the data DTOs are cached, the localized ApiResponse envelope is built by
+ * ProductService per request so one entry serves every locale.
+ */
+@Service
+public class ProductQueryService {
+
+    // Largest keyset page, also keeps size + 1 from overflowing
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final ProductRepository productRepository;
+    private final CategoryService categoryService;
+    private final ProductCacheInvalidator cacheInvalidator;
+    private final ProductIndexer productIndexer;
+    private final CacheManager cacheManager;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ProductExistenceFilter existenceFilter;
+    private final TrendingTracker trendingTracker;
+
+    public ProductQueryService(ProductRepository productRepository, CategoryService categoryService,
+                               ProductCacheInvalidator cacheInvalidator, ProductIndexer productIndexer,
+                               CacheManager cacheManager, PlatformTransactionManager transactionManager,
+                               ProductExistenceFilter existenceFilter, TrendingTracker trendingTracker) {
+        this.productRepository = productRepository;
+        this.categoryService = categoryService;
+        this.cacheInvalidator = cacheInvalidator;
+        this.productIndexer = productIndexer;
+        this.cacheManager = cacheManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.existenceFilter = existenceFilter;
+        this.trendingTracker = trendingTracker;
+    }
+
+    // Get paginated active products
+    @Cacheable(value = "products", key = "@productCacheInvalidator.productsPageKey(#page, #size)", sync = true)
+    @Transactional(readOnly = true)
+    public ProductPageDto getActiveProductsPage(int page, int size) {
+        Pageable pageable = PageRequest.of(page, size, Sort.by("name").ascending()); // you can sort by any field
+        Page<Product> productPage = productRepository.findActiveProducts(pageable);
+        cacheInvalidator.registerPage(ProductCacheInvalidator.PRODUCTS_CACHE,
+                cacheInvalidator.productsPageKey(page, size), productIds(productPage));
+        return toPageDto(productPage);
+    }
+
+    // Get paginated deleted products
+    @Cacheable(value = "deletedProducts", key = "#page + '_' + #size", sync = true)
+    @Transactional(readOnly = true)
+    public List<ProductDto> getDeletedProducts(int page, int size) {
+        Pageable pageable = PageRequest.of(page, size, Sort.by("name").ascending()); // you can sort by any field
+        Page<Product> productPage = productRepository.findDeletedProducts(pageable);
+        fetchAssociations(productPage.getContent());
+
+        return productPage.getContent()
+                .stream()
+                .map(this::convertToDto)
+                .toList();
+    }
+
+    // Get products by category, throws when the category does not exist
+    @Cacheable(value = "productsByCategory", key = "@productCacheInvalidator.categoryPageKey(#categoryUuid, #page, #size)", sync = true)
+    @Transactional(readOnly = true)
+    public ProductPageDto getProductsPageByCategory(UUID categoryUuid, int page, int size) {
+        // Verify category exists
+        categoryService.findByUuid(categoryUuid);
+
+        Pageable pageable = PageRequest.of(page, size, Sort.by("name").ascending());
+        Page<Product> productPage = productRepository.findByCategoryUuid(categoryUuid, pageable);
+        cacheInvalidator.registerPage(ProductCacheInvalidator.PRODUCTS_BY_CATEGORY_CACHE,
+                cacheInvalidator.categoryPageKey(categoryUuid, page, size), productIds(productPage));
+        return toPageDto(productPage);
+    }
+
+    // Get paginated active product summaries for grid views
+    @Cacheable(value = "products", key = "'summary_' + @productCacheInvalidator.productsPageKey(#page, #size)", sync = true)
+    public ProductSummaryPageDto getActiveProductSummaries(int page, int size) {
+        Pageable pageable = PageRequest.of(page, size, Sort.by("name").ascending());
+        Page<ProductSummaryDto> summaryPage = productRepository.findActiveProductSummaries(pageable);
+        cacheInvalidator.registerPage(ProductCacheInvalidator.PRODUCTS_CACHE,
+                "summary_" + cacheInvalidator.productsPageKey(page, size), summaryIds(summaryPage));
+        return toSummaryPageDto(summaryPage);
+    }
+
+    // Get paginated product summaries by category, throws when the category does not exist
+    @Cacheable(value = "productsByCategory", key = "'summary_' + @productCacheInvalidator.categoryPageKey(#categoryUuid, #page, #size)", sync = true)
+    public ProductSummaryPageDto getProductSummariesByCategory(UUID categoryUuid, int page, int size) {
+        // Verify category exists
+        categoryService.findByUuid(categoryUuid);
+
+        Pageable pageable = PageRequest.of(page, size, Sort.by("name").ascending());
+        Page<ProductSummaryDto> summaryPage = productRepository.findProductSummariesByCategoryUuid(categoryUuid, pageable);
+        cacheInvalidator.registerPage(ProductCacheInvalidator.PRODUCTS_BY_CATEGORY_CACHE,
+                "summary_" + cacheInvalidator.categoryPageKey(categoryUuid, page, size), summaryIds(summaryPage));
+        return toSummaryPageDto(summaryPage);
+    }
+
+    // Get a keyset page of active products, no OFFSET scan and no COUNT unless includeTotal is set
+    @Transactional(readOnly = true)
+    public ProductCursorPageDto getActiveProductsAfter(String after, int size, boolean includeTotal) {
+        requireValidSize(size);
+        Limit limit = Limit.of(size + 1); // one extra row tells whether a next page exists
+        List<Product> products;
+        if (after == null || after.isBlank()) {
+            products = productRepository.findActiveProductsFirst(limit);
+        } else {
+            ProductCursor cursor = ProductCursor.decode(after);
+            products = productRepository.findActiveProductsAfter(cursor.name(), cursor.id(), limit);
+        }
+        Long total = includeTotal ? productRepository.countByIsDeletedFalse() : null;
+        return toCursorPageDto(products, size, total);
+    }
+
+    // Get a keyset page of products in a category, throws when the category does not exist
+    @Transactional(readOnly = true)
+    public ProductCursorPageDto getProductsByCategoryAfter(UUID categoryUuid, String after, int size, boolean includeTotal) {
+        requireValidSize(size);
+        Category category = categoryService.findByUuid(categoryUuid);
+
+        Limit limit = Limit.of(size + 1);
+        List<Product> products;
+        if (after == null || after.isBlank()) {
+            products = productRepository.findByCategoryFirst(category.getId(), limit);
+        } else {
+            ProductCursor cursor = ProductCursor.decode(after);
+            products = productRepository.findByCategoryAfter(category.getId(), cursor.name(), cursor.id(), limit);
+        }
+        Long total = includeTotal ? productRepository.countActiveByCategoryId(category.getId()) : null;
+        return toCursorPageDto(products, size, total);
+    }
+
+    // Full-text search served from the in-process index, no database access
+    public ProductSearchResultDto searchProducts(String query, SearchFilter filter, int page, int size) {
+        SearchHits hits = productIndexer.search(query, filter, page, size);
+        int totalPages = (int) ((hits.total() + size - 1) / size);
+        return new ProductSearchResultDto(
+                query,
+                hits.documents().stream().map(ProductDocument::toSummary).toList(),
+                page,
+                totalPages,
+                hits.total(),
+                size,
+                page + 1 < totalPages,
+                page > 0,
+                hits.facets()
+        );
+    }
+
+    // Facet counts for a listing sidebar, maintained in memory as products change
+    public ProductFacetsDto getFacets(UUID categoryId) {
+        return productIndexer.facets(categoryId);
+    }
+
+    // Typeahead suggestions for product and tag names, served from the in-process index
+    public ProductSuggestionsDto suggest(String prefix, int limit) {
+        ProductSearchIndex.Suggestions suggestions = productIndexer.suggest(prefix, limit);
+        return new ProductSuggestionsDto(
+                prefix,
+                suggestions.products().stream().map(ProductQueryService::toSuggestionDto).toList(),
+                suggestions.tags().stream().map(ProductQueryService::toSuggestionDto).toList()
+        );
+    }
+
+    // Most viewed and ordered products of a window, ranked and enriched from memory
+    public TrendingProductsDto getTrending(String window, int limit) {
+        TrendingWindow trendingWindow = TrendingWindow.of(window);
+        if (limit < 1 || limit > trendingTracker.capacity()) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + trendingTracker.capacity());
+        }
+        List<TrendingProductDto> products = new ArrayList<>(limit);
+        // The whole ranking is read so deleted and not yet indexed products can be skipped
+        for (TrendingTracker.Ranked ranked : trendingTracker.top(trendingWindow, trendingTracker.capacity())) {
+            ProductDocument document = productIndexer.document(ranked.productId());
+            if (document == null) {
+                continue;
+            }
+            products.add(new TrendingProductDto(document.uuid(), document.name(), document.price(),
+                    document.image(), document.rate(), document.stock(), ranked.score()));
+            if (products.size() == limit) {
+                break;
+            }
+        }
+        return new TrendingProductsDto(trendingWindow.label(), products);
+    }
+
+    // Get product details, deleted products are cached too and filtered by the caller
+    @Cacheable(value = "productDetails", key = "#productId", sync = true)
+    @Transactional(readOnly = true)
+    public ProductDto getProductDetails(UUID productId) {
+        Product product = productRepository.findByUuid(productId)
+                .orElseThrow(() -> {
+                    existenceFilter.recordMissing(productId);
+                    return new RuntimeException("Product not found with ID: " + productId);
+                });
+        return convertToDto(product);
+    }
+
+    // Compact rows for several products: one multi-get on the details cache, then the misses and their
+    // tags, reviews and variants with one IN query each, like a listing page
+    public ProductBatchDto getProductBatch(List<UUID> productIds) {
+        Set<UUID> ids = new LinkedHashSet<>(productIds);
+        // Ids known not to exist are neither looked up in the cache nor queried
+        List<UUID> candidates = existenceFilter.retainPossiblyExisting(ids);
+        Map<UUID, ProductDto> details = new HashMap<>();
+        Cache cache = cacheManager.getCache(ProductCacheInvalidator.PRODUCT_DETAILS_CACHE);
+        if (cache instanceof TwoLevelCache twoLevelCache && !candidates.isEmpty()) {
+            twoLevelCache.getAll(candidates).forEach((id, dto) -> details.put((UUID) id, (ProductDto) dto));
+        }
+
+        List<UUID> missing = candidates.stream().filter(id -> !details.containsKey(id)).toList();
+        if (!missing.isEmpty()) {
+            List<ProductDto> loaded = readOnlyTransaction.execute(status -> {
+                List<Product> products = productRepository.findAllByUuidIn(missing);
+                // The details cached for them must be complete
+                fetchAssociations(products);
+                return products.stream().map(this::convertToDto).toList();
+            });
+            for (ProductDto dto : loaded) {
+                details.put(dto.getUuid(), dto);
+                if (cache != null) {
+                    cache.put(dto.getUuid(), dto);
+                }
+            }
+            missing.stream()
+                    .filter(id -> !details.containsKey(id))
+                    .forEach(existenceFilter::recordMissing);
+        }
+
+        List<ProductBatchItemDto> products = new ArrayList<>(details.size());
+        List<UUID> notFound = new ArrayList<>();
+        for (UUID id : ids) {
+            ProductDto dto = details.get(id);
+            if (dto == null) {
+                notFound.add(id);
+            } else {
+                products.add(new ProductBatchItemDto(dto.getUuid(), dto.getName(), dto.getPrice(), dto.getStock(),
+                        dto.getImage(), Boolean.TRUE.equals(dto.getIsDeleted())));
+            }
+        }
+        return new ProductBatchDto(products, notFound);
+    }
+
+    // Helper method to get variants from product
+    public List<ProductVariant> getVariantsFromProduct(Product product) {
+        if (product.getVariants() == null) {
+            return new ArrayList<>();
+        }
+        return product.getVariants().stream()
+                .map(this::convertToDto)
+                .collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    // Convert variant entity to dto, the variant uuid is exposed as variantId
+    public ProductVariant convertToDto(Variant variant) {
+        ProductVariant dto = new ProductVariant();
+        dto.setVariantId(variant.getUuid().toString());
+        dto.setName(variant.getName());
+        dto.setAttributes(variant.getAttributes());
+        dto.setPrice(variant.getPrice());
+        dto.setStock(variant.getStock());
+        dto.setSku(variant.getSku());
+        dto.setImage(variant.getImage());
+        dto.setIsActive(variant.getIsActive());
+        return dto;
+    }
+
+    // Convert entity to dto
+    public ProductDto convertToDto(Product product) {
+        ProductDto dto = new ProductDto();
+        dto.setUuid(product.getUuid());
+        dto.setName(product.getName());
+        dto.setPrice(product.getPrice());
+        dto.setImage(product.getImage());
+        dto.setStock(product.getStock());
+        dto.setLowStockThreshold(product.getLowStockThreshold());
+        dto.setIsDeleted(product.getIsDeleted());
+        dto.setViewCount(product.getViewCount());
+        dto.setRate(product.getRate());
+        dto.setCreatedAt(product.getCreatedAt());
+        dto.setUpdatedAt(product.getUpdatedAt());
+
+        // Convert category
+        if (product.getCategory() != null) {
+            dto.setCategory(new ProductDto.CategorySummaryDto(
+                    product.getCategory().getUuid(),
+                    product.getCategory().getName()
+            ));
+        }
+
+        // Convert tags
+        if (product.getTags() != null && !product.getTags().isEmpty()) {
+            dto.setTags(product.getTags().stream()
+                    .map(tag -> new ProductDto.TagSummaryDto(
+                            tag.getUuid(),
+                            tag.getName()
+                    ))
+                    .toList());
+        }
+
+        // Convert reviews
+        if (product.getReviews() != null && !product.getReviews().isEmpty()) {
+            dto.setReviews(product.getReviews().stream()
+                    .map(review -> new ProductDto.ReviewSummaryDto(
+                            review.getUuid(),
+                            review.getUserId(),
+                            review.getRate()
+                    ))
+                    .toList());
+        }
+
+        // Convert variants
+        dto.setVariants(getVariantsFromProduct(product));
+
+        return dto;
+    }
+
+    // Load tags, reviews and variants for the whole page up front so convertToDto does not hit the lazy proxies per product
+    private void fetchAssociations(List<Product> products) {
+        if (products.isEmpty()) {
+            return;
+        }
+        productRepository.fetchTags(products);
+        productRepository.fetchReviews(products);
+        productRepository.fetchVariants(products);
+    }
+
+    private ProductPageDto toPageDto(Page<Product> productPage) {
+        fetchAssociations(productPage.getContent());
+        List<ProductDto> productDtos = productPage.getContent()
+                .stream()
+                .map(this::convertToDto)
+                .toList();
+
+        // Create ProductPageDto with pagination information
+        return new ProductPageDto(
+                productDtos,
+                productPage.getNumber(),
+                productPage.getTotalPages(),
+                productPage.getTotalElements(),
+                productPage.getSize(),
+                productPage.hasNext(),
+                productPage.hasPrevious(),
+                productPage.isFirst(),
+                productPage.isLast()
+        );
+    }
+
+    private ProductCursorPageDto toCursorPageDto(List<Product> products, int size, Long total) {
+        boolean hasNext = products.size() > size;
+        List<Product> pageContent = hasNext ? products.subList(0, size) : products;
+        fetchAssociations(pageContent);
+
+        List<ProductDto> productDtos = pageContent.stream()
+                .map(this::convertToDto)
+                .toList();
+        String nextCursor = hasNext ? ProductCursor.of(pageContent.get(pageContent.size() - 1)).encode() : null;
+        return new ProductCursorPageDto(productDtos, size, hasNext, nextCursor, total);
+    }
+
+    private static ProductSummaryPageDto toSummaryPageDto(Page<ProductSummaryDto> summaryPage) {
+        return new ProductSummaryPageDto(
+                summaryPage.getContent(),
+                summaryPage.getNumber(),
+                summaryPage.getTotalPages(),
+                summaryPage.getTotalElements(),
+                summaryPage.getSize(),
+                summaryPage.hasNext(),
+                summaryPage.hasPrevious(),
+                summaryPage.isFirst(),
+                summaryPage.isLast()
+        );
+    }
+
+    private static SuggestionDto toSuggestionDto(PrefixIndex.Entry entry) {
+        return new SuggestionDto(entry.id(), entry.text());
+    }
+
+    private static List<UUID> summaryIds(Page<ProductSummaryDto> summaryPage) {
+        return summaryPage.getContent().stream()
+                .map(ProductSummaryDto::uuid)
+                .toList();
+    }
+
+    private static void requireValidSize(int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+    }
+
+    private static List<UUID> productIds(Page<Product> productPage) {
+        return productPage.getContent().stream()
+                .map(Product::getUuid)
+                .toList();
+    }
+}
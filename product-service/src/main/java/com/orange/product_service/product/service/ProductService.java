@@ -3,39 +3,55 @@ package com.orange.product_service.product.service;
 import com.orange.product_service.category.service.CategoryService;
 import com.orange.product_service.dto.ApiResponse;
 import com.orange.product_service.category.entity.Category;
-import com.orange.product_service.event.LowStockEvent;
-import com.orange.product_service.service.LowStockEventPublisher;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.orange.product_service.product.dto.AddTagsToProductRequest;
 import com.orange.product_service.product.dto.AddVariantRequest;
+import com.orange.product_service.product.dto.BulkStockChangeRequest;
+import com.orange.product_service.product.dto.BulkStockChangeResult;
 import com.orange.product_service.product.dto.CreateProductRequest;
 import com.orange.product_service.product.dto.DeleteProductRequest;
+import com.orange.product_service.product.dto.ProductBatchDto;
+import com.orange.product_service.product.dto.ProductBatchRequest;
+import com.orange.product_service.product.dto.ProductCursorPageDto;
 import com.orange.product_service.product.dto.ProductDto;
+import com.orange.product_service.product.dto.ProductFacetsDto;
+import com.orange.product_service.product.dto.ProductImportResult;
 import com.orange.product_service.product.dto.ProductPageDto;
+import com.orange.product_service.product.dto.ProductSearchResultDto;
+import com.orange.product_service.product.dto.ProductSuggestionsDto;
+import com.orange.product_service.product.dto.ProductSummaryPageDto;
 import com.orange.product_service.product.dto.ProductVariant;
 import com.orange.product_service.product.dto.RemoveTagsFromProductRequest;
 import com.orange.product_service.product.dto.RemoveVariantRequest;
+import com.orange.product_service.product.dto.StockChangeLine;
+import com.orange.product_service.product.dto.StockChangeLineResult;
+import com.orange.product_service.product.dto.StockChangeStatus;
+import com.orange.product_service.product.dto.TrendingProductsDto;
 import com.orange.product_service.product.dto.UpdateProductRequest;
 import com.orange.product_service.product.dto.UpdateVariantRequest;
 import com.orange.product_service.product.entity.Product;
+import com.orange.product_service.product.entity.Variant;
 import com.orange.product_service.product.repo.ProductRepository;
+import com.orange.product_service.product.repo.VariantRepository;
+import com.orange.product_service.product.search.ProductIndexer;
+import com.orange.product_service.product.search.SearchFilter;
 import com.orange.product_service.tag.entity.Tag;
 import com.orange.product_service.tag.repo.TagRepository;
 import com.orange.product_service.tag.service.TagService;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.context.MessageSource;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.springframework.http.MediaType;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
 import java.util.UUID;
 
 @Service
@@ -44,23 +60,38 @@ public class ProductService {
     private final ProductRepository productRepository;
     private final CategoryService categoryService;
     private final MessageSource messageSource;
-    private final LowStockEventPublisher lowStockEventPublisher;
+    private final StockLedger stockLedger;
     private final TagService tagService;
-    private final ObjectMapper objectMapper;
+    private final ProductCacheInvalidator cacheInvalidator;
+    private final ProductQueryService productQueryService;
+    private final VariantRepository variantRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ProductIndexer productIndexer;
+    private final ProductImportService productImportService;
+    private final ProductExistenceFilter existenceFilter;
 
     public ProductService(ProductRepository productRepository, CategoryService categoryService,
-                          MessageSource messageSource, LowStockEventPublisher lowStockEventPublisher,
-                          TagRepository tagRepository, TagService tagService) {
+                          MessageSource messageSource, StockLedger stockLedger,
+                          TagRepository tagRepository, TagService tagService,
+                          ProductCacheInvalidator cacheInvalidator, ProductQueryService productQueryService,
+                          VariantRepository variantRepository, PlatformTransactionManager transactionManager,
+                          ProductIndexer productIndexer, ProductImportService productImportService,
+                          ProductExistenceFilter existenceFilter) {
         this.productRepository = productRepository;
         this.categoryService = categoryService;
         this.messageSource = messageSource;
-        this.lowStockEventPublisher = lowStockEventPublisher;
+        this.stockLedger = stockLedger;
         this.tagService = tagService;
-        this.objectMapper = new ObjectMapper();
+        this.cacheInvalidator = cacheInvalidator;
+        this.productQueryService = productQueryService;
+        this.variantRepository = variantRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.productIndexer = productIndexer;
+        this.productImportService = productImportService;
+        this.existenceFilter = existenceFilter;
     }
 
     @PreAuthorize("hasRole('ADMIN')")
-    @CacheEvict(value = {"products", "productsByCategory", "deletedProducts"}, allEntries = true)
     public ApiResponse<ProductDto> createProduct(CreateProductRequest request , Locale locale) {
         try {
             Product product = new Product();
@@ -69,14 +100,20 @@ public class ProductService {
             product.setPrice(request.price());
             product.setImage(request.image());
             product.setStock(request.stock());
+            product.setLowStockThreshold(request.lowStockThreshold());
             product.setCategory(category);
 
-            Product savedProduct = productRepository.save(product);
+            Product savedProduct = transactionTemplate.execute(status -> {
+                Product saved = productRepository.save(product);
+                categoryService.adjustProductCount(category, 1);
+                return saved;
+            });
+            cacheInvalidator.productCreated(savedProduct.getUuid(), category.getUuid());
             
             // Check for low stock after creating product
-            checkAndPublishLowStockEvent(savedProduct);
+            stockLedger.checkAndPublishLowStockEvent(savedProduct);
             
-            ProductDto productDto = convertToDto(savedProduct);
+            ProductDto productDto = productQueryService.convertToDto(savedProduct);
 
             String msg = messageSource.getMessage("product.created.success" , null , locale);
             return ApiResponse.success(msg, productDto);
@@ -93,12 +130,14 @@ public class ProductService {
 
     // Update product function
     @PreAuthorize("hasRole('ADMIN')")
-    @CacheEvict(value = {"products", "productsByCategory", "deletedProducts", "productDetails"}, allEntries = true)
     public ApiResponse<ProductDto> updateProduct(UpdateProductRequest request , Locale locale) {
         try {
             // Check if product exists
             Product product = productRepository.findByUuid(request.productId())
                     .orElseThrow(() -> new RuntimeException("Product not found with ID: " + request.productId()));
+            Category previousCategory = product.getCategory();
+            UUID previousCategoryId = previousCategory.getUuid();
+            String previousName = product.getName();
             
             // Only update category if categoryId is provided
             if (request.categoryId() != null) {
@@ -113,15 +152,40 @@ public class ProductService {
                 product.setPrice(request.price());
             if (request.image() != null)
                 product.setImage(request.image());
-            if (request.stock() != null)
-                product.setStock(request.stock());
-
-            Product savedProduct = productRepository.save(product);
+            if (request.lowStockThreshold() != null)
+                product.setLowStockThreshold(request.lowStockThreshold());
+
+            Product savedProduct = transactionTemplate.execute(status -> {
+                Product saved = productRepository.save(product);
+                if (request.stock() != null) {
+                    // Stock is not written by the entity save, see Product.stock
+                    productRepository.setStockLevel(saved.getUuid(), request.stock(), LocalDateTime.now());
+                    saved.setStock(request.stock());
+                }
+                if (!saved.getIsDeleted() && !saved.getCategory().getUuid().equals(previousCategoryId)) {
+                    categoryService.adjustProductCount(previousCategory, -1);
+                    categoryService.adjustProductCount(saved.getCategory(), 1);
+                }
+                return saved;
+            });
+
+            // Renames and category moves reorder listings, anything else only changes the product itself
+            UUID categoryId = savedProduct.getCategory().getUuid();
+            if (!categoryId.equals(previousCategoryId) || !savedProduct.getName().equals(previousName)) {
+                cacheInvalidator.listingChanged(savedProduct.getUuid(), previousCategoryId, categoryId);
+            } else {
+                cacheInvalidator.productChanged(savedProduct.getUuid());
+                // The tag list shows the price
+                cacheInvalidator.tagsChanged();
+            }
+            if (savedProduct.getIsDeleted()) {
+                cacheInvalidator.deletedProductsChanged();
+            }
             
             // Check for low stock after updating product
-            checkAndPublishLowStockEvent(savedProduct);
+            stockLedger.checkAndPublishLowStockEvent(savedProduct);
             
-            ProductDto productDto = convertToDto(savedProduct);
+            ProductDto productDto = productQueryService.convertToDto(savedProduct);
 
             String msg = messageSource.getMessage("product.updated.success" , null , locale);
             return ApiResponse.success(msg, productDto);
@@ -137,29 +201,9 @@ public class ProductService {
     }
 
     // Get paginated active products
-    @Cacheable(value = "products", key = "#page + '_' + #size")
     public ApiResponse<ProductPageDto> getAllProducts(Locale locale, int page, int size) {
         try {
-            Pageable pageable = PageRequest.of(page, size, Sort.by("name").ascending()); // you can sort by any field
-            Page<Product> productPage = productRepository.findActiveProducts(pageable);
-
-            List<ProductDto> productDtos = productPage.getContent()
-                    .stream()
-                    .map(this::convertToDto)
-                    .toList();
-
-            // Create ProductPageDto with pagination information
-            ProductPageDto productPageDto = new ProductPageDto(
-                    productDtos,
-                    productPage.getNumber(),
-                    productPage.getTotalPages(),
-                    productPage.getTotalElements(),
-                    productPage.getSize(),
-                    productPage.hasNext(),
-                    productPage.hasPrevious(),
-                    productPage.isFirst(),
-                    productPage.isLast()
-            );
+            ProductPageDto productPageDto = productQueryService.getActiveProductsPage(page, size);
 
             String msg = messageSource.getMessage("product.list.success", null, locale);
             return ApiResponse.success(msg, productPageDto);
@@ -170,16 +214,9 @@ public class ProductService {
     }
 
     // Get paginated deleted products
-    @Cacheable(value = "deletedProducts", key = "#page + '_' + #size")
     public ApiResponse<List<ProductDto>> getDeletedProducts(Locale locale, int page, int size) {
         try {
-            Pageable pageable = PageRequest.of(page, size, Sort.by("name").ascending()); // you can sort by any field
-            Page<Product> productPage = productRepository.findDeletedProducts(pageable);
-
-            List<ProductDto> productDtos = productPage.getContent()
-                    .stream()
-                    .map(this::convertToDto)
-                    .toList();
+            List<ProductDto> productDtos = productQueryService.getDeletedProducts(page, size);
 
             String msg = messageSource.getMessage("product.list.success", null, locale);
             return ApiResponse.success(msg, productDtos);
@@ -190,59 +227,174 @@ public class ProductService {
     }
 
     // Get products by category
-    @Cacheable(value = "productsByCategory", key = "#categoryUuid + '_' + #page + '_' + #size")
     public ApiResponse<ProductPageDto> getProductsByCategory(UUID categoryUuid, Locale locale, int page, int size) {
         try {
-            // Verify category exists
-            Category category = categoryService.findByUuid(categoryUuid);
-            if (category == null) {
-                String msg = messageSource.getMessage("category.not.found", null, locale);
-                return ApiResponse.failure(msg);
-            }
+            ProductPageDto productPageDto = productQueryService.getProductsPageByCategory(categoryUuid, page, size);
 
-            Pageable pageable = PageRequest.of(page, size, Sort.by("name").ascending());
-            Page<Product> productPage = productRepository.findByCategoryUuid(categoryUuid, pageable);
+            String msg = messageSource.getMessage("product.list.success", null, locale);
+            return ApiResponse.success(msg, productPageDto);
+        } catch (Exception e) {
+            String msg = messageSource.getMessage("product.list.failure", null, locale);
+            return ApiResponse.failure(msg + ": " + e.getMessage());
+        }
+    }
 
-            List<ProductDto> productDtos = productPage.getContent()
-                    .stream()
-                    .map(this::convertToDto)
-                    .toList();
+    // Get paginated active product summaries
+    public ApiResponse<ProductSummaryPageDto> getProductSummaries(Locale locale, int page, int size) {
+        try {
+            ProductSummaryPageDto pageDto = productQueryService.getActiveProductSummaries(page, size);
 
-            // Create ProductPageDto with pagination information
-            ProductPageDto productPageDto = new ProductPageDto(
-                    productDtos,
-                    productPage.getNumber(),
-                    productPage.getTotalPages(),
-                    productPage.getTotalElements(),
-                    productPage.getSize(),
-                    productPage.hasNext(),
-                    productPage.hasPrevious(),
-                    productPage.isFirst(),
-                    productPage.isLast()
-            );
+            String msg = messageSource.getMessage("product.list.success", null, locale);
+            return ApiResponse.success(msg, pageDto);
+        } catch (Exception e) {
+            String msg = messageSource.getMessage("product.list.failure", null, locale);
+            return ApiResponse.failure(msg + ": " + e.getMessage());
+        }
+    }
+
+    // Get paginated product summaries by category
+    public ApiResponse<ProductSummaryPageDto> getProductSummariesByCategory(UUID categoryUuid, Locale locale, int page, int size) {
+        try {
+            ProductSummaryPageDto pageDto = productQueryService.getProductSummariesByCategory(categoryUuid, page, size);
 
             String msg = messageSource.getMessage("product.list.success", null, locale);
-            return ApiResponse.success(msg, productPageDto);
+            return ApiResponse.success(msg, pageDto);
+        } catch (Exception e) {
+            String msg = messageSource.getMessage("product.list.failure", null, locale);
+            return ApiResponse.failure(msg + ": " + e.getMessage());
+        }
+    }
+
+    // Get a keyset page of active products
+    public ApiResponse<ProductCursorPageDto> getAllProductsAfter(Locale locale, String after, int size, boolean includeTotal) {
+        try {
+            ProductCursorPageDto pageDto = productQueryService.getActiveProductsAfter(after, size, includeTotal);
+
+            String msg = messageSource.getMessage("product.list.success", null, locale);
+            return ApiResponse.success(msg, pageDto);
         } catch (Exception e) {
             String msg = messageSource.getMessage("product.list.failure", null, locale);
             return ApiResponse.failure(msg + ": " + e.getMessage());
         }
     }
 
+    // Get a keyset page of products by category
+    public ApiResponse<ProductCursorPageDto> getProductsByCategoryAfter(UUID categoryUuid, Locale locale, String after,
+                                                                       int size, boolean includeTotal) {
+        try {
+            ProductCursorPageDto pageDto = productQueryService.getProductsByCategoryAfter(categoryUuid, after, size, includeTotal);
+
+            String msg = messageSource.getMessage("product.list.success", null, locale);
+            return ApiResponse.success(msg, pageDto);
+        } catch (Exception e) {
+            String msg = messageSource.getMessage("product.list.failure", null, locale);
+            return ApiResponse.failure(msg + ": " + e.getMessage());
+        }
+    }
+
+    // Search products by name, tag and category text with optional filters
+    public ApiResponse<ProductSearchResultDto> searchProducts(String query, SearchFilter filter, int page, int size, Locale locale) {
+        try {
+            ProductSearchResultDto result = productQueryService.searchProducts(query, filter, page, size);
+
+            String msg = messageSource.getMessage("product.search.success", null, locale);
+            return ApiResponse.success(msg, result);
+        } catch (Exception e) {
+            String msg = messageSource.getMessage("product.search.failure", null, locale);
+            return ApiResponse.failure(msg + ": " + e.getMessage());
+        }
+    }
+
+    // Facet counts of all active products, or of one category
+    public ApiResponse<ProductFacetsDto> getFacets(UUID categoryId, Locale locale) {
+        try {
+            ProductFacetsDto facets = productQueryService.getFacets(categoryId);
+
+            String msg = messageSource.getMessage("product.facets.success", null, locale);
+            return ApiResponse.success(msg, facets);
+        } catch (Exception e) {
+            String msg = messageSource.getMessage("product.facets.failure", null, locale);
+            return ApiResponse.failure(msg + ": " + e.getMessage());
+        }
+    }
+
+    // Trending products of the last hour or day
+    public ApiResponse<TrendingProductsDto> getTrending(String window, int limit, Locale locale) {
+        try {
+            TrendingProductsDto trending = productQueryService.getTrending(window, limit);
+
+            String msg = messageSource.getMessage("product.trending.success", null, locale);
+            return ApiResponse.success(msg, trending);
+        } catch (Exception e) {
+            String msg = messageSource.getMessage("product.trending.failure", null, locale);
+            return ApiResponse.failure(msg + ": " + e.getMessage());
+        }
+    }
+
+    // Typeahead suggestions for a name prefix
+    public ApiResponse<ProductSuggestionsDto> suggest(String prefix, int limit, Locale locale) {
+        try {
+            ProductSuggestionsDto suggestions = productQueryService.suggest(prefix, limit);
+
+            String msg = messageSource.getMessage("product.suggest.success", null, locale);
+            return ApiResponse.success(msg, suggestions);
+        } catch (Exception e) {
+            String msg = messageSource.getMessage("product.suggest.failure", null, locale);
+            return ApiResponse.failure(msg + ": " + e.getMessage());
+        }
+    }
+
+    // Rebuild the search index from the database in the background
+    @PreAuthorize("hasRole('ADMIN')")
+    public ApiResponse<Void> rebuildSearchIndex(Locale locale) {
+        if (!productIndexer.rebuildAsync()) {
+            String msg = messageSource.getMessage("product.search.rebuild.running", null, locale);
+            return ApiResponse.failure(msg);
+        }
+        String msg = messageSource.getMessage("product.search.rebuild.started", null, locale);
+        return ApiResponse.success(msg, null);
+    }
+
+    // Stream an NDJSON or CSV upload into the catalog, rows that fail are reported and skipped
+    @PreAuthorize("hasRole('ADMIN')")
+    public ApiResponse<ProductImportResult> importProducts(InputStream body, String contentType, Locale locale) {
+        try {
+            MediaType mediaType = MediaType.parseMediaType(contentType);
+            ProductImportReader.Format format;
+            if (mediaType.isCompatibleWith(MediaType.APPLICATION_NDJSON)) {
+                format = ProductImportReader.Format.NDJSON;
+            } else if (mediaType.isCompatibleWith(MediaType.parseMediaType("text/csv"))) {
+                format = ProductImportReader.Format.CSV;
+            } else {
+                throw new IllegalArgumentException("Unsupported content type: " + contentType);
+            }
+            
+            ProductImportResult result = productImportService.importProducts(body, format);
+            
+            String msg = messageSource.getMessage("product.import.success",
+                    new Object[]{result.imported(), result.failed()}, locale);
+            return ApiResponse.success(msg, result);
+        } catch (Exception e) {
+            String msg = messageSource.getMessage("product.import.failure", null, locale);
+            return ApiResponse.failure(msg + ": " + e.getMessage());
+        }
+    }
+
     // Get product by ID (public endpoint)
-    @Cacheable(value = "productDetails", key = "#productId")
     public ApiResponse<ProductDto> getProductById(UUID productId, Locale locale) {
+        if (!existenceFilter.mightExist(productId)) {
+            String msg = messageSource.getMessage("product.details.failure", null, locale);
+            return ApiResponse.failure(msg + ": Product not found with ID: " + productId);
+        }
         try {
-            Product product = productRepository.findByUuid(productId)
-                    .orElseThrow(() -> new RuntimeException("Product not found with ID: " + productId));
+            ProductDto productDto = productQueryService.getProductDetails(productId);
             
             // Check if product is not deleted
-            if (product.getIsDeleted()) {
+            if (Boolean.TRUE.equals(productDto.getIsDeleted())) {
                 String msg = messageSource.getMessage("product.details.failure", null, locale);
                 return ApiResponse.failure(msg);
             }
             
-            ProductDto productDto = convertToDto(product);
             String msg = messageSource.getMessage("product.details.success", null, locale);
             return ApiResponse.success(msg, productDto);
         } catch (Exception e) {
@@ -251,14 +403,31 @@ public class ProductService {
         }
     }
 
+    // Look up several products in one call for other services, deleted ones are flagged rather than hidden
+    public ApiResponse<ProductBatchDto> getProductBatch(ProductBatchRequest request, Locale locale) {
+        try {
+            ProductBatchDto batch = productQueryService.getProductBatch(request.ids());
+            String msg = messageSource.getMessage("product.batch.success", null, locale);
+            return ApiResponse.success(msg, batch);
+        } catch (Exception e) {
+            String msg = messageSource.getMessage("product.batch.failure", null, locale);
+            return ApiResponse.failure(msg + ": " + e.getMessage());
+        }
+    }
+
     // Soft delete product
-    @CacheEvict(value = {"products", "productsByCategory", "deletedProducts", "productDetails"}, allEntries = true)
     public ApiResponse<Void> softDeleteProduct(DeleteProductRequest request, Locale locale) {
         try{
             Product product = productRepository.findByUuid(request.productId()).orElseThrow();
 
-            product.setIsDeleted(true);
-            productRepository.save(product);
+            // Only the call that actually flips the flag moves the category count
+            transactionTemplate.executeWithoutResult(status -> {
+                if (productRepository.setDeleted(product.getUuid(), true, LocalDateTime.now()) > 0) {
+                    categoryService.adjustProductCount(product.getCategory(), -1);
+                }
+            });
+            cacheInvalidator.listingChanged(product.getUuid(), product.getCategory().getUuid());
+            cacheInvalidator.deletedProductsChanged();
 
             String msg = messageSource.getMessage("product.deleted.success", null, locale);
             return ApiResponse.success(msg, null);
@@ -269,13 +438,17 @@ public class ProductService {
     }
 
     // Activate product
-    @CacheEvict(value = {"products", "productsByCategory", "deletedProducts", "productDetails"}, allEntries = true)
     public ApiResponse<Void> activateProduct(DeleteProductRequest request, Locale locale) {
         try{
             Product product = productRepository.findByUuid(request.productId()).orElseThrow();
 
-            product.setIsDeleted(false);
-            productRepository.save(product);
+            transactionTemplate.executeWithoutResult(status -> {
+                if (productRepository.setDeleted(product.getUuid(), false, LocalDateTime.now()) > 0) {
+                    categoryService.adjustProductCount(product.getCategory(), 1);
+                }
+            });
+            cacheInvalidator.listingChanged(product.getUuid(), product.getCategory().getUuid());
+            cacheInvalidator.deletedProductsChanged();
 
             String msg = messageSource.getMessage("product.activated.success", null, locale);
             return ApiResponse.success(msg, null);
@@ -287,7 +460,6 @@ public class ProductService {
 
     // Add tags to product
     @PreAuthorize("hasRole('ADMIN')")
-    @CacheEvict(value = {"products", "productsByCategory", "productDetails"}, allEntries = true)
     public ApiResponse<ProductDto> addTagsToProduct(AddTagsToProductRequest request, Locale locale) {
         try {
             // Find the product
@@ -316,7 +488,9 @@ public class ProductService {
             }
             
             Product savedProduct = productRepository.save(product);
-            ProductDto productDto = convertToDto(savedProduct);
+            cacheInvalidator.productChanged(savedProduct.getUuid());
+            cacheInvalidator.tagsChanged();
+            ProductDto productDto = productQueryService.convertToDto(savedProduct);
             
             String msg = messageSource.getMessage("product.tag.add.success", null, locale);
             return ApiResponse.success(msg, productDto);
@@ -328,7 +502,6 @@ public class ProductService {
 
     // Remove tags from product
     @PreAuthorize("hasRole('ADMIN')")
-    @CacheEvict(value = {"products", "productsByCategory", "productDetails"}, allEntries = true)
     public ApiResponse<ProductDto> removeTagsFromProduct(RemoveTagsFromProductRequest request, Locale locale) {
         try {
             // Find the product
@@ -355,7 +528,9 @@ public class ProductService {
             }
             
             Product savedProduct = productRepository.save(product);
-            ProductDto productDto = convertToDto(savedProduct);
+            cacheInvalidator.productChanged(savedProduct.getUuid());
+            cacheInvalidator.tagsChanged();
+            ProductDto productDto = productQueryService.convertToDto(savedProduct);
             
             String msg = messageSource.getMessage("product.tag.remove.success", null, locale);
             return ApiResponse.success(msg, productDto);
@@ -365,38 +540,21 @@ public class ProductService {
         }
     }
 
-    // Check and publish low stock event if stock is below threshold
-    private void checkAndPublishLowStockEvent(Product product) {
-        final int LOW_STOCK_THRESHOLD = 10;
-        
-        if (product.getStock() != null && product.getStock() < LOW_STOCK_THRESHOLD) {
-            LowStockEvent event = new LowStockEvent(
-                product.getUuid(),
-                product.getName(),
-                product.getStock(),
-                LOW_STOCK_THRESHOLD,
-                product.getPrice(),
-                product.getCategory() != null ? product.getCategory().getName() : "Unknown"
-            );
-            
-            lowStockEventPublisher.publishLowStockEvent(event);
-        }
-    }
-
     // Variant Management Methods
     
     @PreAuthorize("hasRole('ADMIN')")
-    @CacheEvict(value = {"products", "productsByCategory", "productDetails"}, allEntries = true)
     public ApiResponse<ProductDto> addVariant(AddVariantRequest request, Locale locale) {
         try {
             Product product = productRepository.findByUuid(request.productId())
                     .orElseThrow(() -> new RuntimeException("Product not found with ID: " + request.productId()));
             
-            List<ProductVariant> variants = getVariantsFromProduct(product);
+            if (request.sku() != null && variantRepository.existsBySku(request.sku())) {
+                String msg = messageSource.getMessage("product.variant.sku.duplicate", null, locale);
+                return ApiResponse.failure(msg);
+            }
             
             // Create new variant
-            ProductVariant newVariant = new ProductVariant();
-            newVariant.setVariantId(java.util.UUID.randomUUID().toString());
+            Variant newVariant = new Variant();
             newVariant.setName(request.name());
             newVariant.setAttributes(request.attributes());
             newVariant.setPrice(request.price());
@@ -405,13 +563,12 @@ public class ProductService {
             newVariant.setImage(request.image());
             newVariant.setIsActive(request.isActive() != null ? request.isActive() : true);
             
-            variants.add(newVariant);
-            
-            // Save variants back to product
-            product.setVariantsJson(objectMapper.writeValueAsString(variants));
-            Product savedProduct = productRepository.save(product);
+            // Only the new row is written, other variants of the product are untouched
+            product.addVariant(newVariant);
+            variantRepository.save(newVariant);
+            cacheInvalidator.productChanged(product.getUuid());
             
-            ProductDto productDto = convertToDto(savedProduct);
+            ProductDto productDto = productQueryService.convertToDto(product);
             String msg = messageSource.getMessage("product.variant.add.success", null, locale);
             return ApiResponse.success(msg, productDto);
         } catch (Exception e) {
@@ -421,40 +578,33 @@ public class ProductService {
     }
     
     @PreAuthorize("hasRole('ADMIN')")
-    @CacheEvict(value = {"products", "productsByCategory", "productDetails"}, allEntries = true)
     public ApiResponse<ProductDto> updateVariant(UpdateVariantRequest request, Locale locale) {
         try {
-            Product product = productRepository.findByUuid(request.productId())
-                    .orElseThrow(() -> new RuntimeException("Product not found with ID: " + request.productId()));
-            
-            List<ProductVariant> variants = getVariantsFromProduct(product);
-            
-            // Find and update variant
-            boolean variantFound = false;
-            for (ProductVariant variant : variants) {
-                if (variant.getVariantId().equals(request.variantId())) {
-                    if (request.name() != null) variant.setName(request.name());
-                    if (request.attributes() != null) variant.setAttributes(request.attributes());
-                    if (request.price() != null) variant.setPrice(request.price());
-                    if (request.stock() != null) variant.setStock(request.stock());
-                    if (request.sku() != null) variant.setSku(request.sku());
-                    if (request.image() != null) variant.setImage(request.image());
-                    if (request.isActive() != null) variant.setIsActive(request.isActive());
-                    variantFound = true;
-                    break;
-                }
+            Optional<Variant> variantOpt = findVariant(request.productId(), request.variantId());
+            if (variantOpt.isEmpty()) {
+                String msg = messageSource.getMessage("product.variant.not.found", null, locale);
+                return ApiResponse.failure(msg);
             }
             
-            if (!variantFound) {
-                String msg = messageSource.getMessage("product.variant.not.found", null, locale);
+            Variant variant = variantOpt.get();
+            if (request.sku() != null && !request.sku().equals(variant.getSku()) && variantRepository.existsBySku(request.sku())) {
+                String msg = messageSource.getMessage("product.variant.sku.duplicate", null, locale);
                 return ApiResponse.failure(msg);
             }
             
-            // Save variants back to product
-            product.setVariantsJson(objectMapper.writeValueAsString(variants));
-            Product savedProduct = productRepository.save(product);
+            if (request.name() != null) variant.setName(request.name());
+            if (request.attributes() != null) variant.setAttributes(request.attributes());
+            if (request.price() != null) variant.setPrice(request.price());
+            if (request.stock() != null) variant.setStock(request.stock());
+            if (request.sku() != null) variant.setSku(request.sku());
+            if (request.image() != null) variant.setImage(request.image());
+            if (request.isActive() != null) variant.setIsActive(request.isActive());
+            
+            Variant savedVariant = variantRepository.save(variant);
+            Product product = savedVariant.getProduct();
+            cacheInvalidator.productChanged(product.getUuid());
             
-            ProductDto productDto = convertToDto(savedProduct);
+            ProductDto productDto = productQueryService.convertToDto(product);
             String msg = messageSource.getMessage("product.variant.update.success", null, locale);
             return ApiResponse.success(msg, productDto);
         } catch (Exception e) {
@@ -464,27 +614,21 @@ public class ProductService {
     }
     
     @PreAuthorize("hasRole('ADMIN')")
-    @CacheEvict(value = {"products", "productsByCategory", "productDetails"}, allEntries = true)
     public ApiResponse<ProductDto> removeVariant(RemoveVariantRequest request, Locale locale) {
         try {
-            Product product = productRepository.findByUuid(request.productId())
-                    .orElseThrow(() -> new RuntimeException("Product not found with ID: " + request.productId()));
-            
-            List<ProductVariant> variants = getVariantsFromProduct(product);
-            
-            // Remove variant
-            boolean removed = variants.removeIf(variant -> variant.getVariantId().equals(request.variantId()));
-            
-            if (!removed) {
+            Optional<Variant> variantOpt = findVariant(request.productId(), request.variantId());
+            if (variantOpt.isEmpty()) {
                 String msg = messageSource.getMessage("product.variant.not.found", null, locale);
                 return ApiResponse.failure(msg);
             }
             
-            // Save variants back to product
-            product.setVariantsJson(objectMapper.writeValueAsString(variants));
-            Product savedProduct = productRepository.save(product);
+            Variant variant = variantOpt.get();
+            Product product = variant.getProduct();
+            product.removeVariant(variant);
+            variantRepository.delete(variant);
+            cacheInvalidator.productChanged(product.getUuid());
             
-            ProductDto productDto = convertToDto(savedProduct);
+            ProductDto productDto = productQueryService.convertToDto(product);
             String msg = messageSource.getMessage("product.variant.remove.success", null, locale);
             return ApiResponse.success(msg, productDto);
         } catch (Exception e) {
@@ -493,32 +637,75 @@ public class ProductService {
         }
     }
     
-    // Helper method to get variants from product
-    private List<ProductVariant> getVariantsFromProduct(Product product) {
+    // Get a variant by SKU through the unique sku index
+    public ApiResponse<ProductVariant> getVariantBySku(String sku, Locale locale) {
         try {
-            if (product.getVariantsJson() == null || product.getVariantsJson().trim().isEmpty()) {
-                return new java.util.ArrayList<>();
+            Optional<Variant> variant = variantRepository.findBySku(sku);
+            if (variant.isEmpty()) {
+                String msg = messageSource.getMessage("product.variant.not.found", null, locale);
+                return ApiResponse.failure(msg);
             }
-            return objectMapper.readValue(product.getVariantsJson(), new TypeReference<List<ProductVariant>>() {});
+            
+            String msg = messageSource.getMessage("product.variant.details.success", null, locale);
+            return ApiResponse.success(msg, productQueryService.convertToDto(variant.get()));
         } catch (Exception e) {
-            return new java.util.ArrayList<>();
+            String msg = messageSource.getMessage("product.variant.details.failure", null, locale);
+            return ApiResponse.failure(msg + ": " + e.getMessage());
         }
     }
     
-    // Set stock for a product
-    @CacheEvict(value = {"products", "productsByCategory", "productDetails"}, allEntries = true)
-    public ApiResponse<ProductDto> setStock(UUID productId, int quantity, String action, Locale locale) {
+    // Increase or decrease variant stock with a single conditional UPDATE
+    public ApiResponse<ProductVariant> setVariantStock(UUID productId, String variantId, int quantity, String action, Locale locale) {
         try {
-            // Find the product
-            Product product = productRepository.findByUuid(productId)
-                    .orElseThrow(() -> new RuntimeException("Product not found with ID: " + productId));
+            if (!"increase".equalsIgnoreCase(action) && !"decrease".equalsIgnoreCase(action)) {
+                String msg = messageSource.getMessage("product.stock.invalid.operation", null, locale);
+                return ApiResponse.failure(msg);
+            }
             
-            // Check if product is not deleted
-            if (product.getIsDeleted()) {
-                String msg = messageSource.getMessage("product.not.found", null, locale);
+            if (quantity <= 0) {
+                String msg = messageSource.getMessage("product.stock.invalid.quantity", null, locale);
+                return ApiResponse.failure(msg);
+            }
+            
+            Optional<Variant> variantOpt = findVariant(productId, variantId);
+            if (variantOpt.isEmpty()) {
+                String msg = messageSource.getMessage("product.variant.not.found", null, locale);
+                return ApiResponse.failure(msg);
+            }
+            
+            UUID variantUuid = variantOpt.get().getUuid();
+            int updated = "increase".equalsIgnoreCase(action)
+                    ? variantRepository.incrementStock(variantUuid, quantity)
+                    : variantRepository.decrementStock(variantUuid, quantity);
+            if (updated == 0) {
+                String msg = messageSource.getMessage("product.stock.insufficient", null, locale);
                 return ApiResponse.failure(msg);
             }
+            cacheInvalidator.productChanged(productId);
+            
+            ProductVariant variantDto = productQueryService.convertToDto(variantOpt.get());
+            variantDto.setStock(variantRepository.findStockByUuid(variantUuid).orElse(null));
             
+            String msg = messageSource.getMessage("product.stock.updated.success", null, locale);
+            return ApiResponse.success(msg, variantDto);
+        } catch (Exception e) {
+            String msg = messageSource.getMessage("product.stock.updated.failure", null, locale);
+            return ApiResponse.failure(msg + ": " + e.getMessage());
+        }
+    }
+    
+    // Variant ids are uuids, anything else cannot match a variant
+    private Optional<Variant> findVariant(UUID productId, String variantId) {
+        try {
+            return variantRepository.findByUuidAndProductUuid(UUID.fromString(variantId), productId);
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+    
+    // Set stock for a product with a single conditional UPDATE, concurrent orders cannot oversell
+    public ApiResponse<ProductDto> setStock(UUID productId, int quantity, String action, Locale locale) {
+        try {
             // Validate operation type
             if (!"increase".equalsIgnoreCase(action) && !"decrease".equalsIgnoreCase(action)) {
                 String msg = messageSource.getMessage("product.stock.invalid.operation", null, locale);
@@ -531,25 +718,23 @@ public class ProductService {
                 return ApiResponse.failure(msg);
             }
             
-            // Get current stock
-            int currentStock = product.getStock() != null ? product.getStock() : 0;
-            int effectiveQuantityChange = "increase".equalsIgnoreCase(action) ? quantity : -quantity;
-            int newStock = currentStock + effectiveQuantityChange;
-            
-            // Check if decreasing stock would result in negative stock
-            if (newStock < 0) {
-                String msg = messageSource.getMessage("product.stock.insufficient", null, locale);
+            int delta = "increase".equalsIgnoreCase(action) ? quantity : -quantity;
+            if (productRepository.applyStockDelta(productId, delta) == 0) {
+                // Nothing updated, either the product is missing / deleted or the stock is too low
+                String key = productRepository.findActiveStockByUuid(productId).isPresent()
+                        ? "product.stock.insufficient" : "product.not.found";
+                String msg = messageSource.getMessage(key, null, locale);
                 return ApiResponse.failure(msg);
             }
+            cacheInvalidator.productChanged(productId);
             
-            // Update stock
-            product.setStock(newStock);
-            Product savedProduct = productRepository.save(product);
+            Product product = productRepository.findByUuid(productId)
+                    .orElseThrow(() -> new RuntimeException("Product not found with ID: " + productId));
             
             // Check for low stock after updating
-            checkAndPublishLowStockEvent(savedProduct);
+            stockLedger.checkAndPublishLowStockEvent(product);
             
-            ProductDto productDto = convertToDto(savedProduct);
+            ProductDto productDto = productQueryService.convertToDto(product);
             
             String msg = messageSource.getMessage("product.stock.updated.success", null, locale);
             return ApiResponse.success(msg, productDto);
@@ -559,63 +744,62 @@ public class ProductService {
         }
     }
 
+    // Apply a batch of stock changes all-or-nothing in one transaction, one conditional UPDATE per product
+    public ApiResponse<BulkStockChangeResult> changeStockBulk(BulkStockChangeRequest request, Locale locale) {
+        try {
+            // Merge lines per product, sorted so concurrent batches lock rows in the same order
+            Map<UUID, Integer> deltas = new TreeMap<>();
+            for (StockChangeLine line : request.lines()) {
+                deltas.merge(line.productId(), line.delta(), Integer::sum);
+            }
+            
+            Map<UUID, StockChangeStatus> statuses = transactionTemplate.execute(status -> stockLedger.applyAll(deltas, status));
+            boolean applied = !statuses.containsValue(StockChangeStatus.INSUFFICIENT_STOCK)
+                    && !statuses.containsValue(StockChangeStatus.NOT_FOUND);
+            
+            if (applied) {
+                stockLedger.stockChanged(deltas.keySet());
+            }
+            
+            Map<UUID, Product> products = new HashMap<>();
+            for (Product product : productRepository.findAllByUuidIn(deltas.keySet())) {
+                products.put(product.getUuid(), product);
+            }
+            
+            List<StockChangeLineResult> lineResults = request.lines().stream()
+                    .map(line -> {
+                        Product product = products.get(line.productId());
+                        return new StockChangeLineResult(line.productId(), line.delta(), statuses.get(line.productId()),
+                                product != null ? product.getStock() : null);
+                    })
+                    .toList();
+            BulkStockChangeResult result = new BulkStockChangeResult(applied, lineResults);
+            
+            if (!applied) {
+                String msg = messageSource.getMessage("product.stock.bulk.rejected", null, locale);
+                return new ApiResponse<>(false, msg, result);
+            }
+            String msg = messageSource.getMessage("product.stock.bulk.success", null, locale);
+            return ApiResponse.success(msg, result);
+        } catch (Exception e) {
+            String msg = messageSource.getMessage("product.stock.updated.failure", null, locale);
+            return ApiResponse.failure(msg + ": " + e.getMessage());
+        }
+    }
+
     public ApiResponse<String> getProductNameById(UUID id) {
 
+        if (!existenceFilter.mightExist(id)) {
+            return new ApiResponse<String>(false, "Failed", null);
+        }
+
         Optional<String> productName = productRepository.findNameByUuid(id);
 
         if(productName.isEmpty()){
+            existenceFilter.recordMissing(id);
             return new ApiResponse<String>(false, "Failed", null);
         }
         String name = productName.get();
         return new ApiResponse<String>(true, "Success", name);
     }
-
-    // Convert entity to dto
-    private ProductDto convertToDto(Product product) {
-        ProductDto dto = new ProductDto();
-        dto.setUuid(product.getUuid());
-        dto.setName(product.getName());
-        dto.setPrice(product.getPrice());
-        dto.setImage(product.getImage());
-        dto.setStock(product.getStock());
-        dto.setIsDeleted(product.getIsDeleted());
-        dto.setViewCount(product.getViewCount());
-        dto.setRate(product.getRate());
-        dto.setCreatedAt(product.getCreatedAt());
-        dto.setUpdatedAt(product.getUpdatedAt());
-        
-        // Convert category
-        if (product.getCategory() != null) {
-            dto.setCategory(new ProductDto.CategorySummaryDto(
-                    product.getCategory().getUuid(),
-                    product.getCategory().getName()
-            ));
-        }
-        
-        // Convert tags
-        if (product.getTags() != null && !product.getTags().isEmpty()) {
-            dto.setTags(product.getTags().stream()
-                    .map(tag -> new ProductDto.TagSummaryDto(
-                            tag.getUuid(),
-                            tag.getName()
-                    ))
-                    .toList());
-        }
-        
-        // Convert reviews
-        if (product.getReviews() != null && !product.getReviews().isEmpty()) {
-            dto.setReviews(product.getReviews().stream()
-                    .map(review -> new ProductDto.ReviewSummaryDto(
-                            review.getUuid(),
-                            review.getUserId(),
-                            review.getRate()
-                    ))
-                    .toList());
-        }
-        
-        // Convert variants
-        dto.setVariants(getVariantsFromProduct(product));
-        
-        return dto;
-    }
 }
@@ -0,0 +1,138 @@
+package com.orange.product_service.product.service;
+
+import com.orange.product_service.product.repo.ProductRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Write-behind buffer for product view counts.
+ * Views are absorbed in memory and flushed to products.view_count in batched UPDATEs,
+ * so readers of a hot product no longer queue on its row lock.
+ */
+@Component
+public class ProductViewCounter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductViewCounter.class);
+
+    // Upper bound for the IN list of a single UPDATE statement
+    private static final int UPDATE_CHUNK_SIZE = 500;
+
+    private final ProductRepository productRepository;
+    private final int maxPendingProducts;
+    private final Map<UUID, LongAdder> pending = new ConcurrentHashMap<>();
+    private final Counter flushedViews;
+    private final Counter writeThroughViews;
+
+    public ProductViewCounter(ProductRepository productRepository,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.product.view-counter.max-pending-products:10000}") int maxPendingProducts) {
+        this.productRepository = productRepository;
+        this.maxPendingProducts = maxPendingProducts;
+
+        Gauge.builder("product.views.pending.products", pending, Map::size)
+                .description("Products with view increments waiting to be flushed")
+                .register(meterRegistry);
+        Gauge.builder("product.views.pending.increments", this, ProductViewCounter::pendingIncrements)
+                .description("View increments waiting to be flushed")
+                .register(meterRegistry);
+        this.flushedViews = Counter.builder("product.views.flushed")
+                .description("View increments written to the database by the flusher")
+                .register(meterRegistry);
+        this.writeThroughViews = Counter.builder("product.views.write.through")
+                .description("View increments written directly because the buffer was full")
+                .register(meterRegistry);
+    }
+
+    public void increment(UUID productId) {
+        LongAdder adder = pending.get(productId);
+        if (adder == null) {
+            if (pending.size() >= maxPendingProducts) {
+                // Buffer is full, fall back to a direct update instead of growing without bound
+                writeThroughViews.increment();
+                productRepository.incrementViewCount(productId);
+                return;
+            }
+            adder = pending.computeIfAbsent(productId, id -> new LongAdder());
+        }
+        adder.increment();
+    }
+
+    @Scheduled(fixedDelayString = "${app.product.view-counter.flush-interval-ms:5000}")
+    public synchronized void flush() {
+        Map<Long, List<UUID>> productsByDelta = drain();
+        if (productsByDelta.isEmpty()) {
+            return;
+        }
+
+        // One UPDATE per distinct delta, most products share small deltas like 1, 2 or 3
+        for (Map.Entry<Long, List<UUID>> entry : productsByDelta.entrySet()) {
+            long delta = entry.getKey();
+            List<UUID> productIds = entry.getValue();
+            for (int from = 0; from < productIds.size(); from += UPDATE_CHUNK_SIZE) {
+                List<UUID> chunk = productIds.subList(from, Math.min(from + UPDATE_CHUNK_SIZE, productIds.size()));
+                try {
+                    productRepository.addViewCount(chunk, delta);
+                    flushedViews.increment((double) delta * chunk.size());
+                } catch (Exception e) {
+                    logger.error("Failed to flush {} view counts (delta {}) - Error: {}",
+                            chunk.size(), delta, e.getMessage());
+                    requeue(chunk, delta);
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        logger.info("Flushing {} pending product view counts before shutdown", pending.size());
+        flush();
+    }
+
+    private Map<Long, List<UUID>> drain() {
+        Map<Long, List<UUID>> productsByDelta = new HashMap<>();
+        for (Map.Entry<UUID, LongAdder> entry : pending.entrySet()) {
+            LongAdder adder = entry.getValue();
+            long delta = adder.sumThenReset();
+            if (delta == 0) {
+                // Idle since the last flush, release the slot
+                pending.remove(entry.getKey(), adder);
+                // Pick up increments that raced with the removal
+                delta = adder.sumThenReset();
+                if (delta == 0) {
+                    continue;
+                }
+            }
+            productsByDelta.computeIfAbsent(delta, d -> new ArrayList<>()).add(entry.getKey());
+        }
+        return productsByDelta;
+    }
+
+    private void requeue(List<UUID> productIds, long delta) {
+        for (UUID productId : productIds) {
+            pending.computeIfAbsent(productId, id -> new LongAdder()).add(delta);
+        }
+    }
+
+    private double pendingIncrements() {
+        long total = 0;
+        for (LongAdder adder : pending.values()) {
+            total += adder.sum();
+        }
+        return total;
+    }
+}
@@ -0,0 +1,79 @@
+package com.orange.product_service.product.service;
+
+import com.orange.product_service.product.dto.StockChangeStatus;
+import com.orange.product_service.product.entity.Product;
+import com.orange.product_service.product.repo.ProductRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionStatus;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Stock writes shared by product stock updates and reservations.
+ * Every change is a conditional UPDATE, so concurrent callers cannot oversell or
+ * overwrite each other, followed by cache invalidation and low stock checks.
+ */
+@Component
+public class StockLedger {
+
+    private final ProductRepository productRepository;
+    private final ProductCacheInvalidator cacheInvalidator;
+    private final LowStockMonitor lowStockMonitor;
+
+    public StockLedger(ProductRepository productRepository, ProductCacheInvalidator cacheInvalidator,
+                       LowStockMonitor lowStockMonitor) {
+        this.productRepository = productRepository;
+        this.cacheInvalidator = cacheInvalidator;
+        this.lowStockMonitor = lowStockMonitor;
+    }
+
+    // Apply every delta inside the caller's transaction, a failed line marks the whole transaction rollback-only.
+    // Pass deltas in a sorted map so concurrent batches lock rows in the same order.
+    public Map<UUID, StockChangeStatus> applyAll(Map<UUID, Integer> deltas, TransactionStatus status) {
+        Map<UUID, StockChangeStatus> statuses = new HashMap<>();
+        boolean failed = false;
+        for (Map.Entry<UUID, Integer> entry : deltas.entrySet()) {
+            if (productRepository.applyStockDelta(entry.getKey(), entry.getValue()) == 1) {
+                statuses.put(entry.getKey(), StockChangeStatus.APPLIED);
+            } else {
+                failed = true;
+                statuses.put(entry.getKey(), productRepository.findActiveStockByUuid(entry.getKey()).isPresent()
+                        ? StockChangeStatus.INSUFFICIENT_STOCK : StockChangeStatus.NOT_FOUND);
+            }
+        }
+        if (failed) {
+            status.setRollbackOnly();
+            statuses.replaceAll((productId, lineStatus) ->
+                    lineStatus == StockChangeStatus.APPLIED ? StockChangeStatus.ROLLED_BACK : lineStatus);
+        }
+        return statuses;
+    }
+
+    // Put back stock taken earlier, also for products deleted in the meantime
+    public void restore(UUID productId, int quantity) {
+        productRepository.restoreStock(productId, quantity);
+    }
+
+    // Evict cached copies of products whose stock changed and re-check their low stock state,
+    // increases matter too since restocking re-arms the alert
+    public void stockChanged(Collection<UUID> productIds) {
+        for (UUID productId : productIds) {
+            cacheInvalidator.productChanged(productId);
+        }
+        checkLowStock(productIds);
+    }
+
+    private void checkLowStock(Collection<UUID> productIds) {
+        if (!productIds.isEmpty()) {
+            productRepository.findAllByUuidIn(productIds).forEach(this::checkAndPublishLowStockEvent);
+        }
+    }
+
+    // Queue a low stock alert when the product crossed below its threshold, published later in batches
+    public void checkAndPublishLowStockEvent(Product product) {
+        lowStockMonitor.stockObserved(product);
+    }
+}
@@ -0,0 +1,217 @@
+package com.orange.product_service.product.trending;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+
+/**
+ * Heavy hitters of one trending window: a Count-Min sketch of time-decayed counts plus the
+ * top-K products by their sketch estimate.
+ *
+ * Decay is exponential with the window as time constant, using forward decay: an event at time t
+ * is added with weight e^((t - landmark) / window), so stored counts never have to be aged and the
+ * decayed value of a count at time now is count * e^(-(now - landmark) / window). The landmark
+ * moves forward (and all counts are scaled down) before the weights grow too large.
+ *
+ * Forward decayed estimates only ever grow, which lets the top-K heap be updated lazily: an entry
+ * whose score is stale is simply re-queued with the current score when it reaches the top.
+ * Not thread safe, TrendingTracker serializes access.
+ */
+final class DecayingTopK {
+
+    // Rescale once weights reach e^20, far below where doubles lose the small counts
+    private static final double MAX_EXPONENT = 20;
+
+    private final long windowMillis;
+    private final int width;
+    private final int depth;
+    private final int capacity;
+    private final double[][] counts;
+    private final Map<UUID, Double> scores = new HashMap<>();
+    private final PriorityQueue<Candidate> heap = new PriorityQueue<>();
+    private long landmark;
+
+    DecayingTopK(long windowMillis, int width, int depth, int capacity, long now) {
+        this.windowMillis = windowMillis;
+        this.width = width;
+        this.depth = depth;
+        this.capacity = capacity;
+        this.counts = new double[depth][width];
+        this.landmark = now;
+    }
+
+    void add(UUID productId, double amount, long now) {
+        double exponent = (double) (now - landmark) / windowMillis;
+        if (exponent > MAX_EXPONENT) {
+            rescale(now);
+            exponent = 0;
+        }
+        double weight = amount * Math.exp(exponent);
+
+        long h1 = mix(productId.getMostSignificantBits());
+        long h2 = mix(productId.getLeastSignificantBits()) | 1;
+        double estimate = Double.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            int column = (int) Long.remainderUnsigned(h1 + row * h2, width);
+            counts[row][column] += weight;
+            estimate = Math.min(estimate, counts[row][column]);
+        }
+        offer(productId, estimate);
+    }
+
+    // Current top products, best first, with their decayed scores at now
+    List<TrendingTracker.Ranked> top(long now) {
+        double decay = Math.exp(-(double) (now - landmark) / windowMillis);
+        List<TrendingTracker.Ranked> ranked = new ArrayList<>(scores.size());
+        scores.forEach((productId, score) -> ranked.add(new TrendingTracker.Ranked(productId, score * decay)));
+        ranked.sort((a, b) -> Double.compare(b.score(), a.score()));
+        return ranked;
+    }
+
+    // Fold in a snapshot of the same window and dimensions, e.g. the one persisted before a restart
+    void merge(DecayingTopK other) {
+        if (other.windowMillis != windowMillis || other.width != width || other.depth != depth) {
+            return;
+        }
+        long common = Math.max(landmark, other.landmark);
+        rescale(common);
+        other.rescale(common);
+        for (int row = 0; row < depth; row++) {
+            for (int column = 0; column < width; column++) {
+                counts[row][column] += other.counts[row][column];
+            }
+        }
+        List<UUID> candidates = new ArrayList<>(scores.keySet());
+        candidates.addAll(other.scores.keySet());
+        scores.clear();
+        heap.clear();
+        for (UUID productId : candidates) {
+            offer(productId, estimate(productId));
+        }
+    }
+
+    void writeTo(DataOutputStream out) throws IOException {
+        out.writeLong(windowMillis);
+        out.writeInt(width);
+        out.writeInt(depth);
+        out.writeLong(landmark);
+        for (double[] row : counts) {
+            for (double count : row) {
+                out.writeDouble(count);
+            }
+        }
+        out.writeInt(scores.size());
+        for (UUID productId : scores.keySet()) {
+            out.writeLong(productId.getMostSignificantBits());
+            out.writeLong(productId.getLeastSignificantBits());
+        }
+    }
+
+    static DecayingTopK readFrom(DataInputStream in, int capacity) throws IOException {
+        long windowMillis = in.readLong();
+        int width = in.readInt();
+        int depth = in.readInt();
+        DecayingTopK sketch = new DecayingTopK(windowMillis, width, depth, capacity, in.readLong());
+        for (int row = 0; row < depth; row++) {
+            for (int column = 0; column < width; column++) {
+                sketch.counts[row][column] = in.readDouble();
+            }
+        }
+        int candidates = in.readInt();
+        for (int i = 0; i < candidates; i++) {
+            UUID productId = new UUID(in.readLong(), in.readLong());
+            sketch.offer(productId, sketch.estimate(productId));
+        }
+        return sketch;
+    }
+
+    private void offer(UUID productId, double estimate) {
+        if (scores.containsKey(productId)) {
+            // The heap entry goes stale, it is refreshed when it surfaces
+            scores.put(productId, estimate);
+            return;
+        }
+        if (scores.size() < capacity) {
+            scores.put(productId, estimate);
+            heap.add(new Candidate(productId, estimate));
+            return;
+        }
+        Candidate weakest = weakest();
+        if (weakest != null && estimate > weakest.score()) {
+            heap.poll();
+            scores.remove(weakest.productId());
+            scores.put(productId, estimate);
+            heap.add(new Candidate(productId, estimate));
+        }
+    }
+
+    // Lowest current score, re-queueing stale entries on the way
+    private Candidate weakest() {
+        while (true) {
+            Candidate head = heap.peek();
+            if (head == null) {
+                return null;
+            }
+            double current = scores.get(head.productId());
+            if (current == head.score()) {
+                return head;
+            }
+            heap.poll();
+            heap.add(new Candidate(head.productId(), current));
+        }
+    }
+
+    private double estimate(UUID productId) {
+        long h1 = mix(productId.getMostSignificantBits());
+        long h2 = mix(productId.getLeastSignificantBits()) | 1;
+        double estimate = Double.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counts[row][(int) Long.remainderUnsigned(h1 + row * h2, width)]);
+        }
+        return estimate;
+    }
+
+    private void rescale(long newLandmark) {
+        if (newLandmark == landmark) {
+            return;
+        }
+        double factor = Math.exp(-(double) (newLandmark - landmark) / windowMillis);
+        for (double[] row : counts) {
+            for (int column = 0; column < row.length; column++) {
+                row[column] *= factor;
+            }
+        }
+        scores.replaceAll((productId, score) -> score * factor);
+        List<Candidate> rescaled = new ArrayList<>(heap.size());
+        for (Candidate candidate : heap) {
+            rescaled.add(new Candidate(candidate.productId(), scores.get(candidate.productId())));
+        }
+        heap.clear();
+        heap.addAll(rescaled);
+        landmark = newLandmark;
+    }
+
+    // MurmurHash3 finalizer
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb93e53ca34cdL;
+        value ^= value >>> 33;
+        return value;
+    }
+
+    private record Candidate(UUID productId, double score) implements Comparable<Candidate> {
+
+        @Override
+        public int compareTo(Candidate other) {
+            return Double.compare(score, other.score);
+        }
+    }
+}
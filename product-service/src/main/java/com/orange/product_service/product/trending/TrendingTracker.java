@@ -0,0 +1,281 @@
+package com.orange.product_service.product.trending;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Trending products per window, served from memory.
+ *
+ * Product views and ordered quantities (weighted by app.trending.order-weight) are buffered like
+ * the view counter and drained every app.trending.flush-interval-ms into one DecayingTopK per
+ * window. Each drain is also published on a Redis channel, so every instance ranks the traffic of
+ * the whole cluster. The rankings read by requests are immutable lists replaced after each drain.
+ *
+ * The sketches are persisted to Redis every app.trending.snapshot-interval-ms and on shutdown, and
+ * merged back at startup so rankings survive restarts.
+ */
+@Component
+public class TrendingTracker implements MessageListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrendingTracker.class);
+
+    public static final String CHANNEL = "product-trending:events";
+
+    private static final String SNAPSHOT_KEY_PREFIX = "product-trending:snapshot:";
+    private static final Duration SNAPSHOT_TTL = Duration.ofDays(7);
+    private static final String SEPARATOR = "|";
+    // Products per published message
+    private static final int MESSAGE_CHUNK_SIZE = 500;
+
+    // Identifies this instance so it ignores its own messages
+    private final String instanceId = UUID.randomUUID().toString();
+    private final StringRedisTemplate redisTemplate;
+    private final int width;
+    private final int depth;
+    private final int topK;
+    private final long orderWeight;
+    private final int maxPendingProducts;
+    private final Map<UUID, LongAdder> pending = new ConcurrentHashMap<>();
+    private final Map<TrendingWindow, DecayingTopK> sketches = new EnumMap<>(TrendingWindow.class);
+    private final Counter dropped;
+
+    private volatile Map<TrendingWindow, List<Ranked>> rankings = Map.of();
+
+    public TrendingTracker(StringRedisTemplate redisTemplate,
+                           RedisMessageListenerContainer listenerContainer,
+                           MeterRegistry meterRegistry,
+                           @Value("${app.trending.sketch.width:4096}") int width,
+                           @Value("${app.trending.sketch.depth:4}") int depth,
+                           @Value("${app.trending.top-k:100}") int topK,
+                           @Value("${app.trending.order-weight:10}") long orderWeight,
+                           @Value("${app.trending.max-pending-products:10000}") int maxPendingProducts) {
+        this.redisTemplate = redisTemplate;
+        this.width = width;
+        this.depth = depth;
+        this.topK = topK;
+        this.orderWeight = orderWeight;
+        this.maxPendingProducts = maxPendingProducts;
+        long now = System.currentTimeMillis();
+        for (TrendingWindow window : TrendingWindow.values()) {
+            sketches.put(window, new DecayingTopK(window.duration().toMillis(), width, depth, topK, now));
+        }
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+
+        Gauge.builder("product.trending.pending.products", pending, Map::size)
+                .description("Products with trending events waiting to be drained")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("product.trending.dropped")
+                .description("Trending events dropped because the buffer was full")
+                .register(meterRegistry);
+    }
+
+    public void recordView(UUID productId) {
+        record(productId, 1);
+    }
+
+    public void recordOrder(UUID productId, int quantity) {
+        if (quantity > 0) {
+            record(productId, quantity * orderWeight);
+        }
+    }
+
+    // Best first, at most limit entries; the ranking is as fresh as the last drain
+    public List<Ranked> top(TrendingWindow window, int limit) {
+        List<Ranked> ranking = rankings.getOrDefault(window, List.of());
+        return ranking.size() > limit ? ranking.subList(0, limit) : ranking;
+    }
+
+    public int capacity() {
+        return topK;
+    }
+
+    @Scheduled(fixedDelayString = "${app.trending.flush-interval-ms:1000}")
+    public void flush() {
+        Map<UUID, Long> batch = drain();
+        if (!batch.isEmpty()) {
+            apply(batch);
+            publish(batch);
+        }
+        // Scores decay even without new events
+        publishRankings();
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        // Format: instanceId|productId:amount,productId:amount...
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 2);
+        if (parts.length < 2 || instanceId.equals(parts[0])) {
+            return;
+        }
+        Map<UUID, Long> batch = new HashMap<>();
+        try {
+            for (String entry : parts[1].split(",")) {
+                int colon = entry.indexOf(':');
+                batch.merge(UUID.fromString(entry.substring(0, colon)), Long.parseLong(entry.substring(colon + 1)), Long::sum);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Ignoring malformed trending message - Error: {}", e.getMessage());
+            return;
+        }
+        apply(batch);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void restoreSnapshots() {
+        for (TrendingWindow window : TrendingWindow.values()) {
+            try {
+                String encoded = redisTemplate.opsForValue().get(SNAPSHOT_KEY_PREFIX + window.label());
+                if (encoded == null) {
+                    continue;
+                }
+                DecayingTopK snapshot;
+                try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Base64.getDecoder().decode(encoded)))) {
+                    snapshot = DecayingTopK.readFrom(in, topK);
+                }
+                DecayingTopK sketch = sketches.get(window);
+                synchronized (sketch) {
+                    sketch.merge(snapshot);
+                }
+                logger.info("Restored the {} trending snapshot", window.label());
+            } catch (Exception e) {
+                logger.warn("Could not restore the {} trending snapshot - Error: {}", window.label(), e.getMessage());
+            }
+        }
+        publishRankings();
+    }
+
+    // Every instance holds about the same sketches, whichever writes last wins
+    @Scheduled(initialDelayString = "${app.trending.snapshot-interval-ms:300000}",
+            fixedDelayString = "${app.trending.snapshot-interval-ms:300000}")
+    public void persistSnapshots() {
+        for (TrendingWindow window : TrendingWindow.values()) {
+            DecayingTopK sketch = sketches.get(window);
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(width * depth * Double.BYTES + 64);
+            try (DataOutputStream out = new DataOutputStream(bytes)) {
+                synchronized (sketch) {
+                    sketch.writeTo(out);
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            try {
+                redisTemplate.opsForValue().set(SNAPSHOT_KEY_PREFIX + window.label(),
+                        Base64.getEncoder().encodeToString(bytes.toByteArray()), SNAPSHOT_TTL);
+            } catch (Exception e) {
+                logger.warn("Failed to persist the {} trending snapshot - Error: {}", window.label(), e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void persistOnShutdown() {
+        flush();
+        persistSnapshots();
+    }
+
+    private void record(UUID productId, long amount) {
+        LongAdder adder = pending.get(productId);
+        if (adder == null) {
+            if (pending.size() >= maxPendingProducts) {
+                // Rankings are approximate anyway, do not grow without bound
+                dropped.increment();
+                return;
+            }
+            adder = pending.computeIfAbsent(productId, id -> new LongAdder());
+        }
+        adder.add(amount);
+    }
+
+    private Map<UUID, Long> drain() {
+        Map<UUID, Long> batch = new HashMap<>();
+        for (Map.Entry<UUID, LongAdder> entry : pending.entrySet()) {
+            LongAdder adder = entry.getValue();
+            long amount = adder.sumThenReset();
+            if (amount == 0) {
+                // Idle since the last drain, release the slot
+                pending.remove(entry.getKey(), adder);
+                // Pick up events that raced with the removal
+                amount = adder.sumThenReset();
+                if (amount == 0) {
+                    continue;
+                }
+            }
+            batch.put(entry.getKey(), amount);
+        }
+        return batch;
+    }
+
+    private void apply(Map<UUID, Long> batch) {
+        long now = System.currentTimeMillis();
+        for (DecayingTopK sketch : sketches.values()) {
+            synchronized (sketch) {
+                batch.forEach((productId, amount) -> sketch.add(productId, amount, now));
+            }
+        }
+    }
+
+    private void publishRankings() {
+        long now = System.currentTimeMillis();
+        Map<TrendingWindow, List<Ranked>> fresh = new EnumMap<>(TrendingWindow.class);
+        sketches.forEach((window, sketch) -> {
+            synchronized (sketch) {
+                fresh.put(window, List.copyOf(sketch.top(now)));
+            }
+        });
+        rankings = fresh;
+    }
+
+    private void publish(Map<UUID, Long> batch) {
+        List<Map.Entry<UUID, Long>> entries = new ArrayList<>(batch.entrySet());
+        for (int from = 0; from < entries.size(); from += MESSAGE_CHUNK_SIZE) {
+            StringBuilder payload = new StringBuilder(instanceId).append(SEPARATOR);
+            for (int i = from; i < Math.min(from + MESSAGE_CHUNK_SIZE, entries.size()); i++) {
+                if (i > from) {
+                    payload.append(',');
+                }
+                payload.append(entries.get(i).getKey()).append(':').append(entries.get(i).getValue());
+            }
+            try {
+                redisTemplate.convertAndSend(CHANNEL, payload.toString());
+            } catch (Exception e) {
+                // Other instances miss these events, their rankings stay approximate
+                logger.warn("Failed to publish {} trending events - Error: {}", batch.size(), e.getMessage());
+                return;
+            }
+        }
+    }
+
+    public record Ranked(UUID productId, double score) {
+    }
+}
@@ -0,0 +1,35 @@
+package com.orange.product_service.product.trending;
+
+import java.time.Duration;
+
+// Time constant of the trending decay: a view counts half as much after about 0.7 windows
+public enum TrendingWindow {
+
+    HOUR("1h", Duration.ofHours(1)),
+    DAY("24h", Duration.ofHours(24));
+
+    private final String label;
+    private final Duration duration;
+
+    TrendingWindow(String label, Duration duration) {
+        this.label = label;
+        this.duration = duration;
+    }
+
+    public String label() {
+        return label;
+    }
+
+    public Duration duration() {
+        return duration;
+    }
+
+    public static TrendingWindow of(String label) {
+        for (TrendingWindow window : values()) {
+            if (window.label.equalsIgnoreCase(label)) {
+                return window;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported trending window: " + label + " (use 1h or 24h)");
+    }
+}
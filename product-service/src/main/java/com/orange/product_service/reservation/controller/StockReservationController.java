@@ -0,0 +1,93 @@
+package com.orange.product_service.reservation.controller;
+
+import com.orange.product_service.dto.ApiResponse;
+import com.orange.product_service.reservation.dto.ReserveStockRequest;
+import com.orange.product_service.reservation.dto.StockReservationDto;
+import com.orange.product_service.reservation.service.StockReservationService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Locale;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/reservations")
+@Tag(name = "Stock Reservation Controller", description = "Checkout stock hold APIs")
+@SecurityRequirement(name = "bearerAuth")
+public class StockReservationController {
+
+    private final StockReservationService reservationService;
+
+    public StockReservationController(StockReservationService reservationService) {
+        this.reservationService = reservationService;
+    }
+
+    @PostMapping("/reserve")
+    @Operation(summary = "Reserve stock", description = "Hold stock for all lines atomically until the reservation is committed, released or expires")
+    public ResponseEntity<ApiResponse<StockReservationDto>> reserve(
+            @Valid @RequestBody ReserveStockRequest request,
+            @RequestHeader(value = "Accept-Language", defaultValue = "en") String language) {
+
+        Locale locale = Locale.forLanguageTag(language);
+        ApiResponse<StockReservationDto> response = reservationService.reserve(request, locale);
+
+        if (response.isSuccess()) {
+            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        } else {
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    @PostMapping("/{reservationId}/commit")
+    @Operation(summary = "Commit reservation", description = "Make a held reservation permanent")
+    public ResponseEntity<ApiResponse<StockReservationDto>> commit(
+            @PathVariable UUID reservationId,
+            @RequestHeader(value = "Accept-Language", defaultValue = "en") String language) {
+
+        Locale locale = Locale.forLanguageTag(language);
+        ApiResponse<StockReservationDto> response = reservationService.commit(reservationId, locale);
+
+        if (response.isSuccess()) {
+            return ResponseEntity.ok(response);
+        } else {
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    @PostMapping("/{reservationId}/release")
+    @Operation(summary = "Release reservation", description = "Give the stock of a held reservation back")
+    public ResponseEntity<ApiResponse<StockReservationDto>> release(
+            @PathVariable UUID reservationId,
+            @RequestHeader(value = "Accept-Language", defaultValue = "en") String language) {
+
+        Locale locale = Locale.forLanguageTag(language);
+        ApiResponse<StockReservationDto> response = reservationService.release(reservationId, locale);
+
+        if (response.isSuccess()) {
+            return ResponseEntity.ok(response);
+        } else {
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    @GetMapping("/{reservationId}")
+    @Operation(summary = "Get reservation", description = "Get a stock reservation by ID")
+    public ResponseEntity<ApiResponse<StockReservationDto>> getReservation(
+            @PathVariable UUID reservationId,
+            @RequestHeader(value = "Accept-Language", defaultValue = "en") String language) {
+
+        Locale locale = Locale.forLanguageTag(language);
+        ApiResponse<StockReservationDto> response = reservationService.getReservation(reservationId, locale);
+
+        if (response.isSuccess()) {
+            return ResponseEntity.ok(response);
+        } else {
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+}
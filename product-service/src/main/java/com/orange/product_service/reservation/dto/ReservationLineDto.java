@@ -0,0 +1,12 @@
+package com.orange.product_service.reservation.dto;
+
+import com.orange.product_service.product.dto.StockChangeStatus;
+
+import java.util.UUID;
+
+public record ReservationLineDto(
+        UUID productId,
+        int quantity,
+        StockChangeStatus status // outcome of the reserve attempt, null when reading an existing reservation
+) {
+}
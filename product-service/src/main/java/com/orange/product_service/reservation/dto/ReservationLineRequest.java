@@ -0,0 +1,16 @@
+package com.orange.product_service.reservation.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+import java.util.UUID;
+
+public record ReservationLineRequest(
+        @NotNull(message = "Product ID is required")
+        UUID productId,
+
+        @NotNull(message = "Quantity is required")
+        @Positive(message = "Quantity must be positive")
+        Integer quantity
+) {
+}
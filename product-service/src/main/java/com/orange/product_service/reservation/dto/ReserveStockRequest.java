@@ -0,0 +1,19 @@
+package com.orange.product_service.reservation.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record ReserveStockRequest(
+        @NotEmpty(message = "At least one line is required")
+        @Size(max = 500, message = "At most 500 lines per reservation")
+        List<@Valid ReservationLineRequest> lines,
+
+        // Optional hold duration, capped by app.stock.reservation.max-ttl-seconds
+        @Positive(message = "TTL must be positive")
+        Integer ttlSeconds
+) {
+}
@@ -0,0 +1,15 @@
+package com.orange.product_service.reservation.dto;
+
+import com.orange.product_service.reservation.entity.ReservationStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+public record StockReservationDto(
+        UUID reservationId, // null when the reservation was rejected
+        ReservationStatus status,
+        LocalDateTime expiresAt,
+        List<ReservationLineDto> lines
+) {
+}
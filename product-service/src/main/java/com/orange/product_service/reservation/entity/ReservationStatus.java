@@ -0,0 +1,8 @@
+package com.orange.product_service.reservation.entity;
+
+public enum ReservationStatus {
+    HELD,
+    COMMITTED,
+    RELEASED,
+    EXPIRED
+}
@@ -0,0 +1,41 @@
+package com.orange.product_service.reservation.repo;
+
+import com.orange.product_service.reservation.entity.ReservationStatus;
+import com.orange.product_service.reservation.entity.StockReservation;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface StockReservationRepository extends JpaRepository<StockReservation, Long> {
+
+    Optional<StockReservation> findByUuid(UUID uuid);
+
+    // Conditional status change, returns 0 when another caller already moved the reservation
+    @Modifying
+    @Transactional
+    @Query("UPDATE StockReservation r SET r.status = :to, r.updatedAt = CURRENT_TIMESTAMP " +
+            "WHERE r.uuid = :uuid AND r.status = :from")
+    int transition(@Param("uuid") UUID uuid, @Param("from") ReservationStatus from, @Param("to") ReservationStatus to);
+
+    // Commit only while the hold is still valid
+    @Modifying
+    @Transactional
+    @Query("UPDATE StockReservation r SET r.status = com.orange.product_service.reservation.entity.ReservationStatus.COMMITTED, " +
+            "r.updatedAt = CURRENT_TIMESTAMP WHERE r.uuid = :uuid " +
+            "AND r.status = com.orange.product_service.reservation.entity.ReservationStatus.HELD AND r.expiresAt > :now")
+    int commitHeld(@Param("uuid") UUID uuid, @Param("now") LocalDateTime now);
+
+    // Oldest expired holds first, served by idx_stock_reservations_status_expires
+    @Query("SELECT r.uuid FROM StockReservation r WHERE r.status = :status AND r.expiresAt <= :now ORDER BY r.expiresAt ASC")
+    List<UUID> findExpiredUuids(@Param("status") ReservationStatus status, @Param("now") LocalDateTime now, Limit limit);
+}
@@ -0,0 +1,254 @@
+package com.orange.product_service.reservation.service;
+
+import com.orange.product_service.dto.ApiResponse;
+import com.orange.product_service.product.dto.StockChangeStatus;
+import com.orange.product_service.product.service.StockLedger;
+import com.orange.product_service.reservation.dto.ReservationLineDto;
+import com.orange.product_service.reservation.dto.ReservationLineRequest;
+import com.orange.product_service.reservation.dto.ReserveStockRequest;
+import com.orange.product_service.reservation.dto.StockReservationDto;
+import com.orange.product_service.reservation.entity.ReservationLine;
+import com.orange.product_service.reservation.entity.ReservationStatus;
+import com.orange.product_service.reservation.entity.StockReservation;
+import com.orange.product_service.reservation.repo.StockReservationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.MessageSource;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Checkout stock holds. Reserving takes the stock off the product right away, committing
+ * keeps it taken and releasing or expiring puts it back. Expired holds are reclaimed in
+ * batches by a background sweep.
+ */
+@Service
+public class StockReservationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockReservationService.class);
+
+    private final StockReservationRepository reservationRepository;
+    private final StockLedger stockLedger;
+    private final MessageSource messageSource;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.stock.reservation.default-ttl-seconds:600}")
+    private int defaultTtlSeconds;
+
+    @Value("${app.stock.reservation.max-ttl-seconds:3600}")
+    private int maxTtlSeconds;
+
+    @Value("${app.stock.reservation.sweep-batch-size:200}")
+    private int sweepBatchSize;
+
+    public StockReservationService(StockReservationRepository reservationRepository, StockLedger stockLedger,
+                                   MessageSource messageSource, PlatformTransactionManager transactionManager) {
+        this.reservationRepository = reservationRepository;
+        this.stockLedger = stockLedger;
+        this.messageSource = messageSource;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // Reserve all lines atomically, nothing is held when any line cannot be reserved
+    public ApiResponse<StockReservationDto> reserve(ReserveStockRequest request, Locale locale) {
+        try {
+            // Merge lines per product, sorted so concurrent reservations lock rows in the same order
+            Map<UUID, Integer> quantities = new TreeMap<>();
+            for (ReservationLineRequest line : request.lines()) {
+                quantities.merge(line.productId(), line.quantity(), Integer::sum);
+            }
+            Map<UUID, Integer> deltas = new TreeMap<>();
+            quantities.forEach((productId, quantity) -> deltas.put(productId, -quantity));
+
+            int ttlSeconds = Math.min(request.ttlSeconds() != null ? request.ttlSeconds() : defaultTtlSeconds, maxTtlSeconds);
+
+            ReserveOutcome outcome = transactionTemplate.execute(status -> {
+                Map<UUID, StockChangeStatus> statuses = stockLedger.applyAll(deltas, status);
+                if (status.isRollbackOnly()) {
+                    return new ReserveOutcome(statuses, null);
+                }
+
+                StockReservation reservation = new StockReservation();
+                reservation.setStatus(ReservationStatus.HELD);
+                reservation.setExpiresAt(LocalDateTime.now().plusSeconds(ttlSeconds));
+                quantities.forEach((productId, quantity) ->
+                        reservation.getLines().add(new ReservationLine(productId, quantity)));
+                return new ReserveOutcome(statuses, reservationRepository.save(reservation));
+            });
+
+            List<ReservationLineDto> lines = quantities.entrySet().stream()
+                    .map(entry -> new ReservationLineDto(entry.getKey(), entry.getValue(), outcome.statuses().get(entry.getKey())))
+                    .toList();
+
+            if (outcome.reservation() == null) {
+                String msg = messageSource.getMessage("reservation.reserve.rejected", null, locale);
+                return new ApiResponse<>(false, msg, new StockReservationDto(null, null, null, lines));
+            }
+
+            stockLedger.stockChanged(quantities.keySet());
+
+            StockReservation reservation = outcome.reservation();
+            String msg = messageSource.getMessage("reservation.reserve.success", null, locale);
+            return ApiResponse.success(msg, new StockReservationDto(reservation.getUuid(), reservation.getStatus(),
+                    reservation.getExpiresAt(), lines));
+        } catch (Exception e) {
+            String msg = messageSource.getMessage("reservation.reserve.failure", null, locale);
+            return ApiResponse.failure(msg + ": " + e.getMessage());
+        }
+    }
+
+    // Make a held reservation permanent, the stock stays taken
+    public ApiResponse<StockReservationDto> commit(UUID reservationId, Locale locale) {
+        try {
+            if (reservationRepository.commitHeld(reservationId, LocalDateTime.now()) == 1) {
+                String msg = messageSource.getMessage("reservation.commit.success", null, locale);
+                return ApiResponse.success(msg, loadReservation(reservationId).orElse(null));
+            }
+
+            Optional<StockReservationDto> reservation = loadReservation(reservationId);
+            if (reservation.isEmpty()) {
+                String msg = messageSource.getMessage("reservation.not.found", null, locale);
+                return ApiResponse.failure(msg);
+            }
+            if (reservation.get().status() == ReservationStatus.HELD) {
+                // Past its expiry but not swept yet, give the stock back now
+                releaseHeld(reservationId, ReservationStatus.EXPIRED);
+                String msg = messageSource.getMessage("reservation.expired", null, locale);
+                return ApiResponse.failure(msg);
+            }
+            String msg = messageSource.getMessage("reservation.not.held", null, locale);
+            return ApiResponse.failure(msg + ": " + reservation.get().status());
+        } catch (Exception e) {
+            String msg = messageSource.getMessage("reservation.commit.failure", null, locale);
+            return ApiResponse.failure(msg + ": " + e.getMessage());
+        }
+    }
+
+    // Give the stock of a held reservation back
+    public ApiResponse<StockReservationDto> release(UUID reservationId, Locale locale) {
+        try {
+            if (!releaseHeld(reservationId, ReservationStatus.RELEASED)) {
+                Optional<StockReservationDto> reservation = loadReservation(reservationId);
+                String msg = reservation.isEmpty()
+                        ? messageSource.getMessage("reservation.not.found", null, locale)
+                        : messageSource.getMessage("reservation.not.held", null, locale) + ": " + reservation.get().status();
+                return ApiResponse.failure(msg);
+            }
+
+            String msg = messageSource.getMessage("reservation.release.success", null, locale);
+            return ApiResponse.success(msg, loadReservation(reservationId).orElse(null));
+        } catch (Exception e) {
+            String msg = messageSource.getMessage("reservation.release.failure", null, locale);
+            return ApiResponse.failure(msg + ": " + e.getMessage());
+        }
+    }
+
+    // Get reservation by ID
+    public ApiResponse<StockReservationDto> getReservation(UUID reservationId, Locale locale) {
+        try {
+            Optional<StockReservationDto> reservation = loadReservation(reservationId);
+            if (reservation.isEmpty()) {
+                String msg = messageSource.getMessage("reservation.not.found", null, locale);
+                return ApiResponse.failure(msg);
+            }
+
+            String msg = messageSource.getMessage("reservation.details.success", null, locale);
+            return ApiResponse.success(msg, reservation.get());
+        } catch (Exception e) {
+            String msg = messageSource.getMessage("reservation.details.failure", null, locale);
+            return ApiResponse.failure(msg + ": " + e.getMessage());
+        }
+    }
+
+    // Reclaim expired holds in batches, one transaction per batch
+    @Scheduled(fixedDelayString = "${app.stock.reservation.sweep-interval-ms:30000}")
+    public void sweepExpired() {
+        try {
+            int expiredCount = 0;
+            List<UUID> expired;
+            do {
+                expired = reservationRepository.findExpiredUuids(ReservationStatus.HELD, LocalDateTime.now(),
+                        Limit.of(sweepBatchSize));
+                if (expired.isEmpty()) {
+                    break;
+                }
+
+                List<UUID> batch = expired;
+                Set<UUID> changedProducts = transactionTemplate.execute(status -> {
+                    Set<UUID> productIds = new HashSet<>();
+                    for (UUID reservationId : batch) {
+                        // A concurrent commit or release wins, its reservation is skipped here
+                        if (reservationRepository.transition(reservationId, ReservationStatus.HELD, ReservationStatus.EXPIRED) == 1) {
+                            productIds.addAll(restoreLines(reservationId));
+                        }
+                    }
+                    return productIds;
+                });
+                stockLedger.stockChanged(changedProducts);
+                expiredCount += batch.size();
+            } while (expired.size() == sweepBatchSize);
+
+            if (expiredCount > 0) {
+                logger.info("Expired {} stock reservations", expiredCount);
+            }
+        } catch (Exception e) {
+            // Remaining holds are picked up by the next sweep
+            logger.error("Failed to sweep expired stock reservations - Error: {}", e.getMessage(), e);
+        }
+    }
+
+    // Move a held reservation to the given final status and put its stock back, false when it was not held
+    private boolean releaseHeld(UUID reservationId, ReservationStatus finalStatus) {
+        Set<UUID> changedProducts = transactionTemplate.execute(status -> {
+            if (reservationRepository.transition(reservationId, ReservationStatus.HELD, finalStatus) == 0) {
+                return null;
+            }
+            return restoreLines(reservationId);
+        });
+        if (changedProducts == null) {
+            return false;
+        }
+        stockLedger.stockChanged(changedProducts);
+        return true;
+    }
+
+    private Set<UUID> restoreLines(UUID reservationId) {
+        Set<UUID> productIds = new HashSet<>();
+        reservationRepository.findByUuid(reservationId).ifPresent(reservation -> {
+            for (ReservationLine line : reservation.getLines()) {
+                stockLedger.restore(line.getProductId(), line.getQuantity());
+                productIds.add(line.getProductId());
+            }
+        });
+        return productIds;
+    }
+
+    private Optional<StockReservationDto> loadReservation(UUID reservationId) {
+        return transactionTemplate.execute(status -> reservationRepository.findByUuid(reservationId)
+                .map(this::convertToDto));
+    }
+
+    private StockReservationDto convertToDto(StockReservation reservation) {
+        List<ReservationLineDto> lines = reservation.getLines().stream()
+                .map(line -> new ReservationLineDto(line.getProductId(), line.getQuantity(), null))
+                .toList();
+        return new StockReservationDto(reservation.getUuid(), reservation.getStatus(), reservation.getExpiresAt(), lines);
+    }
+
+    private record ReserveOutcome(Map<UUID, StockChangeStatus> statuses, StockReservation reservation) {
+    }
+}
@@ -1,8 +1,10 @@
 package com.orange.product_service.review.controller;
 
+import com.orange.product_service.common.ResponseCaching;
 import com.orange.product_service.dto.ApiResponse;
 import com.orange.product_service.review.dto.CreateReviewRequest;
 import com.orange.product_service.review.dto.DeleteReviewRequest;
+import com.orange.product_service.review.dto.ReviewCursorPageDto;
 import com.orange.product_service.review.dto.ReviewDto;
 import com.orange.product_service.review.dto.ReviewStatisticsDto;
 import com.orange.product_service.review.dto.UpdateReviewRequest;
@@ -31,10 +33,12 @@ public class ReviewController {
 
     private final ReviewService reviewService;
     private final JwtUtil jwt;
+    private final ResponseCaching responseCaching;
 
-    public ReviewController(ReviewService reviewService, JwtUtil jwt) {
+    public ReviewController(ReviewService reviewService, JwtUtil jwt, ResponseCaching responseCaching) {
         this.reviewService = reviewService;
         this.jwt = jwt;
+        this.responseCaching = responseCaching;
     }
 
     @PostMapping("/create")
@@ -92,7 +96,8 @@ public class ReviewController {
     }
 
     @GetMapping("/product/{productId}")
-    @Operation(summary = "Get product reviews", description = "Get all reviews for a specific product (Public endpoint)")
+    @Operation(summary = "Get product reviews", description = "Get all reviews for a specific product (Public endpoint)",
+            deprecated = true)
     public ResponseEntity<ApiResponse<List<ReviewDto>>> getReviewsByProduct(
             @PathVariable UUID productId,
             @RequestHeader(value = "Accept-Language", defaultValue = "en") String language) {
@@ -101,14 +106,15 @@ public class ReviewController {
         ApiResponse<List<ReviewDto>> response = reviewService.getReviewsByProduct(productId, locale);
 
         if (response.isSuccess()) {
-            return ResponseEntity.ok(response);
+            return responseCaching.ok("review-list-by-product", response);
         } else {
             return ResponseEntity.badRequest().body(response);
         }
     }
 
     @GetMapping("/user")
-    @Operation(summary = "Get user reviews", description = "Get all reviews by the current user (Authenticated users only)")
+    @Operation(summary = "Get user reviews", description = "Get all reviews by the current user (Authenticated users only)",
+            deprecated = true)
     public ResponseEntity<ApiResponse<List<ReviewDto>>> getReviewsByUser(
             @RequestHeader(value = "Accept-Language", defaultValue = "en") String language,
             HttpServletRequest httpRequest) {
@@ -118,7 +124,44 @@ public class ReviewController {
         ApiResponse<List<ReviewDto>> response = reviewService.getReviewsByUser(userId, locale);
 
         if (response.isSuccess()) {
-            return ResponseEntity.ok(response);
+            return responseCaching.ok("review-list-by-user", response);
+        } else {
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    @GetMapping("/product/{productId}/seek")
+    @Operation(summary = "Get product reviews by cursor", description = "Keyset paginated reviews of a product, newest first, pass nextCursor as 'after' to get the next page (Public endpoint)")
+    public ResponseEntity<ApiResponse<ReviewCursorPageDto>> getReviewsByProductAfter(
+            @PathVariable UUID productId,
+            @RequestHeader(value = "Accept-Language", defaultValue = "en") String language,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "10") int size) {
+
+        Locale locale = Locale.forLanguageTag(language);
+        ApiResponse<ReviewCursorPageDto> response = reviewService.getReviewsByProductAfter(productId, after, size, locale);
+
+        if (response.isSuccess()) {
+            return responseCaching.ok("review-seek-by-product", response);
+        } else {
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    @GetMapping("/user/seek")
+    @Operation(summary = "Get user reviews by cursor", description = "Keyset paginated reviews by the current user, newest first, pass nextCursor as 'after' to get the next page (Authenticated users only)")
+    public ResponseEntity<ApiResponse<ReviewCursorPageDto>> getReviewsByUserAfter(
+            @RequestHeader(value = "Accept-Language", defaultValue = "en") String language,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "10") int size,
+            HttpServletRequest httpRequest) {
+
+        Locale locale = Locale.forLanguageTag(language);
+        UUID userId = getCurrentUserId(httpRequest);
+        ApiResponse<ReviewCursorPageDto> response = reviewService.getReviewsByUserAfter(userId, after, size, locale);
+
+        if (response.isSuccess()) {
+            return responseCaching.ok("review-seek-by-user", response);
         } else {
             return ResponseEntity.badRequest().body(response);
         }
@@ -134,7 +177,7 @@ public class ReviewController {
         ApiResponse<ReviewDto> response = reviewService.getReviewById(reviewId, locale);
 
         if (response.isSuccess()) {
-            return ResponseEntity.ok(response);
+            return responseCaching.ok("review-details", response);
         } else {
             return ResponseEntity.badRequest().body(response);
         }
@@ -150,7 +193,7 @@ public class ReviewController {
         ApiResponse<ReviewStatisticsDto> response = reviewService.getReviewStatistics(productId, locale);
 
         if (response.isSuccess()) {
-            return ResponseEntity.ok(response);
+            return responseCaching.ok("review-statistics", response);
         } else {
             return ResponseEntity.badRequest().body(response);
         }
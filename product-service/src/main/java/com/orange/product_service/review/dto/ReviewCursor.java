@@ -0,0 +1,39 @@
+package com.orange.product_service.review.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Position of the last review on a keyset page, ordered newest first by (createdAt, id).
+ * Exposed to clients only as an opaque URL-safe token.
+ */
+public record ReviewCursor(LocalDateTime createdAt, Long id) {
+
+    private static final char SEPARATOR = '\n';
+
+    public static ReviewCursor of(ReviewRow row) {
+        return new ReviewCursor(row.createdAt(), row.id());
+    }
+
+    public String encode() {
+        String raw = id + String.valueOf(SEPARATOR) + createdAt;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ReviewCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new ReviewCursor(LocalDateTime.parse(raw.substring(separator + 1)),
+                    Long.parseLong(raw.substring(0, separator)));
+        } catch (IllegalArgumentException | DateTimeException e) {
+            // Covers bad Base64, a non numeric id and a malformed timestamp
+            throw new IllegalArgumentException("Invalid cursor: " + token);
+        }
+    }
+}
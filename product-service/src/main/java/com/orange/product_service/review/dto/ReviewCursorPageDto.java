@@ -0,0 +1,11 @@
+package com.orange.product_service.review.dto;
+
+import java.util.List;
+
+public record ReviewCursorPageDto(
+        List<ReviewDto> reviews,
+        int pageSize,
+        boolean hasNext,
+        String nextCursor
+) {
+}
@@ -0,0 +1,25 @@
+package com.orange.product_service.review.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Review listing row selected as a projection together with its product's uuid and name,
+ * so listings neither load review entities nor resolve their product one row at a time.
+ */
+public record ReviewRow(
+        Long id,
+        UUID uuid,
+        UUID userId,
+        UUID productId,
+        String productName,
+        BigDecimal rate,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt
+) {
+
+    public ReviewDto toDto() {
+        return new ReviewDto(uuid, userId, productId, productName, rate, createdAt, updatedAt);
+    }
+}
@@ -6,6 +6,7 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 import java.math.BigDecimal;
+import java.util.Map;
 import java.util.UUID;
 
 @Getter
@@ -18,4 +19,6 @@ public class ReviewStatisticsDto {
     private BigDecimal averageRating;
     private BigDecimal minRating;
     private BigDecimal maxRating;
+    // Review count per whole star, keys 1 to 5
+    private Map<Integer, Long> ratingDistribution;
 }
@@ -0,0 +1,169 @@
+package com.orange.product_service.review.service;
+
+import com.orange.product_service.product.entity.Product;
+import com.orange.product_service.product.repo.ProductRepository;
+import com.orange.product_service.review.dto.ReviewCursor;
+import com.orange.product_service.review.dto.ReviewCursorPageDto;
+import com.orange.product_service.review.dto.ReviewDto;
+import com.orange.product_service.review.dto.ReviewRow;
+import com.orange.product_service.review.dto.ReviewStatisticsDto;
+import com.orange.product_service.review.entity.Review;
+import com.orange.product_service.review.repo.ReviewRepository;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Cached review reads.
+ * Only the data DTOs are cached, ReviewService wraps them in the localized envelope per request.
+ */
+@Service
+public class ReviewQueryService {
+
+    // Largest keyset page, also keeps size + 1 from overflowing
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final ReviewRepository reviewRepository;
+    private final ProductRepository productRepository;
+
+    public ReviewQueryService(ReviewRepository reviewRepository, ProductRepository productRepository) {
+        this.reviewRepository = reviewRepository;
+        this.productRepository = productRepository;
+    }
+
+    // Get every review of a product, not cached since popular products have too many.
+    // Kept for existing clients, new ones page with getReviewsByProductAfter.
+    @Transactional(readOnly = true)
+    public List<ReviewDto> getReviewsByProduct(UUID productId) {
+        return reviewRepository.findRowsByProductFirst(productId, Limit.unlimited())
+                .stream()
+                .map(ReviewRow::toDto)
+                .toList();
+    }
+
+    // Get every review of a user, not cached, see getReviewsByProduct
+    @Transactional(readOnly = true)
+    public List<ReviewDto> getReviewsByUser(UUID userId) {
+        return reviewRepository.findRowsByUserFirst(userId, Limit.unlimited())
+                .stream()
+                .map(ReviewRow::toDto)
+                .toList();
+    }
+
+    // Get a keyset page of a product's reviews, newest first, cached per page
+    @Transactional(readOnly = true)
+    @Cacheable(value = "reviews", key = "@productCacheInvalidator.productReviewsPageKey(#productId, #after, #size)", sync = true)
+    public ReviewCursorPageDto getReviewsByProductAfter(UUID productId, String after, int size) {
+        requireValidSize(size);
+        Limit limit = Limit.of(size + 1); // one extra row tells whether a next page exists
+        List<ReviewRow> rows;
+        if (after == null || after.isBlank()) {
+            rows = reviewRepository.findRowsByProductFirst(productId, limit);
+        } else {
+            ReviewCursor cursor = ReviewCursor.decode(after);
+            rows = reviewRepository.findRowsByProductAfter(productId, cursor.createdAt(), cursor.id(), limit);
+        }
+        return toCursorPageDto(rows, size);
+    }
+
+    // Get a keyset page of a user's reviews, newest first, cached per page
+    @Transactional(readOnly = true)
+    @Cacheable(value = "reviews", key = "@productCacheInvalidator.userReviewsPageKey(#userId, #after, #size)", sync = true)
+    public ReviewCursorPageDto getReviewsByUserAfter(UUID userId, String after, int size) {
+        requireValidSize(size);
+        Limit limit = Limit.of(size + 1);
+        List<ReviewRow> rows;
+        if (after == null || after.isBlank()) {
+            rows = reviewRepository.findRowsByUserFirst(userId, limit);
+        } else {
+            ReviewCursor cursor = ReviewCursor.decode(after);
+            rows = reviewRepository.findRowsByUserAfter(userId, cursor.createdAt(), cursor.id(), limit);
+        }
+        return toCursorPageDto(rows, size);
+    }
+
+    // Get review by ID, throws when the review does not exist
+    @Transactional(readOnly = true)
+    @Cacheable(value = "reviews", key = "'review_' + #reviewId")
+    public ReviewDto getReviewById(UUID reviewId) {
+        Review review = reviewRepository.findByUuid(reviewId)
+                .orElseThrow(() -> new RuntimeException("Review not found with ID: " + reviewId));
+        return convertToDto(review);
+    }
+
+    // Get review statistics for a product, throws when the product does not exist.
+    // Count, average and distribution come from the product's rating aggregates.
+    @Transactional(readOnly = true)
+    @Cacheable(value = "reviewStatistics", key = "#productId")
+    public ReviewStatisticsDto getReviewStatistics(UUID productId) {
+        Product product = productRepository.findByUuid(productId)
+                .orElseThrow(() -> new RuntimeException("Product not found with ID: " + productId));
+
+        long reviewCount = product.getRatingCount() != null ? product.getRatingCount() : 0L;
+        Map<Integer, Long> distribution = new LinkedHashMap<>();
+        distribution.put(1, orZero(product.getRating1Count()));
+        distribution.put(2, orZero(product.getRating2Count()));
+        distribution.put(3, orZero(product.getRating3Count()));
+        distribution.put(4, orZero(product.getRating4Count()));
+        distribution.put(5, orZero(product.getRating5Count()));
+
+        if (reviewCount == 0) {
+            // Products with no reviews
+            return new ReviewStatisticsDto(productId, 0L, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, distribution);
+        }
+
+        BigDecimal averageRating = product.getRatingSum()
+                .divide(BigDecimal.valueOf(reviewCount), 2, RoundingMode.HALF_UP);
+        BigDecimal minRating = reviewRepository.findMinRateByProductUuid(productId);
+        BigDecimal maxRating = reviewRepository.findMaxRateByProductUuid(productId);
+
+        return new ReviewStatisticsDto(
+            productId,
+            reviewCount,
+            averageRating,
+            minRating != null ? minRating : BigDecimal.ZERO,
+            maxRating != null ? maxRating : BigDecimal.ZERO,
+            distribution
+        );
+    }
+
+    public ReviewDto convertToDto(Review review) {
+        ReviewDto dto = new ReviewDto();
+        dto.setUuid(review.getUuid());
+        dto.setUserId(review.getUserId());
+        dto.setProductId(review.getProduct().getUuid());
+        dto.setProductName(review.getProduct().getName());
+        dto.setRate(review.getRate());
+        dto.setCreatedAt(review.getCreatedAt());
+        dto.setUpdatedAt(review.getUpdatedAt());
+        return dto;
+    }
+
+    private static ReviewCursorPageDto toCursorPageDto(List<ReviewRow> rows, int size) {
+        boolean hasNext = rows.size() > size;
+        List<ReviewRow> pageContent = hasNext ? rows.subList(0, size) : rows;
+        List<ReviewDto> reviews = pageContent.stream()
+                .map(ReviewRow::toDto)
+                .toList();
+        String nextCursor = hasNext ? ReviewCursor.of(pageContent.get(pageContent.size() - 1)).encode() : null;
+        return new ReviewCursorPageDto(reviews, size, hasNext, nextCursor);
+    }
+
+    private static void requireValidSize(int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+    }
+
+    private static long orZero(Long value) {
+        return value != null ? value : 0L;
+    }
+}
@@ -3,15 +3,15 @@ package com.orange.product_service.review.service;
 import com.orange.product_service.dto.ApiResponse;
 import com.orange.product_service.product.entity.Product;
 import com.orange.product_service.product.repo.ProductRepository;
+import com.orange.product_service.product.service.ProductCacheInvalidator;
 import com.orange.product_service.review.dto.CreateReviewRequest;
 import com.orange.product_service.review.dto.DeleteReviewRequest;
+import com.orange.product_service.review.dto.ReviewCursorPageDto;
 import com.orange.product_service.review.dto.ReviewDto;
 import com.orange.product_service.review.dto.ReviewStatisticsDto;
 import com.orange.product_service.review.dto.UpdateReviewRequest;
 import com.orange.product_service.review.entity.Review;
 import com.orange.product_service.review.repo.ReviewRepository;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.context.MessageSource;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -19,7 +19,6 @@ import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Locale;
-import java.util.Optional;
 import java.util.UUID;
 
 @Service
@@ -28,18 +27,23 @@ public class ReviewService {
     private final ReviewRepository reviewRepository;
     private final ProductRepository productRepository;
     private final MessageSource messageSource;
+    private final ProductCacheInvalidator cacheInvalidator;
+    private final ReviewQueryService reviewQueryService;
 
     public ReviewService(ReviewRepository reviewRepository, 
                         ProductRepository productRepository, 
-                        MessageSource messageSource) {
+                        MessageSource messageSource,
+                        ProductCacheInvalidator cacheInvalidator,
+                        ReviewQueryService reviewQueryService) {
         this.reviewRepository = reviewRepository;
         this.productRepository = productRepository;
         this.messageSource = messageSource;
+        this.cacheInvalidator = cacheInvalidator;
+        this.reviewQueryService = reviewQueryService;
     }
 
     // Create review
     @Transactional
-    @CacheEvict(value = {"products", "productsByCategory", "productDetails", "reviews", "reviewStatistics"}, allEntries = true)
     public ApiResponse<ReviewDto> createReview(CreateReviewRequest request, UUID userId, Locale locale) {
         try {
             // Check if product exists
@@ -59,10 +63,11 @@ public class ReviewService {
             
             Review savedReview = reviewRepository.save(review);
             
-            // Update product average rating
-            updateProductAverageRating(request.productId());
+            // Update product rating aggregates
+            applyRatingDelta(request.productId(), null, request.rate());
+            cacheInvalidator.reviewChanged(request.productId(), userId, savedReview.getUuid());
             
-            ReviewDto reviewDto = convertToDto(savedReview);
+            ReviewDto reviewDto = reviewQueryService.convertToDto(savedReview);
             String msg = messageSource.getMessage("review.created.success", null, locale);
             return ApiResponse.success(msg, reviewDto);
         } catch (Exception e) {
@@ -73,7 +78,6 @@ public class ReviewService {
 
     // Update review
     @Transactional
-    @CacheEvict(value = {"products", "productsByCategory", "productDetails", "reviews", "reviewStatistics"}, allEntries = true)
     public ApiResponse<ReviewDto> updateReview(UpdateReviewRequest request, UUID userId, Locale locale) {
         try {
             Review review = reviewRepository.findByUserIdAndProductUuid(userId, request.productId())
@@ -85,13 +89,15 @@ public class ReviewService {
                 return ApiResponse.failure(msg);
             }
             
+            BigDecimal previousRate = review.getRate();
             review.setRate(request.rate());
             Review savedReview = reviewRepository.save(review);
             
-            // Update product average rating
-            updateProductAverageRating(review.getProduct().getUuid());
+            // Update product rating aggregates
+            applyRatingDelta(review.getProduct().getUuid(), previousRate, request.rate());
+            cacheInvalidator.reviewChanged(review.getProduct().getUuid(), userId, savedReview.getUuid());
             
-            ReviewDto reviewDto = convertToDto(savedReview);
+            ReviewDto reviewDto = reviewQueryService.convertToDto(savedReview);
             String msg = messageSource.getMessage("review.updated.success", null, locale);
             return ApiResponse.success(msg, reviewDto);
         } catch (Exception e) {
@@ -102,7 +108,6 @@ public class ReviewService {
 
     // Delete review
     @Transactional
-    @CacheEvict(value = {"products", "productsByCategory", "productDetails", "reviews", "reviewStatistics"}, allEntries = true)
     public ApiResponse<Void> deleteReview(DeleteReviewRequest request, UUID userId, Locale locale) {
         try {
             Review review = reviewRepository.findByUuid(request.reviewId())
@@ -115,10 +120,12 @@ public class ReviewService {
             }
             
             UUID productUuid = review.getProduct().getUuid();
+            BigDecimal removedRate = review.getRate();
             reviewRepository.delete(review);
             
-            // Update product average rating
-            updateProductAverageRating(productUuid);
+            // Update product rating aggregates
+            applyRatingDelta(productUuid, removedRate, null);
+            cacheInvalidator.reviewChanged(productUuid, userId, request.reviewId());
             
             String msg = messageSource.getMessage("review.deleted.success", null, locale);
             return ApiResponse.success(msg, null);
@@ -129,14 +136,9 @@ public class ReviewService {
     }
 
     // Get reviews by product
-    @Transactional(readOnly = true)
-    @Cacheable(value = "reviews", key = "'product_' + #productId")
     public ApiResponse<List<ReviewDto>> getReviewsByProduct(UUID productId, Locale locale) {
         try {
-            List<Review> reviews = reviewRepository.findByProductUuidOrderByCreatedAtDesc(productId);
-            List<ReviewDto> reviewDtos = reviews.stream()
-                    .map(this::convertToDto)
-                    .toList();
+            List<ReviewDto> reviewDtos = reviewQueryService.getReviewsByProduct(productId);
             
             String msg = messageSource.getMessage("review.list.success", null, locale);
             return ApiResponse.success(msg, reviewDtos);
@@ -147,14 +149,9 @@ public class ReviewService {
     }
 
     // Get reviews by user
-    @Transactional(readOnly = true)
-    @Cacheable(value = "reviews", key = "'user_' + #userId")
     public ApiResponse<List<ReviewDto>> getReviewsByUser(UUID userId, Locale locale) {
         try {
-            List<Review> reviews = reviewRepository.findByUserId(userId);
-            List<ReviewDto> reviewDtos = reviews.stream()
-                    .map(this::convertToDto)
-                    .toList();
+            List<ReviewDto> reviewDtos = reviewQueryService.getReviewsByUser(userId);
             
             String msg = messageSource.getMessage("review.user.list.success", null, locale);
             return ApiResponse.success(msg, reviewDtos);
@@ -164,20 +161,38 @@ public class ReviewService {
         }
     }
 
+    // Get a keyset page of reviews by product
+    public ApiResponse<ReviewCursorPageDto> getReviewsByProductAfter(UUID productId, String after, int size, Locale locale) {
+        try {
+            ReviewCursorPageDto pageDto = reviewQueryService.getReviewsByProductAfter(productId, after, size);
+
+            String msg = messageSource.getMessage("review.list.success", null, locale);
+            return ApiResponse.success(msg, pageDto);
+        } catch (Exception e) {
+            String msg = messageSource.getMessage("review.list.failure", null, locale);
+            return ApiResponse.failure(msg + ": " + e.getMessage());
+        }
+    }
+
+    // Get a keyset page of reviews by user
+    public ApiResponse<ReviewCursorPageDto> getReviewsByUserAfter(UUID userId, String after, int size, Locale locale) {
+        try {
+            ReviewCursorPageDto pageDto = reviewQueryService.getReviewsByUserAfter(userId, after, size);
+
+            String msg = messageSource.getMessage("review.user.list.success", null, locale);
+            return ApiResponse.success(msg, pageDto);
+        } catch (Exception e) {
+            String msg = messageSource.getMessage("review.user.list.failure", null, locale);
+            return ApiResponse.failure(msg + ": " + e.getMessage());
+        }
+    }
+
     // Get review by ID
-    @Transactional(readOnly = true)
-    @Cacheable(value = "reviews", key = "'review_' + #reviewId")
     public ApiResponse<ReviewDto> getReviewById(UUID reviewId, Locale locale) {
         try {
-            Review review = reviewRepository.findByUuid(reviewId)
-                    .orElseThrow(() -> new RuntimeException("Review not found with ID: " + reviewId));
-            
-            ReviewDto reviewDto = convertToDto(review);
+            ReviewDto reviewDto = reviewQueryService.getReviewById(reviewId);
             String msg = messageSource.getMessage("review.details.success", null, locale);
             return ApiResponse.success(msg, reviewDto);
-        } catch (RuntimeException e) {
-            String msg = messageSource.getMessage("review.details.failure", null, locale);
-            return ApiResponse.failure(msg + ": " + e.getMessage());
         } catch (Exception e) {
             String msg = messageSource.getMessage("review.details.failure", null, locale);
             return ApiResponse.failure(msg + ": " + e.getMessage());
@@ -185,107 +200,41 @@ public class ReviewService {
     }
 
     // Get review statistics for a product
-    @Transactional(readOnly = true)
-    @Cacheable(value = "reviewStatistics", key = "#productId")
     public ApiResponse<ReviewStatisticsDto> getReviewStatistics(UUID productId, Locale locale) {
         try {
-            // First check if the product exists
-            Product product = productRepository.findByUuid(productId)
-                    .orElseThrow(() -> new RuntimeException("Product not found with ID: " + productId));
-            
-            // Use safe method that always returns a result
-            Object[] stats = reviewRepository.getReviewStatisticsSafe(productId);
-            
-            // Debug logging
-            System.out.println("Debug - Product ID: " + productId);
-            System.out.println("Debug - Stats result: " + (stats != null ? java.util.Arrays.toString(stats) : "null"));
-            
-            // This should always return a result now, but let's keep the safety check
-            if (stats == null || stats.length < 4) {
-                // Fallback: Return statistics with zero values for products with no reviews
-                ReviewStatisticsDto statisticsDto = new ReviewStatisticsDto(
-                    productId,
-                    0L,  // No reviews
-                    BigDecimal.ZERO,  // No average rating
-                    BigDecimal.ZERO,  // No min rating
-                    BigDecimal.ZERO   // No max rating
-                );
-                
-                String msg = messageSource.getMessage("review.statistics.success", null, locale);
-                return ApiResponse.success(msg, statisticsDto);
-            }
-            
-            Long reviewCount = (Long) stats[0];
-            Double averageRating = (Double) stats[1];
-            BigDecimal minRating = (BigDecimal) stats[2];
-            BigDecimal maxRating = (BigDecimal) stats[3];
-            
-            // Handle null values properly
-            if (reviewCount == null) reviewCount = 0L;
-            if (averageRating == null) averageRating = 0.0;
-            if (minRating == null) minRating = BigDecimal.ZERO;
-            if (maxRating == null) maxRating = BigDecimal.ZERO;
-            
-            ReviewStatisticsDto statisticsDto = new ReviewStatisticsDto(
-                productId,
-                reviewCount,
-                BigDecimal.valueOf(averageRating).setScale(2, java.math.RoundingMode.HALF_UP),
-                minRating,
-                maxRating
-            );
-            
+            ReviewStatisticsDto statisticsDto = reviewQueryService.getReviewStatistics(productId);
             String msg = messageSource.getMessage("review.statistics.success", null, locale);
             return ApiResponse.success(msg, statisticsDto);
-            
         } catch (Exception e) {
             String msg = messageSource.getMessage("review.statistics.failure", null, locale);
             return ApiResponse.failure(msg + ": " + e.getMessage());
         }
     }
 
-    // Update product average rating with race condition prevention
-    @Transactional
-    private void updateProductAverageRating(UUID productUuid) {
-        try {
-            // Use pessimistic locking to prevent race conditions
-            Optional<Product> productOpt = reviewRepository.findProductByUuidWithLock(productUuid);
-            
-            if (productOpt.isPresent()) {
-                Product product = productOpt.get();
-                
-                // Calculate the new average rating with proper precision
-                Double averageRating = reviewRepository.calculateAverageRatingByProductUuid(productUuid);
-                
-                if (averageRating != null) {
-                    // Round to 2 decimal places for better precision
-                    BigDecimal roundedRating = BigDecimal.valueOf(averageRating)
-                            .setScale(2, java.math.RoundingMode.HALF_UP);
-                    product.setRate(roundedRating);
-                } else {
-                    product.setRate(BigDecimal.ZERO);
-                }
-                
-                productRepository.save(product);
-                
-                System.out.println("Updated product " + productUuid + " average rating to: " + product.getRate());
-            } else {
-                System.err.println("Product not found for UUID: " + productUuid);
-            }
-        } catch (Exception e) {
-            System.err.println("Failed to update product average rating for " + productUuid + ": " + e.getMessage());
-            e.printStackTrace();
+    // Apply a review write to the product rating aggregates with one delta UPDATE, no lock and no AVG scan.
+    // A null rate means no review was removed or added.
+    private void applyRatingDelta(UUID productUuid, BigDecimal removedRate, BigDecimal addedRate) {
+        BigDecimal sumDelta = BigDecimal.ZERO;
+        long countDelta = 0;
+        long[] starDeltas = new long[5];
+
+        if (removedRate != null) {
+            sumDelta = sumDelta.subtract(removedRate);
+            countDelta--;
+            starDeltas[starOf(removedRate) - 1]--;
         }
+        if (addedRate != null) {
+            sumDelta = sumDelta.add(addedRate);
+            countDelta++;
+            starDeltas[starOf(addedRate) - 1]++;
+        }
+
+        productRepository.applyRatingDelta(productUuid, sumDelta, countDelta,
+                starDeltas[0], starDeltas[1], starDeltas[2], starDeltas[3], starDeltas[4]);
     }
 
-    private ReviewDto convertToDto(Review review) {
-        ReviewDto dto = new ReviewDto();
-        dto.setUuid(review.getUuid());
-        dto.setUserId(review.getUserId());
-        dto.setProductId(review.getProduct().getUuid());
-        dto.setProductName(review.getProduct().getName());
-        dto.setRate(review.getRate());
-        dto.setCreatedAt(review.getCreatedAt());
-        dto.setUpdatedAt(review.getUpdatedAt());
-        return dto;
+    // Whole star a rate counts towards, rates are validated to 1.0 - 5.0
+    private static int starOf(BigDecimal rate) {
+        return Math.max(1, Math.min(5, rate.intValue()));
     }
 }
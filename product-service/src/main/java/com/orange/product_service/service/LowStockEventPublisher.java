@@ -7,6 +7,8 @@ import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 @Service
 public class LowStockEventPublisher {
 
@@ -37,4 +39,21 @@ public class LowStockEventPublisher {
                         event.productName(), e.getMessage(), e);
         }
     }
+
+    // Send a batch of events over one channel, returns false when the batch could not be sent
+    public boolean publishLowStockEvents(List<LowStockEvent> events) {
+        try {
+            rabbitTemplate.invoke(operations -> {
+                for (LowStockEvent event : events) {
+                    operations.convertAndSend(lowStockExchange, lowStockRoutingKey, event);
+                }
+                return null;
+            });
+            logger.info("Published {} low stock events", events.size());
+            return true;
+        } catch (Exception e) {
+            logger.error("Failed to publish {} low stock events - Error: {}", events.size(), e.getMessage(), e);
+            return false;
+        }
+    }
 }
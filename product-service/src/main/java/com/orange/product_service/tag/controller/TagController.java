@@ -1,5 +1,6 @@
 package com.orange.product_service.tag.controller;
 
+import com.orange.product_service.common.ResponseCaching;
 import com.orange.product_service.dto.ApiResponse;
 import com.orange.product_service.tag.dto.CreateTagRequest;
 import com.orange.product_service.tag.dto.TagDto;
@@ -24,9 +25,11 @@ import java.util.Locale;
 public class TagController {
     
     private final TagService tagService;
+    private final ResponseCaching responseCaching;
 
-    public TagController(TagService tagService) {
+    public TagController(TagService tagService, ResponseCaching responseCaching) {
         this.tagService = tagService;
+        this.responseCaching = responseCaching;
     }
 
     @PostMapping("/create")
@@ -56,7 +59,7 @@ public class TagController {
         ApiResponse<List<TagDto>> response = tagService.getAllTags(locale);
         
         if (response.isSuccess()) {
-            return ResponseEntity.ok(response);
+            return responseCaching.ok("tag-list", response);
         } else {
             return ResponseEntity.badRequest().body(response);
         }
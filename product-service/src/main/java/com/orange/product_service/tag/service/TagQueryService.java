@@ -0,0 +1,57 @@
+package com.orange.product_service.tag.service;
+
+import com.orange.product_service.tag.dto.TagDto;
+import com.orange.product_service.tag.entity.Tag;
+import com.orange.product_service.tag.repo.TagRepository;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Cached tag reads.
+ * Only the data DTOs are cached, TagService wraps them in the localized envelope per request.
+ * The list carries product names and prices, so ProductCacheInvalidator evicts it when a tag is
+ * created and when a product's tags, name, price or listing membership change.
+ */
+@Service
+public class TagQueryService {
+
+    private final TagRepository tagRepository;
+
+    public TagQueryService(TagRepository tagRepository) {
+        this.tagRepository = tagRepository;
+    }
+
+    // List tags
+    @Transactional(readOnly = true)
+    @Cacheable(value = "tags", key = "'all'", sync = true)
+    public List<TagDto> getAllTags() {
+        return tagRepository.findAll()
+                .stream()
+                .map(TagQueryService::convertToDto)
+                .toList();
+    }
+
+    static TagDto convertToDto(Tag tag) {
+        TagDto dto = new TagDto();
+        dto.setUuid(tag.getUuid());
+        dto.setName(tag.getName());
+        dto.setCreatedAt(tag.getCreatedAt());
+        dto.setUpdatedAt(tag.getUpdatedAt());
+
+        // Convert products if needed
+        if (tag.getProducts() != null && !tag.getProducts().isEmpty()) {
+            dto.setProducts(tag.getProducts().stream()
+                    .map(product -> new TagDto.ProductSummaryDto(
+                            product.getUuid(),
+                            product.getName(),
+                            product.getPrice().toString()
+                    ))
+                    .toList());
+        }
+
+        return dto;
+    }
+}
@@ -1,6 +1,7 @@
 package com.orange.product_service.tag.service;
 
 import com.orange.product_service.dto.ApiResponse;
+import com.orange.product_service.product.service.ProductCacheInvalidator;
 import com.orange.product_service.tag.dto.CreateTagRequest;
 import com.orange.product_service.tag.dto.TagDto;
 import com.orange.product_service.tag.entity.Tag;
@@ -17,10 +18,15 @@ import java.util.UUID;
 public class TagService {
     
     private final TagRepository tagRepository;
+    private final TagQueryService tagQueryService;
+    private final ProductCacheInvalidator cacheInvalidator;
     private final MessageSource messageSource;
 
-    public TagService(TagRepository tagRepository, MessageSource messageSource) {
+    public TagService(TagRepository tagRepository, TagQueryService tagQueryService,
+                      ProductCacheInvalidator cacheInvalidator, MessageSource messageSource) {
         this.tagRepository = tagRepository;
+        this.tagQueryService = tagQueryService;
+        this.cacheInvalidator = cacheInvalidator;
         this.messageSource = messageSource;
     }
 
@@ -37,7 +43,8 @@ public class TagService {
             tag.setName(request.name());
             
             Tag savedTag = tagRepository.save(tag);
-            TagDto tagDto = convertToDto(savedTag);
+            cacheInvalidator.tagsChanged();
+            TagDto tagDto = TagQueryService.convertToDto(savedTag);
             
             String msg = messageSource.getMessage("tag.create.success", null, locale);
             return ApiResponse.success(msg, tagDto);
@@ -50,10 +57,7 @@ public class TagService {
     // List tags
     public ApiResponse<List<TagDto>> getAllTags(Locale locale) {
         try {
-            List<Tag> tags = tagRepository.findAll();
-            List<TagDto> tagDtos = tags.stream()
-                    .map(this::convertToDto)
-                    .toList();
+            List<TagDto> tagDtos = tagQueryService.getAllTags();
 
             String msg = messageSource.getMessage("tag.list.success", null, locale);
             return ApiResponse.success(msg, tagDtos);
@@ -63,27 +67,6 @@ public class TagService {
         }
     }
 
-    private TagDto convertToDto(Tag tag) {
-        TagDto dto = new TagDto();
-        dto.setUuid(tag.getUuid());
-        dto.setName(tag.getName());
-        dto.setCreatedAt(tag.getCreatedAt());
-        dto.setUpdatedAt(tag.getUpdatedAt());
-        
-        // Convert products if needed
-        if (tag.getProducts() != null && !tag.getProducts().isEmpty()) {
-            dto.setProducts(tag.getProducts().stream()
-                    .map(product -> new TagDto.ProductSummaryDto(
-                            product.getUuid(),
-                            product.getName(),
-                            product.getPrice().toString()
-                    ))
-                    .toList());
-        }
-        
-        return dto;
-    }
-
     public Tag findTagByUuid(UUID id) {
         return tagRepository.findByUuid(id).orElseThrow();
     }
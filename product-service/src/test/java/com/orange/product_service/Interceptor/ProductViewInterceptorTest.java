@@ -0,0 +1,89 @@
+package com.orange.product_service.Interceptor;
+
+import com.orange.product_service.product.service.ProductViewCounter;
+import com.orange.product_service.product.trending.TrendingTracker;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Only successful product reads count as views, for the view counter and the trending ranking alike.
+ */
+class ProductViewInterceptorTest {
+
+    private final ProductViewCounter productViewCounter = mock(ProductViewCounter.class);
+    private final TrendingTracker trendingTracker = mock(TrendingTracker.class);
+    private final ProductViewInterceptor interceptor = new ProductViewInterceptor(productViewCounter, trendingTracker);
+    private final UUID productId = UUID.randomUUID();
+
+    @Test
+    void successfulReadCountsAView() throws Exception {
+        complete("GET", productId.toString(), 200, null);
+
+        verify(productViewCounter).increment(productId);
+        verify(trendingTracker).recordView(productId);
+    }
+
+    @Test
+    void failedLookupIsNotAView() throws Exception {
+        complete("GET", productId.toString(), 400, null);
+
+        verifyNoView();
+    }
+
+    @Test
+    void revalidationIsNotAView() throws Exception {
+        complete("GET", productId.toString(), 304, null);
+
+        verifyNoView();
+    }
+
+    @Test
+    void handlerExceptionIsNotAView() throws Exception {
+        complete("GET", productId.toString(), 200, new IllegalStateException("boom"));
+
+        verifyNoView();
+    }
+
+    @Test
+    void invalidIdOrOtherMethodIsNotAView() throws Exception {
+        complete("GET", "not-a-uuid", 200, null);
+        complete("HEAD", productId.toString(), 200, null);
+
+        verifyNoView();
+    }
+
+    private void complete(String method, String pathId, int status, Exception ex) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, "/api/products/" + pathId);
+        request.setAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE, Map.of("productId", pathId));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        HandlerMethod handler = new HandlerMethod(new Details(), Details.class.getMethod("get", String.class));
+
+        interceptor.preHandle(request, response, handler);
+        response.setStatus(status);
+        interceptor.afterCompletion(request, response, handler, ex);
+    }
+
+    private void verifyNoView() {
+        verify(productViewCounter, never()).increment(any());
+        verify(trendingTracker, never()).recordView(any());
+    }
+
+    static class Details {
+
+        @TrackProductView
+        public String get(String productId) {
+            return productId;
+        }
+    }
+}
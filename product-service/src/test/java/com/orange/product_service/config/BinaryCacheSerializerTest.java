@@ -0,0 +1,127 @@
+package com.orange.product_service.config;
+
+import com.orange.product_service.dto.ApiResponse;
+import com.orange.product_service.product.dto.ProductDto;
+import com.orange.product_service.product.dto.ProductPageDto;
+import com.orange.product_service.product.dto.ProductVariant;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The binary codec against the default-typed JSON serializer it replaces, on cached listing pages
+ * (ApiResponse of a ProductPageDto) of realistic products (tags, reviews, variants). Sizes are asserted in every
+ * build; the benchmark run (mvn test -Pbenchmark) reports them along with ser/deser times.
+ */
+class BinaryCacheSerializerTest {
+
+    private static final int COMPRESSION_THRESHOLD = 1024;
+    private static final int WARMUP_ROUNDS = 500;
+    private static final int MEASURED_ROUNDS = 1_000;
+
+    private final RedisSerializer<Object> json = CacheConfig.createJacksonSerializer();
+    private final BinaryCacheSerializer binary = new BinaryCacheSerializer(json, 0);
+    private final BinaryCacheSerializer compressed = new BinaryCacheSerializer(json, COMPRESSION_THRESHOLD);
+
+    @ParameterizedTest
+    @ValueSource(ints = {20, 50, 100})
+    void pagesRoundTrip(int pageSize) {
+        ApiResponse<ProductPageDto> page = page(pageSize);
+
+        assertThat(binary.deserialize(binary.serialize(page))).usingRecursiveComparison().isEqualTo(page);
+        assertThat(compressed.deserialize(compressed.serialize(page))).usingRecursiveComparison().isEqualTo(page);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {20, 50, 100})
+    void pagesAreSmallerThanJson(int pageSize) {
+        ApiResponse<ProductPageDto> page = page(pageSize);
+        int jsonBytes = json.serialize(page).length;
+        int binaryBytes = binary.serialize(page).length;
+        int compressedBytes = compressed.serialize(page).length;
+
+        assertThat(binaryBytes).isLessThan(jsonBytes / 2);
+        assertThat(compressedBytes).isLessThan(binaryBytes);
+    }
+
+    @Tag("benchmark")
+    @ParameterizedTest
+    @ValueSource(ints = {20, 50, 100})
+    void serializationSpeed(int pageSize) {
+        ApiResponse<ProductPageDto> page = page(pageSize);
+        int jsonBytes = json.serialize(page).length;
+        for (RedisSerializer<Object> codec : List.of(json, binary, compressed)) {
+            byte[] stored = codec.serialize(page);
+            long sink = 0;
+            for (int i = 0; i < WARMUP_ROUNDS; i++) {
+                sink += codec.serialize(page).length + (codec.deserialize(stored) != null ? 1 : 0);
+            }
+
+            long started = System.nanoTime();
+            for (int i = 0; i < MEASURED_ROUNDS; i++) {
+                sink += codec.serialize(page).length;
+            }
+            long serializeNanos = (System.nanoTime() - started) / MEASURED_ROUNDS;
+            started = System.nanoTime();
+            for (int i = 0; i < MEASURED_ROUNDS; i++) {
+                sink += codec.deserialize(stored) != null ? 1 : 0;
+            }
+            long deserializeNanos = (System.nanoTime() - started) / MEASURED_ROUNDS;
+
+            System.out.printf("Page of %d, %s: %d B (%.0f%% of json), serialize %d us, deserialize %d us%n",
+                    pageSize, name(codec), stored.length, 100.0 * stored.length / jsonBytes,
+                    serializeNanos / 1_000, deserializeNanos / 1_000);
+            assertThat(sink).isPositive();
+        }
+    }
+
+    private String name(RedisSerializer<Object> codec) {
+        return codec == json ? "json" : codec == binary ? "binary" : "binary+deflate";
+    }
+
+    // Products shaped like the catalog's: a category, 3 tags, 5 reviews, 2 variants
+    private static ApiResponse<ProductPageDto> page(int size) {
+        Random random = new Random(size);
+        LocalDateTime now = LocalDateTime.of(2024, 5, 1, 12, 0, 0);
+        ProductDto.CategorySummaryDto category = new ProductDto.CategorySummaryDto(UUID.randomUUID(), "Home & Kitchen");
+        List<ProductDto> products = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            List<ProductDto.TagSummaryDto> tags = new ArrayList<>();
+            for (int t = 0; t < 3; t++) {
+                tags.add(new ProductDto.TagSummaryDto(UUID.randomUUID(), "tag-" + random.nextInt(200)));
+            }
+            List<ProductDto.ReviewSummaryDto> reviews = new ArrayList<>();
+            for (int r = 0; r < 5; r++) {
+                reviews.add(new ProductDto.ReviewSummaryDto(UUID.randomUUID(), UUID.randomUUID(),
+                        BigDecimal.valueOf(1 + random.nextInt(5))));
+            }
+            List<ProductVariant> variants = new ArrayList<>();
+            for (int v = 0; v < 2; v++) {
+                Map<String, String> attributes = new LinkedHashMap<>();
+                attributes.put("color", v == 0 ? "red" : "blue");
+                attributes.put("size", "M");
+                variants.add(new ProductVariant(UUID.randomUUID().toString(), "Variant " + v, attributes,
+                        BigDecimal.valueOf(1_000 + random.nextInt(100_000), 2), random.nextInt(500),
+                        "SKU-" + i + "-" + v, "https://cdn.example.com/variants/" + i + "-" + v + ".jpg", true));
+            }
+            products.add(new ProductDto(UUID.randomUUID(), "Stainless steel kettle model " + i, category,
+                    BigDecimal.valueOf(1_000 + random.nextInt(100_000), 2), "https://cdn.example.com/products/" + i + ".jpg",
+                    random.nextInt(1_000), 10, false, (long) random.nextInt(100_000),
+                    BigDecimal.valueOf(random.nextInt(50), 1), now.minusDays(i), now, tags, reviews, variants));
+        }
+        return ApiResponse.success("Products retrieved successfully",
+                new ProductPageDto(products, 0, 50, 5_000, size, true, false, true, false));
+    }
+}
@@ -0,0 +1,93 @@
+package com.orange.product_service.config;
+
+import com.orange.product_service.common.ResponseCaching;
+import com.orange.product_service.dto.ApiResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.util.ByteUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Cache entries carry a tag of their stored bytes, the same on every instance, and only cached
+ * response data gets an ETag.
+ */
+class TwoLevelCacheEntryTagTest {
+
+    private final RedisCacheConfiguration configuration = RedisCacheConfiguration.defaultCacheConfig()
+            .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(RedisSerializer.json()));
+    private final StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+    private TwoLevelCacheManager cacheManager;
+
+    @BeforeEach
+    void createCacheManager() {
+        cacheManager = newInstance();
+    }
+
+    @Test
+    void entryReadOnAnotherInstanceHasTheSameTag() {
+        List<String> written = new ArrayList<>(List.of("a", "b"));
+        cacheManager.getCache("products").put("page", written);
+        String tag = cacheManager.entryTag(written);
+
+        byte[] stored = ByteUtils.getBytes(configuration.getValueSerializationPair().write(written));
+        when(redisTemplate.executePipelined(any(RedisCallback.class), any(RedisSerializer.class)))
+                .thenReturn(List.of(stored, 60_000L));
+        TwoLevelCacheManager otherInstance = newInstance();
+        Object read = otherInstance.getCache("products").get("page", () -> List.of("loaded"));
+
+        assertThat(read).isEqualTo(written).isNotSameAs(written);
+        assertThat(tag).isNotNull().isEqualTo(otherInstance.entryTag(read));
+    }
+
+    @Test
+    void replacedEntryGetsANewTag() {
+        Cache cache = cacheManager.getCache("products");
+        List<String> first = new ArrayList<>(List.of("a"));
+        List<String> second = new ArrayList<>(List.of("a", "b"));
+        cache.put("page", first);
+        cache.put("page", second);
+
+        assertThat(cacheManager.entryTag(second)).isNotNull().isNotEqualTo(cacheManager.entryTag(first));
+    }
+
+    @Test
+    void onlyCachedDataGetsAnETag() {
+        ResponseCaching responseCaching = new ResponseCaching(cacheManager, new HttpCachingProperties());
+        List<String> cached = new ArrayList<>(List.of("a"));
+        cacheManager.getCache("products").put("page", cached);
+
+        String etag = responseCaching.ok("product-list", ApiResponse.success("ok", cached)).getHeaders().getETag();
+        String freshEtag = responseCaching.ok("product-search", ApiResponse.success("ok", new ArrayList<>(cached)))
+                .getHeaders().getETag();
+        String otherLanguage = responseCaching.ok("product-list", ApiResponse.success("تم", cached)).getHeaders().getETag();
+
+        assertThat(etag).startsWith("\"" + cacheManager.entryTag(cached) + ".");
+        assertThat(freshEtag).isNull();
+        assertThat(otherLanguage).isNotEqualTo(etag);
+    }
+
+    private TwoLevelCacheManager newInstance() {
+        RedisCache redisCache = mock(RedisCache.class);
+        when(redisCache.getCacheConfiguration()).thenReturn(configuration);
+        CacheManager redisCacheManager = mock(CacheManager.class);
+        when(redisCacheManager.getCache("products")).thenReturn(redisCache);
+        return new TwoLevelCacheManager(redisCacheManager, new TwoLevelCacheProperties(), redisTemplate,
+                new SimpleMeterRegistry(), 0);
+    }
+}
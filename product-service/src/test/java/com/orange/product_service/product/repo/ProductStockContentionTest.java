@@ -0,0 +1,204 @@
+package com.orange.product_service.product.repo;
+
+import com.orange.product_service.category.entity.Category;
+import com.orange.product_service.category.repo.CategoryRepository;
+import com.orange.product_service.product.entity.Product;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Many threads decrementing the stock of one hot product, alone and mixed with saves of stale
+ * product copies (admin edits, tag changes), which must not write stock back.
+ * The benchmark run (mvn test -Pbenchmark) prints the decrement throughput; on H2 it only shows
+ * relative cost, not MySQL numbers.
+ */
+@DataJpaTest(showSql = false)
+@ActiveProfiles("test")
+@TestPropertySource(locations = "classpath:jpa-test.properties")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ProductStockContentionTest {
+
+    private static final int THREADS = 32;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private Category category;
+
+    @BeforeEach
+    void createCategory() {
+        category = new Category();
+        category.setName("Hot");
+        category = categoryRepository.save(category);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+    }
+
+    @Test
+    void hotProductNeverOversells() throws Exception {
+        UUID productId = createProduct(500);
+        int attempts = 4_000;
+        AtomicInteger applied = new AtomicInteger();
+
+        runConcurrently(THREADS, attempts / THREADS, () -> {
+            if (productRepository.applyStockDelta(productId, -1) == 1) {
+                applied.incrementAndGet();
+            }
+        });
+
+        assertThat(applied.get()).isEqualTo(500);
+        assertThat(productRepository.findActiveStockByUuid(productId)).contains(0);
+    }
+
+    @Tag("benchmark")
+    @Test
+    void hotProductDecrementThroughput() throws Exception {
+        int attempts = 20_000;
+        UUID productId = createProduct(attempts / 2);
+        AtomicInteger applied = new AtomicInteger();
+
+        long started = System.nanoTime();
+        runConcurrently(THREADS, attempts / THREADS, () -> {
+            if (productRepository.applyStockDelta(productId, -1) == 1) {
+                applied.incrementAndGet();
+            }
+        });
+        long elapsedNanos = System.nanoTime() - started;
+
+        System.out.printf("Stock contention: %d threads, %d conditional decrements in %d ms (%.0f/s), %d applied%n",
+                THREADS, attempts, elapsedNanos / 1_000_000, attempts / (elapsedNanos / 1e9), applied.get());
+        assertThat(applied.get()).isEqualTo(attempts / 2);
+    }
+
+    @Test
+    void staleSavesDoNotOverwriteConcurrentDecrements() throws Exception {
+        int initialStock = 100_000;
+        UUID productId = createProduct(initialStock);
+        AtomicInteger applied = new AtomicInteger();
+        AtomicInteger saves = new AtomicInteger();
+
+        List<Runnable> workers = new ArrayList<>();
+        for (int i = 0; i < THREADS - 4; i++) {
+            workers.add(repeat(100, () -> {
+                if (productRepository.applyStockDelta(productId, -1) == 1) {
+                    applied.incrementAndGet();
+                }
+            }));
+        }
+        for (int i = 0; i < 4; i++) {
+            // Load a copy, let decrements land, save it back like updateProduct or the tag endpoints do
+            workers.add(repeat(50, () -> {
+                Product stale = productRepository.findByUuid(productId).orElseThrow();
+                Thread.yield();
+                stale.setName("Renamed " + saves.incrementAndGet());
+                productRepository.save(stale);
+            }));
+        }
+        runAll(workers);
+
+        assertThat(productRepository.findActiveStockByUuid(productId)).contains(initialStock - applied.get());
+    }
+
+    @Test
+    void staleSaveKeepsStatementWrittenColumns() {
+        UUID productId = createProduct(10);
+        Product stale = productRepository.findByUuid(productId).orElseThrow();
+
+        productRepository.applyStockDelta(productId, -3);
+        productRepository.addViewCount(List.of(productId), 5);
+        productRepository.setDeleted(productId, true, LocalDateTime.now());
+
+        stale.setName("Edited");
+        productRepository.save(stale);
+
+        Product stored = productRepository.findByUuid(productId).orElseThrow();
+        assertThat(stored.getName()).isEqualTo("Edited");
+        assertThat(stored.getStock()).isEqualTo(7);
+        assertThat(stored.getViewCount()).isEqualTo(5);
+        assertThat(stored.getIsDeleted()).isTrue();
+    }
+
+    @Test
+    void adminStockLevelIsWrittenByItsOwnStatement() {
+        UUID productId = createProduct(10);
+
+        assertThat(productRepository.setStockLevel(productId, 42, LocalDateTime.now())).isEqualTo(1);
+
+        assertThat(productRepository.findActiveStockByUuid(productId)).contains(42);
+    }
+
+    private UUID createProduct(int stock) {
+        Product product = new Product();
+        product.setName("Hot product");
+        product.setPrice(BigDecimal.TEN);
+        product.setStock(stock);
+        product.setCategory(category);
+        return productRepository.save(product).getUuid();
+    }
+
+    private static Runnable repeat(int times, Runnable action) {
+        return () -> {
+            for (int i = 0; i < times; i++) {
+                action.run();
+            }
+        };
+    }
+
+    private static void runConcurrently(int threads, int timesEach, Runnable action) throws Exception {
+        List<Runnable> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            workers.add(repeat(timesEach, action));
+        }
+        runAll(workers);
+    }
+
+    // Starts every worker at once and rethrows the first failure
+    private static void runAll(List<Runnable> workers) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(workers.size());
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (Runnable worker : workers) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    worker.run();
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
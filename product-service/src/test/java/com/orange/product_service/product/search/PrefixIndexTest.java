@@ -0,0 +1,113 @@
+package com.orange.product_service.product.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Edge splits and merges of the typeahead trie, and the per-node caches it keeps up to date.
+ */
+class PrefixIndexTest {
+
+    private final UUID apple = UUID.randomUUID();
+    private final UUID apply = UUID.randomUUID();
+    private final UUID app = UUID.randomUUID();
+
+    @Test
+    void insertsSplitEdgesWhereKeysDiverge() {
+        PrefixIndex index = new PrefixIndex(10);
+        index.put(apple, "apple", 3);
+        // Splits "apple" into "appl" + "e"
+        index.put(apply, "apply", 2);
+        // Splits "appl" into "app" + "l", ending on the new pass-through node
+        index.put(app, "app", 1);
+
+        assertThat(ids(index.top("app", 10))).containsExactly(apple, apply, app);
+        assertThat(ids(index.top("appl", 10))).containsExactly(apple, apply);
+        assertThat(ids(index.top("apply", 10))).containsExactly(apply);
+        assertThat(ids(index.top("ap", 10))).containsExactly(apple, apply, app);
+        assertThat(index.top("apx", 10)).isEmpty();
+        assertThat(index.top("apples", 10)).isEmpty();
+    }
+
+    @Test
+    void removalMergesAPassThroughNodeBackIntoOneEdge() {
+        PrefixIndex index = new PrefixIndex(10);
+        UUID car = UUID.randomUUID();
+        UUID cart = UUID.randomUUID();
+        index.put(car, "car", 2);
+        index.put(cart, "cart", 1);
+
+        // "car" is left with a single child "t" and merges into "cart"
+        index.remove(car);
+
+        assertThat(ids(index.top("ca", 10))).containsExactly(cart);
+        assertThat(ids(index.top("car", 10))).containsExactly(cart);
+        assertThat(ids(index.top("cart", 10))).containsExactly(cart);
+        assertThat(index.top("carx", 10)).isEmpty();
+
+        // The merged edge splits again on the next insert
+        UUID carbon = UUID.randomUUID();
+        index.put(carbon, "carbon", 5);
+        assertThat(ids(index.top("car", 10))).containsExactly(carbon, cart);
+        assertThat(ids(index.top("cart", 10))).containsExactly(cart);
+    }
+
+    @Test
+    void removingTheBestBringsBackTheNextOne() {
+        PrefixIndex index = new PrefixIndex(2);
+        UUID best = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID third = UUID.randomUUID();
+        index.put(best, "lamp desk", 3);
+        index.put(second, "lamp floor", 2);
+        index.put(third, "lamp wall", 1);
+        assertThat(ids(index.top("lamp", 10))).containsExactly(best, second);
+
+        index.remove(best);
+
+        assertThat(ids(index.top("lamp", 10))).containsExactly(second, third);
+        assertThat(ids(index.top("l", 10))).containsExactly(second, third);
+        assertThat(index.top("lamp d", 10)).isEmpty();
+    }
+
+    @Test
+    void matchesTheStartOfEveryWord() {
+        PrefixIndex index = new PrefixIndex(10);
+        UUID phone = UUID.randomUUID();
+        index.put(phone, "Apple iPhone 15", 1);
+
+        assertThat(ids(index.top("iph", 10))).containsExactly(phone);
+        assertThat(ids(index.top("IPHONE  15", 10))).containsExactly(phone);
+        assertThat(ids(index.top("15", 10))).containsExactly(phone);
+        assertThat(ids(index.top("apple i", 10))).containsExactly(phone);
+        assertThat(index.top("phone", 10)).isEmpty();
+        assertThat(index.top("  ", 10)).isEmpty();
+    }
+
+    @Test
+    void cachedListsHoldEachItemOnce() {
+        PrefixIndex index = new PrefixIndex(10);
+        UUID repeated = UUID.randomUUID();
+        UUID other = UUID.randomUUID();
+        // Indexed under "steel steel kettle", "steel kettle" and "kettle"
+        index.put(repeated, "Steel steel kettle", 1);
+        index.put(other, "Steel mug", 2);
+
+        assertThat(ids(index.top("steel", 10))).containsExactly(other, repeated);
+        assertThat(ids(index.top("s", 10))).containsExactly(other, repeated);
+
+        // Re-putting replaces the old entries with the new weight
+        index.put(repeated, "Steel steel kettle", 5);
+        List<PrefixIndex.Entry> top = index.top("s", 10);
+        assertThat(ids(top)).containsExactly(repeated, other);
+        assertThat(top.get(0).weight()).isEqualTo(5);
+    }
+
+    private static List<UUID> ids(List<PrefixIndex.Entry> entries) {
+        return entries.stream().map(PrefixIndex.Entry::id).toList();
+    }
+}
@@ -0,0 +1,192 @@
+package com.orange.product_service.product.search;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Ranking, filters and incremental updates of the search index, and a benchmark over a synthetic
+ * catalog of app-sized documents (mvn test -Pbenchmark, 1M products unless -Dbenchmark.products is set).
+ */
+class ProductSearchIndexTest {
+
+    private static final BigDecimal[] PRICE_BOUNDS = {
+            new BigDecimal("25"), new BigDecimal("50"), new BigDecimal("100"), new BigDecimal("250"),
+            new BigDecimal("500"), new BigDecimal("1000")};
+    private static final SearchFilter NO_FILTER = new SearchFilter(null, null, null, null, false);
+
+    private static final String[] ADJECTIVES = {"classic", "compact", "deluxe", "ergonomic", "portable", "premium",
+            "rugged", "slim", "smart", "vintage", "wireless", "heavy", "light", "quiet", "fast", "eco"};
+    private static final String[] MATERIALS = {"steel", "bamboo", "leather", "ceramic", "glass", "cotton", "wool",
+            "aluminium", "oak", "silicone", "carbon", "linen"};
+    private static final String[] NOUNS = {"kettle", "lamp", "chair", "backpack", "speaker", "mug", "desk",
+            "blender", "jacket", "watch", "router", "pillow", "headphones", "bottle", "keyboard", "tent",
+            "toaster", "mirror", "drill", "scarf"};
+
+    private final UUID kitchen = UUID.randomUUID();
+    private final UUID outdoor = UUID.randomUUID();
+    private final UUID sale = UUID.randomUUID();
+
+    @Test
+    void nameMatchesRankAboveTagAndCategoryMatches() {
+        ProductSearchIndex index = new ProductSearchIndex(PRICE_BOUNDS);
+        ProductDocument inName = document("Steel kettle", kitchen, "Kitchen", "10", 5, List.of());
+        ProductDocument inTag = document("Water boiler", kitchen, "Kitchen", "10", 5, List.of("kettle"));
+        ProductDocument inCategory = document("Boiler", outdoor, "Kettle and camping", "10", 5, List.of());
+        ProductDocument unrelated = document("Camping chair", outdoor, "Outdoor", "10", 5, List.of());
+        index.apply(List.of(inCategory, unrelated, inTag, inName), List.of());
+
+        SearchHits hits = index.search("KETTLE", NO_FILTER, 0, 10);
+
+        assertThat(hits.total()).isEqualTo(3);
+        assertThat(hits.documents()).containsExactly(inName, inTag, inCategory);
+    }
+
+    @Test
+    void filtersAndPagingApplyToAllMatches() {
+        ProductSearchIndex index = new ProductSearchIndex(PRICE_BOUNDS);
+        List<ProductDocument> lamps = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            lamps.add(document("Desk lamp " + i, i % 2 == 0 ? kitchen : outdoor, "Home", String.valueOf(10 + i),
+                    i % 3 == 0 ? 0 : 4, i % 5 == 0 ? List.of("sale") : List.of()));
+        }
+        index.apply(lamps, List.of());
+
+        SearchHits inStockKitchen = index.search("lamp", new SearchFilter(kitchen, null, null, null, true), 0, 100);
+        assertThat(inStockKitchen.documents())
+                .allMatch(document -> document.categoryId().equals(kitchen) && document.stock() > 0);
+        assertThat(inStockKitchen.total()).isEqualTo(inStockKitchen.documents().size()).isEqualTo(10);
+
+        SearchHits priced = index.search("lamp", new SearchFilter(null, null, new BigDecimal("20"), new BigDecimal("29"), false), 0, 100);
+        assertThat(priced.total()).isEqualTo(10);
+
+        SearchHits tagged = index.search("lamp", new SearchFilter(null, sale, null, null, false), 0, 100);
+        assertThat(tagged.total()).isEqualTo(6);
+
+        List<ProductDocument> firstPages = new ArrayList<>(index.search("lamp", NO_FILTER, 0, 10).documents());
+        firstPages.addAll(index.search("lamp", NO_FILTER, 10, 10).documents());
+        assertThat(firstPages).doesNotHaveDuplicates()
+                .containsExactlyElementsOf(index.search("lamp", NO_FILTER, 0, 20).documents());
+    }
+
+    @Test
+    void replacedAndRemovedDocumentsLeaveTheIndex() {
+        ProductSearchIndex index = new ProductSearchIndex(PRICE_BOUNDS);
+        ProductDocument mug = document("Ceramic mug", kitchen, "Kitchen", "8", 3, List.of("gift"));
+        ProductDocument bottle = document("Glass bottle", kitchen, "Kitchen", "12", 3, List.of("gift"));
+        index.apply(List.of(mug, bottle), List.of());
+
+        ProductDocument renamed = new ProductDocument(mug.uuid(), "Porcelain cup", mug.image(), mug.price(), mug.stock(),
+                mug.rate(), mug.viewCount(), mug.categoryId(), mug.categoryName(), List.of(), List.of());
+        index.apply(List.of(renamed), List.of(bottle.uuid()));
+
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.search("mug", NO_FILTER, 0, 10).total()).isZero();
+        assertThat(index.search("gift", NO_FILTER, 0, 10).total()).isZero();
+        assertThat(index.search("porcelain", NO_FILTER, 0, 10).documents()).containsExactly(renamed);
+        assertThat(index.suggest("gi", 5).tags()).isEmpty();
+    }
+
+    @Tag("benchmark")
+    @Test
+    void searchOverAMillionProducts() {
+        int productCount = Integer.getInteger("benchmark.products", 1_000_000);
+        Random random = new Random(42);
+        UUID[] categoryIds = new UUID[200];
+        String[] categoryNames = new String[categoryIds.length];
+        for (int i = 0; i < categoryIds.length; i++) {
+            categoryIds[i] = UUID.randomUUID();
+            categoryNames[i] = MATERIALS[i % MATERIALS.length] + " " + NOUNS[i % NOUNS.length] + " " + i;
+        }
+        UUID[] tagIds = new UUID[2_000];
+        String[] tagNames = new String[tagIds.length];
+        for (int i = 0; i < tagIds.length; i++) {
+            tagIds[i] = UUID.randomUUID();
+            tagNames[i] = ADJECTIVES[i % ADJECTIVES.length] + "-" + i;
+        }
+
+        ProductSearchIndex index = new ProductSearchIndex(PRICE_BOUNDS);
+        long heapBefore = usedHeap();
+        long started = System.nanoTime();
+        List<ProductDocument> batch = new ArrayList<>(10_000);
+        for (int i = 0; i < productCount; i++) {
+            int category = random.nextInt(categoryIds.length);
+            int tagCount = 1 + random.nextInt(3);
+            List<UUID> ids = new ArrayList<>(tagCount);
+            List<String> names = new ArrayList<>(tagCount);
+            for (int t = 0; t < tagCount; t++) {
+                int tag = random.nextInt(tagIds.length);
+                ids.add(tagIds[tag]);
+                names.add(tagNames[tag]);
+            }
+            String name = ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " " + MATERIALS[random.nextInt(MATERIALS.length)]
+                    + " " + NOUNS[random.nextInt(NOUNS.length)] + " " + Integer.toString(i, 36);
+            batch.add(new ProductDocument(UUID.randomUUID(), name, "https://cdn.example.com/p/" + i + ".jpg",
+                    BigDecimal.valueOf(100 + random.nextInt(200_000), 2), random.nextInt(50),
+                    BigDecimal.valueOf(random.nextInt(51), 1), (long) random.nextInt(10_000),
+                    categoryIds[category], categoryNames[category], ids, names));
+            if (batch.size() == 10_000) {
+                index.apply(batch, List.of());
+                batch.clear();
+            }
+        }
+        index.apply(batch, List.of());
+        long buildMillis = (System.nanoTime() - started) / 1_000_000;
+        System.out.printf("Indexed %d products in %d ms, about %d MB of heap%n",
+                index.size(), buildMillis, (usedHeap() - heapBefore) / (1024 * 1024));
+        assertThat(index.size()).isEqualTo(productCount);
+
+        measure(index, "one common term", "kettle", NO_FILTER);
+        measure(index, "two terms", "steel kettle", NO_FILTER);
+        measure(index, "three terms", "portable steel kettle", NO_FILTER);
+        measure(index, "term and category", "lamp", new SearchFilter(categoryIds[0], null, null, null, false));
+        measure(index, "term, price and stock", "chair", new SearchFilter(null, null, new BigDecimal("50"), new BigDecimal("250"), true));
+        measure(index, "rare term", Integer.toString(productCount / 2, 36), NO_FILTER);
+        measure(index, "blank query, tag filter", "", new SearchFilter(null, tagIds[7], null, null, false));
+        long suggestStarted = System.nanoTime();
+        for (int i = 0; i < 1_000; i++) {
+            index.suggest(NOUNS[i % NOUNS.length].substring(0, 3), 5);
+        }
+        System.out.printf("Suggest: %d us per prefix%n", (System.nanoTime() - suggestStarted) / 1_000 / 1_000);
+    }
+
+    // Latency percentiles of the first page for one query shape
+    private static void measure(ProductSearchIndex index, String label, String query, SearchFilter filter) {
+        for (int i = 0; i < 5; i++) {
+            index.search(query, filter, 0, 20);
+        }
+        int rounds = 30;
+        long[] micros = new long[rounds];
+        long total = 0;
+        for (int i = 0; i < rounds; i++) {
+            long started = System.nanoTime();
+            total = index.search(query, filter, 0, 20).total();
+            micros[i] = (System.nanoTime() - started) / 1_000;
+        }
+        Arrays.sort(micros);
+        System.out.printf("Search %s (%s): %d matches, p50 %d us, p99 %d us%n",
+                label, query, total, micros[rounds / 2], micros[rounds * 99 / 100]);
+        assertThat(total).isPositive();
+    }
+
+    private static long usedHeap() {
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private ProductDocument document(String name, UUID categoryId, String categoryName, String price, int stock,
+                                     List<String> tags) {
+        List<UUID> tagIds = tags.stream().map(tag -> "sale".equals(tag) ? sale : UUID.nameUUIDFromBytes(tag.getBytes())).toList();
+        return new ProductDocument(UUID.randomUUID(), name, null, new BigDecimal(price), stock, BigDecimal.ONE, 0L,
+                categoryId, categoryName, tagIds, tags);
+    }
+}
@@ -0,0 +1,130 @@
+package com.orange.product_service.product.service;
+
+import com.orange.product_service.product.repo.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Rejections are answered from memory while the filter holds every create the Redis sequence
+ * counted, and confirmed with the database once it fell behind.
+ */
+class ProductExistenceFilterTest {
+
+    private static final String SEQUENCE_KEY = "product-existence:sequence";
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+    @SuppressWarnings("unchecked")
+    private final ValueOperations<String, String> values = mock(ValueOperations.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ProductExistenceFilter existenceFilter;
+
+    @BeforeEach
+    void buildEmptyFilter() throws InterruptedException {
+        when(redisTemplate.opsForValue()).thenReturn(values);
+        when(values.get(SEQUENCE_KEY)).thenReturn("0");
+        when(productRepository.findIdentitiesAfter(anyLong(), any(Limit.class))).thenReturn(List.of());
+        existenceFilter = new ProductExistenceFilter(productRepository, mock(PlatformTransactionManager.class),
+                redisTemplate, mock(RedisMessageListenerContainer.class), meterRegistry,
+                1_000, 0.01, 100, Duration.ofMinutes(1), 1_000, 0);
+        existenceFilter.buildOnStartup();
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (meterRegistry.get("product.existence.ready").gauge().value() < 1) {
+            assertThat(System.currentTimeMillis()).isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    void freshUnknownIdIsRejectedWithoutARepositoryCall() {
+        assertThat(existenceFilter.mightExist(UUID.randomUUID())).isFalse();
+        assertThat(existenceFilter.retainPossiblyExisting(List.of(UUID.randomUUID(), UUID.randomUUID()))).isEmpty();
+
+        verify(productRepository, never()).findExistingUuids(anyCollection());
+        assertThat(meterRegistry.get("product.existence.rejected").counter().count()).isEqualTo(3);
+    }
+
+    @Test
+    void createAnnouncedByAnotherInstanceKeepsTheFilterCurrent() {
+        UUID created = UUID.randomUUID();
+        when(values.get(SEQUENCE_KEY)).thenReturn("1");
+        existenceFilter.onMessage(new DefaultMessage(bytes(ProductExistenceFilter.CREATED_CHANNEL),
+                bytes("other-instance|1|" + created)), null);
+
+        assertThat(existenceFilter.mightExist(created)).isTrue();
+        assertThat(existenceFilter.mightExist(UUID.randomUUID())).isFalse();
+        verify(productRepository, never()).findExistingUuids(anyCollection());
+    }
+
+    @Test
+    void localCreatesAreCountedAndAnnounced() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        when(values.increment(SEQUENCE_KEY, 2)).thenReturn(2L);
+        when(values.get(SEQUENCE_KEY)).thenReturn("2");
+
+        existenceFilter.productsCreated(List.of(first, second));
+
+        verify(redisTemplate).convertAndSend(eq(ProductExistenceFilter.CREATED_CHANNEL), anyString());
+        assertThat(existenceFilter.retainPossiblyExisting(List.of(first, UUID.randomUUID(), second)))
+                .containsExactly(first, second);
+        verify(productRepository, never()).findExistingUuids(anyCollection());
+    }
+
+    @Test
+    void lostAnnouncementFallsBackToTheDatabase() {
+        UUID created = UUID.randomUUID();
+        UUID unknown = UUID.randomUUID();
+        // Counted by another instance, its message never arrived
+        when(values.get(SEQUENCE_KEY)).thenReturn("1");
+        when(productRepository.findExistingUuids(anyCollection())).thenReturn(List.of(created));
+        // What the rebuild started by the miss reads
+        when(productRepository.findIdentitiesAfter(anyLong(), any(Limit.class))).thenAnswer(invocation ->
+                invocation.<Long>getArgument(0) == 0L ? List.<Object[]>of(new Object[]{1L, created}) : List.of());
+
+        assertThat(existenceFilter.retainPossiblyExisting(List.of(created, unknown))).containsExactly(created);
+        assertThat(existenceFilter.mightExist(created)).isTrue();
+        assertThat(existenceFilter.mightExist(unknown)).isFalse();
+
+        verify(productRepository, times(1)).findExistingUuids(anyCollection());
+        assertThat(meterRegistry.get("product.existence.missed").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void unreachableRedisFallsBackToTheDatabase() {
+        when(values.get(SEQUENCE_KEY)).thenThrow(new IllegalStateException("connection refused"));
+        when(productRepository.findExistingUuids(anyCollection())).thenReturn(List.of());
+
+        assertThat(existenceFilter.mightExist(UUID.randomUUID())).isFalse();
+
+        verify(productRepository, times(1)).findExistingUuids(anyCollection());
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,126 @@
+package com.orange.product_service.product.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * CSV parsing of the import reader: RFC 4180 quoting, the header row and the line numbers
+ * reported for each record.
+ */
+class ProductImportReaderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void quotedFieldsKeepCommasEscapedQuotesAndLineBreaks() throws IOException {
+        try (ProductImportReader reader = csv(
+                "name,price,category,tags",
+                "\"Kettle, steel\",10.50,Kitchen,\"hot|\"\"new\"\"\"",
+                "\"Two",
+                "line lamp\",7,Home,")) {
+            ProductImportRow kettle = reader.next();
+            assertThat(kettle.line()).isEqualTo(2);
+            assertThat(kettle.name()).isEqualTo("Kettle, steel");
+            assertThat(kettle.price()).isEqualByComparingTo(new BigDecimal("10.50"));
+            assertThat(kettle.category()).isEqualTo("Kitchen");
+            assertThat(kettle.tags()).containsExactly("hot", "\"new\"");
+
+            ProductImportRow lamp = reader.next();
+            assertThat(lamp.line()).isEqualTo(3);
+            assertThat(lamp.name()).isEqualTo("Two\nline lamp");
+            assertThat(lamp.tags()).isEmpty();
+
+            assertThat(reader.next()).isNull();
+        }
+    }
+
+    @Test
+    void headerIgnoresByteOrderMarkAndCase() throws IOException {
+        try (ProductImportReader reader = csv(
+                "\uFEFFName, PRICE ,Category,Stock,LowStockThreshold",
+                "Mug,3,Kitchen,12,2")) {
+            ProductImportRow mug = reader.next();
+            assertThat(mug.name()).isEqualTo("Mug");
+            assertThat(mug.price()).isEqualByComparingTo("3");
+            assertThat(mug.stock()).isEqualTo(12);
+            assertThat(mug.lowStockThreshold()).isEqualTo(2);
+            assertThat(mug.image()).isNull();
+        }
+    }
+
+    @Test
+    void headerWithoutARequiredColumnIsRejected() {
+        assertThatThrownBy(() -> {
+            try (ProductImportReader reader = csv("name,category", "Mug,Kitchen")) {
+                reader.next();
+            }
+        }).isInstanceOf(IllegalArgumentException.class).hasMessageContaining("price");
+    }
+
+    @Test
+    void unterminatedQuoteFailsAtTheLineWhereTheRecordStarts() throws IOException {
+        try (ProductImportReader reader = csv(
+                "name,price,category",
+                "Mug,3,Kitchen",
+                "\"Open,5,Kitchen",
+                "Chair,9,Home")) {
+            assertThat(reader.next().name()).isEqualTo("Mug");
+            assertThatThrownBy(reader::next)
+                    .isInstanceOfSatisfying(ProductImportReader.RowException.class,
+                            e -> assertThat(e.line()).isEqualTo(3))
+                    .hasMessageContaining("Unterminated");
+        }
+    }
+
+    @Test
+    void badRowsReportTheirOwnLineAndTheReaderMovesOn() throws IOException {
+        try (ProductImportReader reader = csv(
+                "name,price,category,stock",
+                "",
+                "\"Multi",
+                "line\",1,Home,1",
+                "Mug,cheap,Kitchen,1",
+                "Cup,2,Kitchen,many",
+                "Plate,4,Kitchen,6")) {
+            assertThat(reader.next().line()).isEqualTo(3);
+
+            assertThatThrownBy(reader::next)
+                    .isInstanceOfSatisfying(ProductImportReader.RowException.class,
+                            e -> assertThat(e.line()).isEqualTo(5))
+                    .hasMessage("Invalid price: cheap");
+            assertThatThrownBy(reader::next)
+                    .isInstanceOfSatisfying(ProductImportReader.RowException.class,
+                            e -> assertThat(e.line()).isEqualTo(6))
+                    .hasMessage("Invalid stock: many");
+
+            ProductImportRow plate = reader.next();
+            assertThat(plate.line()).isEqualTo(7);
+            assertThat(plate.stock()).isEqualTo(6);
+            assertThat(reader.next()).isNull();
+        }
+    }
+
+    @Test
+    void missingTrailingFieldsReadAsEmpty() throws IOException {
+        try (ProductImportReader reader = csv("name,price,category,tags", "Mug,3,Kitchen")) {
+            ProductImportRow mug = reader.next();
+            assertThat(mug.category()).isEqualTo("Kitchen");
+            assertThat(mug.tags()).isEqualTo(List.of());
+        }
+    }
+
+    private ProductImportReader csv(String... lines) {
+        String text = String.join("\n", lines) + "\n";
+        return new ProductImportReader(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)),
+                ProductImportReader.Format.CSV, objectMapper);
+    }
+}
@@ -0,0 +1,215 @@
+package com.orange.product_service.product.service;
+
+import com.orange.product_service.category.entity.Category;
+import com.orange.product_service.category.service.CategoryService;
+import com.orange.product_service.product.dto.ProductBatchDto;
+import com.orange.product_service.product.dto.ProductCursorPageDto;
+import com.orange.product_service.product.dto.ProductPageDto;
+import com.orange.product_service.product.entity.Product;
+import com.orange.product_service.product.entity.Variant;
+import com.orange.product_service.product.search.ProductIndexer;
+import com.orange.product_service.product.trending.TrendingTracker;
+import com.orange.product_service.review.entity.Review;
+import com.orange.product_service.tag.entity.Tag;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.NoOpCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.when;
+
+/**
+ * The listing and batch loaders must not issue statements per product: a page costs the same number
+ * of statements whatever its size (page, count, one IN query per association and the categories).
+ */
+@DataJpaTest(showSql = false)
+@ActiveProfiles("test")
+@TestPropertySource(locations = "classpath:jpa-test.properties")
+@Import({ProductQueryService.class, ProductQueryServiceStatementCountTest.NoCaching.class})
+class ProductQueryServiceStatementCountTest {
+
+    private static final int PRODUCTS = 160;
+    // The largest page exceeds hibernate.default_batch_fetch_size, lazy loading would need extra rounds there
+    private static final int[] PAGE_SIZES = {5, 50, 150};
+    // Keyset pages stop at 100, which is also the batch fetch size
+    private static final int[] KEYSET_PAGE_SIZES = {5, 50, 100};
+    // Page, count, tags, reviews, variants and the batch fetched categories
+    private static final long MAX_PAGE_STATEMENTS = 6;
+
+    @Autowired
+    private ProductQueryService productQueryService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockitoBean
+    private CategoryService categoryService;
+
+    // Referenced by name from the cache key expressions
+    @MockitoBean(name = "productCacheInvalidator")
+    private ProductCacheInvalidator cacheInvalidator;
+
+    @MockitoBean
+    private ProductIndexer productIndexer;
+
+    @MockitoBean
+    private ProductExistenceFilter existenceFilter;
+
+    @MockitoBean
+    private TrendingTracker trendingTracker;
+
+    private final List<UUID> productIds = new ArrayList<>();
+    private Statistics statistics;
+
+    @BeforeEach
+    void seedCatalog() {
+        List<Category> categories = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Category category = new Category();
+            category.setName("Category " + i);
+            entityManager.persist(category);
+            categories.add(category);
+        }
+        List<Tag> tags = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            Tag tag = new Tag();
+            tag.setName("Tag " + i);
+            entityManager.persist(tag);
+            tags.add(tag);
+        }
+        for (int i = 0; i < PRODUCTS; i++) {
+            Product product = new Product();
+            product.setName(String.format("Product %03d", i));
+            product.setPrice(BigDecimal.valueOf(10 + i));
+            product.setStock(100);
+            product.setCategory(categories.get(i % categories.size()));
+            product.addTag(tags.get(i % tags.size()));
+            product.addTag(tags.get((i + 1) % tags.size()));
+            for (int v = 0; v < 2; v++) {
+                Variant variant = new Variant();
+                variant.setProduct(product);
+                variant.setName("Variant " + v);
+                variant.setAttributes(Map.of("size", v == 0 ? "S" : "M"));
+                variant.setPrice(product.getPrice());
+                variant.setSku("SKU-" + i + "-" + v);
+                product.getVariants().add(variant);
+            }
+            entityManager.persist(product);
+            productIds.add(product.getUuid());
+            for (int r = 0; r < 2; r++) {
+                Review review = new Review();
+                review.setUserId(UUID.randomUUID());
+                review.setRate(BigDecimal.valueOf(3 + r));
+                product.addReview(review);
+                entityManager.persist(review);
+            }
+        }
+        entityManager.flush();
+
+        when(cacheInvalidator.productsPageKey(anyInt(), anyInt())).thenReturn("page");
+        when(existenceFilter.retainPossiblyExisting(anyCollection()))
+                .thenAnswer(invocation -> List.copyOf(invocation.<Collection<UUID>>getArgument(0)));
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void offsetPagesUseAFixedNumberOfStatements() {
+        List<Long> counts = new ArrayList<>();
+        for (int size : PAGE_SIZES) {
+            counts.add(countStatements(() -> {
+                ProductPageDto page = productQueryService.getActiveProductsPage(0, size);
+                assertThat(page.products()).hasSize(size)
+                        .allSatisfy(product -> {
+                            assertThat(product.getCategory()).isNotNull();
+                            assertThat(product.getTags()).hasSize(2);
+                            assertThat(product.getReviews()).hasSize(2);
+                            assertThat(product.getVariants()).hasSize(2);
+                        });
+                return page;
+            }));
+        }
+
+        assertThat(counts).as("statements per page size %s", Arrays.toString(PAGE_SIZES)).containsOnly(counts.get(0));
+        assertThat(counts.get(0)).isLessThanOrEqualTo(MAX_PAGE_STATEMENTS);
+    }
+
+    @Test
+    void keysetPagesUseAFixedNumberOfStatements() {
+        List<Long> counts = new ArrayList<>();
+        for (int size : KEYSET_PAGE_SIZES) {
+            counts.add(countStatements(() -> {
+                ProductCursorPageDto page = productQueryService.getActiveProductsAfter(null, size, false);
+                assertThat(page.products()).hasSize(size);
+                return page;
+            }));
+        }
+
+        assertThat(counts).as("statements per page size %s", Arrays.toString(KEYSET_PAGE_SIZES)).containsOnly(counts.get(0));
+        // No count query without includeTotal
+        assertThat(counts.get(0)).isLessThanOrEqualTo(MAX_PAGE_STATEMENTS - 1);
+        assertThatThrownBy(() -> productQueryService.getActiveProductsAfter(null, 101, false))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void batchMissesUseAFixedNumberOfStatements() {
+        List<Long> counts = new ArrayList<>();
+        for (int size : PAGE_SIZES) {
+            counts.add(countStatements(() -> {
+                ProductBatchDto batch = productQueryService.getProductBatch(productIds.subList(0, size));
+                assertThat(batch.products()).hasSize(size);
+                return batch;
+            }));
+        }
+
+        assertThat(counts).as("statements per batch size %s", Arrays.toString(PAGE_SIZES)).containsOnly(counts.get(0));
+        // Products with their categories, tags, reviews and variants
+        assertThat(counts.get(0)).isLessThanOrEqualTo(4);
+    }
+
+    // Caching is enabled application wide, every call has to reach the loader
+    @TestConfiguration
+    static class NoCaching {
+
+        @Bean
+        CacheManager cacheManager() {
+            return new NoOpCacheManager();
+        }
+    }
+
+    private long countStatements(Supplier<?> load) {
+        // Start from an empty persistence context so every association is really loaded
+        entityManager.clear();
+        statistics.clear();
+        load.get();
+        return statistics.getPrepareStatementCount();
+    }
+}
@@ -0,0 +1,127 @@
+package com.orange.product_service.product.trending;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Ranking and decay of the trending sketch, its landmark rescale and its snapshot format. The
+ * sketch is wide enough for a handful of products that the estimates are exact.
+ */
+class DecayingTopKTest {
+
+    private static final long WINDOW = 60_000;
+    private static final int WIDTH = 1024;
+    private static final int DEPTH = 4;
+    private static final double EPSILON = 1e-9;
+
+    private final UUID hot = UUID.randomUUID();
+    private final UUID warm = UUID.randomUUID();
+    private final UUID cold = UUID.randomUUID();
+
+    @Test
+    void ranksByDecayedCountAndDecaysByEOverOneWindow() {
+        DecayingTopK sketch = new DecayingTopK(WINDOW, WIDTH, DEPTH, 10, 0);
+        sketch.add(cold, 1, 0);
+        sketch.add(hot, 5, 0);
+        sketch.add(warm, 3, 0);
+
+        List<TrendingTracker.Ranked> now = sketch.top(0);
+        assertThat(now).extracting(TrendingTracker.Ranked::productId).containsExactly(hot, warm, cold);
+        assertThat(now).extracting(TrendingTracker.Ranked::score).containsExactly(5.0, 3.0, 1.0);
+
+        List<TrendingTracker.Ranked> later = sketch.top(WINDOW);
+        for (int i = 0; i < now.size(); i++) {
+            assertThat(later.get(i).score() / now.get(i).score()).isCloseTo(Math.exp(-1), within(EPSILON));
+        }
+    }
+
+    @Test
+    void recentEventsOutweighOlderOnes() {
+        DecayingTopK sketch = new DecayingTopK(WINDOW, WIDTH, DEPTH, 10, 0);
+        sketch.add(hot, 2, 0);
+        sketch.add(warm, 1, 2 * WINDOW);
+
+        // 2 * e^-2 = 0.27 against 1
+        List<TrendingTracker.Ranked> top = sketch.top(2 * WINDOW);
+        assertThat(top).extracting(TrendingTracker.Ranked::productId).containsExactly(warm, hot);
+        assertThat(top.get(1).score()).isCloseTo(2 * Math.exp(-2), within(EPSILON));
+    }
+
+    @Test
+    void keepsOnlyTheStrongestCandidates() {
+        DecayingTopK sketch = new DecayingTopK(WINDOW, WIDTH, DEPTH, 2, 0);
+        sketch.add(cold, 1, 0);
+        sketch.add(warm, 2, 0);
+        sketch.add(hot, 3, 0);
+
+        assertThat(sketch.top(0)).extracting(TrendingTracker.Ranked::productId).containsExactly(hot, warm);
+
+        // A candidate that grows past the weakest replaces it
+        sketch.add(cold, 4, 0);
+        assertThat(sketch.top(0)).extracting(TrendingTracker.Ranked::productId).containsExactly(cold, hot);
+    }
+
+    @Test
+    void rescalesTheLandmarkBeforeWeightsOverflow() {
+        DecayingTopK sketch = new DecayingTopK(WINDOW, WIDTH, DEPTH, 10, 0);
+        sketch.add(hot, 1, 0);
+        sketch.add(warm, 1, 0);
+
+        // Past MAX_EXPONENT (20 windows) the counts are scaled down to a new landmark
+        long late = 25 * WINDOW;
+        sketch.add(hot, 1, late);
+
+        List<TrendingTracker.Ranked> top = sketch.top(late);
+        assertThat(top).extracting(TrendingTracker.Ranked::productId).containsExactly(hot, warm);
+        assertThat(top.get(0).score()).isCloseTo(1 + Math.exp(-25), within(EPSILON));
+        assertThat(top.get(1).score()).isCloseTo(Math.exp(-25), within(EPSILON));
+
+        // And decay keeps working from the new landmark
+        assertThat(sketch.top(late + WINDOW).get(0).score())
+                .isCloseTo((1 + Math.exp(-25)) * Math.exp(-1), within(EPSILON));
+    }
+
+    @Test
+    void snapshotRoundTripsIntoAFreshSketch() throws IOException {
+        DecayingTopK original = new DecayingTopK(WINDOW, WIDTH, DEPTH, 10, 0);
+        original.add(hot, 5, 0);
+        original.add(warm, 3, WINDOW / 2);
+        original.add(cold, 1, WINDOW);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            original.writeTo(out);
+        }
+        DecayingTopK restored;
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            restored = DecayingTopK.readFrom(in, 10);
+        }
+
+        // As after a restart: a new sketch started later absorbs the persisted one
+        long restart = 2 * WINDOW;
+        DecayingTopK fresh = new DecayingTopK(WINDOW, WIDTH, DEPTH, 10, restart);
+        fresh.merge(restored);
+
+        List<TrendingTracker.Ranked> expected = original.top(restart);
+        List<TrendingTracker.Ranked> merged = fresh.top(restart);
+        assertThat(merged).extracting(TrendingTracker.Ranked::productId)
+                .containsExactly(hot, warm, cold);
+        for (int i = 0; i < expected.size(); i++) {
+            assertThat(merged.get(i).score()).isCloseTo(expected.get(i).score(), within(EPSILON));
+        }
+
+        // New events add on top of the restored counts
+        fresh.add(cold, 10, restart);
+        assertThat(fresh.top(restart).get(0).productId()).isEqualTo(cold);
+    }
+}